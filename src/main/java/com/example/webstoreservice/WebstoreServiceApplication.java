@@ -4,8 +4,10 @@ import com.example.commoncode.config.CommonCodeConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableFeignClients
+@EnableScheduling
 @SpringBootApplication(scanBasePackageClasses = {WebstoreServiceApplication.class,
     CommonCodeConfig.class})
 public class WebstoreServiceApplication {
@@ -0,0 +1,69 @@
+package com.example.webstoreservice.cache;
+
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.enums.BookChangeType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Локальный кэш количества книг для каждого набора параметров фильтрации. Позволяет не выполнять
+ * запрос {@code COUNT(*)} при каждом переходе между страницами каталога. Записи живут недолго, а
+ * ключ записи включает номер поколения, который увеличивается при любом изменении состава или
+ * атрибутов книг, поэтому количество, подсчитанное до изменения, не попадает в новое поколение.
+ */
+@Component
+public class BookCountCache {
+
+  private final Cache<CountKey, Long> cache;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  public BookCountCache(
+      @Value("${book.count-cache.maximum-size}") long maximumSize,
+      @Value("${book.count-cache.ttl}") Duration ttl,
+      MeterRegistry meterRegistry) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "book-counts");
+  }
+
+  /**
+   * Получение количества книг, удовлетворяющих фильтру. При отсутствии записи количество
+   * вычисляется через {@code counter}.
+   *
+   * @param filter  Параметры фильтрации.
+   * @param counter Функция подсчета количества книг.
+   * @return Количество книг.
+   */
+  public long get(BookFilterDto filter, Supplier<Long> counter) {
+    return cache.get(new CountKey(generation.get(), filter), key -> counter.get());
+  }
+
+  /**
+   * Переход к новому поколению после фиксации транзакции, изменившей книгу.
+   *
+   * @param event Событие изменения книги.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    if (event.changeType() != BookChangeType.COVER_CHANGED) {
+      generation.incrementAndGet();
+    }
+  }
+
+  private record CountKey(long generation, BookFilterDto filter) {
+
+  }
+}
@@ -0,0 +1,129 @@
+package com.example.webstoreservice.cache;
+
+import com.example.commoncode.exception.BookCoverException;
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.storage.ByteBufferResource;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Локальный кэш часто запрашиваемых обложек книг и их уменьшенных вариантов. Ключом служат
+ * идентификатор и версия книги и название варианта, поэтому замена обложки, увеличивающая
+ * версию, делает прежние записи недостижимыми; кроме того, после любого изменения книги ее записи
+ * удаляются. Конкурентные запросы одной обложки читают файл один раз.
+ * Содержимое хранится в прямых буферах {@link ByteBuffer} вне кучи, размер кэша ограничен
+ * суммарным объемом обложек, а вытеснение выполняется по политике W-TinyLFU. Обложки больше
+ * {@code book.cover-cache.max-entry-size} не кэшируются и передаются из файла. Обложки, которые
+ * хранилище уже отдает из памяти (например, из отображенных пакетных файлов), также не кэшируются.
+ */
+@Component
+public class BookCoverCache {
+
+  private final Cache<CoverKey, ByteBufferResource> cache;
+
+  private final long maxEntrySize;
+
+  public BookCoverCache(
+      @Value("${book.cover-cache.maximum-size}") DataSize maximumSize,
+      @Value("${book.cover-cache.max-entry-size}") DataSize maxEntrySize,
+      MeterRegistry meterRegistry) {
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(maximumSize.toBytes())
+        .<CoverKey, ByteBufferResource>weigher((key, cover) -> cover.size())
+        .recordStats()
+        .build();
+    this.maxEntrySize = maxEntrySize.toBytes();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "book-covers");
+    Gauge.builder("book.cover-cache.bytes", cache,
+            covers -> covers.policy().eviction().orElseThrow().weightedSize().orElse(0L))
+        .description("Объем обложек в кэше, байт")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Получение обложки книги. При отсутствии записи файл обложки получается через
+   * {@code loader} и, если его размер не превышает ограничения, читается в прямой буфер атомарно
+   * с добавлением записи, поэтому конкурентные запросы ожидают одной загрузки.
+   *
+   * @param bookId  Идентификатор книги.
+   * @param version Версия книги.
+   * @param variant Название уменьшенного варианта или null для исходной обложки.
+   * @param loader  Функция получения файла обложки.
+   * @return Объект {@link Resource} с содержимым обложки из кэша или из файла.
+   * @throws BookCoverException, если произошла ошибка при чтении файла обложки.
+   */
+  public Resource get(Long bookId, Long version, String variant, Supplier<Resource> loader) {
+    AtomicReference<Resource> uncached = new AtomicReference<>();
+    ByteBufferResource cover = cache.get(new CoverKey(bookId, version, variant), key -> {
+      Resource file = loader.get();
+      try {
+        if (!file.isFile() || file.contentLength() > maxEntrySize) {
+          uncached.set(file);
+          return null;
+        }
+        return read(file);
+      } catch (IOException e) {
+        throw new BookCoverException("Ошибка при чтении файла обложки");
+      }
+    });
+    return cover != null ? cover : uncached.get();
+  }
+
+  /**
+   * Удаление обложек книги после фиксации транзакции, изменившей книгу.
+   *
+   * @param event Событие изменения книги.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    evict(event.bookId());
+  }
+
+  /**
+   * Удаление всех записей книги, например после построения уменьшенных вариантов обложки.
+   *
+   * @param bookId Идентификатор книги.
+   */
+  public void evict(Long bookId) {
+    cache.asMap().keySet().removeIf(key -> key.bookId().equals(bookId));
+  }
+
+  /**
+   * Удаление всех записей.
+   */
+  public void evictAll() {
+    cache.invalidateAll();
+  }
+
+  private record CoverKey(Long bookId, Long version, String variant) {
+
+  }
+
+  private static ByteBufferResource read(Resource file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.getFile().toPath(),
+        StandardOpenOption.READ)) {
+      ByteBuffer content = ByteBuffer.allocateDirect(Math.toIntExact(channel.size()));
+      int read = 0;
+      while (content.hasRemaining() && read >= 0) {
+        read = channel.read(content);
+      }
+      content.flip();
+      return new ByteBufferResource(content, file.getFilename(), file.lastModified());
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.webstoreservice.cache;
+
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.dto.BookFacetsDto;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.enums.BookChangeType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Локальный кэш фасетов каталога для каждого набора параметров фильтрации. Ключ записи включает
+ * номер поколения, который увеличивается при любом изменении состава или атрибутов книг, поэтому
+ * фасеты, подсчитанные до изменения и загруженные после него, не попадают в новое поколение.
+ * Записи прежних поколений вытесняются по размеру или сроку жизни.
+ */
+@Component
+public class BookFacetsCache {
+
+  private final Cache<FacetsKey, BookFacetsDto> cache;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  public BookFacetsCache(
+      @Value("${book.facets.cache.maximum-size}") long maximumSize,
+      @Value("${book.facets.cache.ttl}") Duration ttl,
+      MeterRegistry meterRegistry) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "book-facets");
+  }
+
+  /**
+   * Получение фасетов для набора параметров фильтрации. При отсутствии записи фасеты вычисляются
+   * через {@code loader}.
+   *
+   * @param filter Параметры фильтрации.
+   * @param loader Функция подсчета фасетов.
+   * @return Объект {@link BookFacetsDto}.
+   */
+  public BookFacetsDto get(BookFilterDto filter, Supplier<BookFacetsDto> loader) {
+    return cache.get(new FacetsKey(generation.get(), filter), key -> loader.get());
+  }
+
+  /**
+   * Переход к новому поколению фасетов после фиксации транзакции, изменившей книгу.
+   *
+   * @param event Событие изменения книги.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    if (event.changeType() != BookChangeType.COVER_CHANGED) {
+      generation.incrementAndGet();
+    }
+  }
+
+  private record FacetsKey(long generation, BookFilterDto filter) {
+
+  }
+}
@@ -0,0 +1,123 @@
+package com.example.webstoreservice.cache;
+
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.dto.BookDto;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Локальный кэш страниц каталога для нормализованных параметров фильтрации, сортировки и
+ * постраничного вывода. Ключ записи включает номер поколения каталога, который увеличивается
+ * после каждого изменения книги: записи прежних поколений больше не запрашиваются и вытесняются
+ * по размеру или сроку жизни. Номер поколения вместе с меткой запуска узла служит также основой
+ * ETag списка книг. Кэш не является загружающим, поэтому время загрузки страниц учитывается
+ * отдельным таймером {@code book.page-cache.load}.
+ */
+@Component
+public class BookPageCache {
+
+  private final Cache<PageKey, Page<BookDto>> cache;
+
+  private final Timer loadTimer;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+  public BookPageCache(
+      @Value("${book.page-cache.maximum-size}") long maximumSize,
+      @Value("${book.page-cache.ttl}") Duration ttl,
+      MeterRegistry meterRegistry) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "book-pages");
+    Gauge.builder("book.page-cache.generation", generation, AtomicLong::get)
+        .description("Номер поколения каталога в кэше страниц")
+        .register(meterRegistry);
+    this.loadTimer = Timer.builder("book.page-cache.load")
+        .description("Время загрузки страницы каталога при промахе кэша")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Получение страницы каталога. При отсутствии записи страница загружается через
+   * {@code loader}, которому передаются нормализованные параметры фильтрации: название без
+   * пробелов по краям в нижнем регистре (пустое заменяется на null) и цены без незначащих нулей.
+   *
+   * @param filter        Параметры фильтрации.
+   * @param sortBy        Поле сортировки.
+   * @param sortDirection Направление сортировки.
+   * @param pageable      Объект, представляющий информацию о странице.
+   * @param loader        Функция загрузки страницы по нормализованным параметрам фильтрации.
+   * @return Страница {@link Page} с объектами {@link BookDto}.
+   */
+  public Page<BookDto> get(BookFilterDto filter, SortBy sortBy, SortDirection sortDirection,
+      Pageable pageable, Function<BookFilterDto, Page<BookDto>> loader) {
+    BookFilterDto normalized = normalize(filter);
+    PageKey key = new PageKey(generation.get(), normalized, sortBy, sortDirection,
+        pageable.getPageNumber(), pageable.getPageSize());
+    return cache.get(key, k -> loadTimer.record(() -> loader.apply(normalized)));
+  }
+
+  /**
+   * Текущее поколение каталога. Метка запуска узла исключает совпадение поколений разных узлов и
+   * разных запусков одного узла.
+   *
+   * @return Строковое представление поколения каталога.
+   */
+  public String generation() {
+    return epoch + "-" + generation.get();
+  }
+
+  /**
+   * Переход к новому поколению каталога после фиксации транзакции, изменившей книгу.
+   *
+   * @param event Событие изменения книги.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    generation.incrementAndGet();
+  }
+
+  private static BookFilterDto normalize(BookFilterDto filter) {
+    return BookFilterDto.builder()
+        .title(StringUtils.isBlank(filter.title()) ? null :
+            filter.title().strip().toLowerCase(Locale.ROOT))
+        .authorId(filter.authorId())
+        .genreId(filter.genreId())
+        .minPrice(normalize(filter.minPrice()))
+        .maxPrice(normalize(filter.maxPrice()))
+        .build();
+  }
+
+  private static BigDecimal normalize(BigDecimal price) {
+    return price == null ? null : price.stripTrailingZeros();
+  }
+
+  private record PageKey(long generation, BookFilterDto filter, SortBy sortBy,
+      SortDirection sortDirection, int page, int size) {
+
+  }
+}
@@ -0,0 +1,57 @@
+package com.example.webstoreservice.cache;
+
+import com.example.webstoreservice.model.ParsedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Список отозванных токенов. Для пользователя хранится момент отзыва, и все его токены, выпущенные
+ * раньше этого момента, считаются недействительными. Время выпуска в JWT указывается с точностью
+ * до секунды, поэтому момент отзыва также округляется вниз до секунды: токен, полученный при
+ * повторном входе в ту же секунду, остается действительным. Записи живут не дольше максимального
+ * срока действия токена.
+ */
+@Component
+public class TokenRevocationList {
+
+  private final Cache<UUID, Instant> revocations;
+
+  private final UserDtoCache userDtoCache;
+
+  public TokenRevocationList(@Value("${jwt.revocation.ttl}") Duration ttl,
+      UserDtoCache userDtoCache) {
+    this.revocations = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .build();
+    this.userDtoCache = userDtoCache;
+  }
+
+  /**
+   * Отзыв всех выпущенных на текущий момент токенов пользователя.
+   *
+   * @param userUuid UUID пользователя.
+   */
+  public void revoke(UUID userUuid) {
+    revocations.put(userUuid, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+    userDtoCache.evict(userUuid);
+  }
+
+  /**
+   * Проверка, отозван ли токен.
+   *
+   * @param token Разобранный JWT-токен.
+   * @return true, если токен отозван, в противном случае - false.
+   */
+  public boolean isRevoked(ParsedToken token) {
+    Instant revokedAt = revocations.getIfPresent(UUID.fromString(token.uuid()));
+    return revokedAt != null
+        && (token.issuedAt() == null || token.issuedAt().before(Date.from(revokedAt)));
+  }
+}
@@ -0,0 +1,133 @@
+package com.example.webstoreservice.cache;
+
+import com.example.webstoreservice.feign.ServiceUnavailableException;
+import com.example.webstoreservice.model.dto.UserDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Локальный кэш данных пользователей {@link UserDto}, полученных от сервиса регистрации и
+ * аутентификации. Время жизни записи ограничено настройкой и сроком действия токена, с которым
+ * запись была загружена. Последние успешно загруженные данные дополнительно хранятся дольше и
+ * используются, если сервис регистрации и аутентификации недоступен, но также не дольше срока
+ * действия токена, с которым они были загружены.
+ */
+@Component
+public class UserDtoCache {
+
+  private final Cache<UUID, CachedUser> cache;
+
+  private final Cache<UUID, CachedUser> staleUsers;
+
+  private final long ttlNanos;
+
+  private final long staleTtlNanos;
+
+  public UserDtoCache(
+      @Value("${user.cache.maximum-size}") long maximumSize,
+      @Value("${user.cache.ttl}") Duration ttl,
+      @Value("${user.cache.stale-ttl}") Duration staleTtl,
+      MeterRegistry meterRegistry) {
+    this.ttlNanos = ttl.toNanos();
+    this.staleTtlNanos = staleTtl.toNanos();
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new CachedUserExpiry())
+        .recordStats()
+        .build();
+    this.staleUsers = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new CachedUserExpiry())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    CaffeineCacheMetrics.monitor(meterRegistry, staleUsers, "stale-users");
+  }
+
+  /**
+   * Получение данных пользователя из кэша. При отсутствии записи данные загружаются через
+   * {@code loader} и сохраняются на время, не превышающее срок действия токена. Загрузка
+   * выполняется вне блокировки кэша: удаленный вызов не удерживает монитор и не закрепляет
+   * виртуальный поток за несущим, а одновременные загрузки объединяются в
+   * {@link com.example.webstoreservice.feign.CoalescingUserClient}. Если сервис
+   * недоступен, возвращаются последние известные данные пользователя, а при их отсутствии
+   * пробрасывается исключение {@link ServiceUnavailableException}.
+   *
+   * @param userUuid        UUID пользователя.
+   * @param tokenExpiration Время истечения срока действия токена.
+   * @param loader          Функция загрузки данных пользователя.
+   * @return Объект {@link UserDto} с данными пользователя.
+   */
+  public UserDto get(UUID userUuid, Date tokenExpiration, Supplier<UserDto> loader) {
+    CachedUser cachedUser = cache.getIfPresent(userUuid);
+    if (cachedUser != null) {
+      return cachedUser.userDto();
+    }
+    try {
+      cachedUser = load(userUuid, loader, tokenExpiration);
+      cache.put(userUuid, cachedUser);
+      return cachedUser.userDto();
+    } catch (ServiceUnavailableException e) {
+      CachedUser staleUser = staleUsers.getIfPresent(userUuid);
+      if (staleUser == null) {
+        throw e;
+      }
+      return staleUser.userDto();
+    }
+  }
+
+  /**
+   * Удаление данных пользователя из кэша.
+   *
+   * @param userUuid UUID пользователя.
+   */
+  public void evict(UUID userUuid) {
+    cache.invalidate(userUuid);
+    staleUsers.invalidate(userUuid);
+  }
+
+  private CachedUser load(UUID userUuid, Supplier<UserDto> loader, Date tokenExpiration) {
+    UserDto userDto = loader.get();
+    staleUsers.put(userUuid, new CachedUser(userDto, ttlNanos(staleTtlNanos, tokenExpiration)));
+    return new CachedUser(userDto, ttlNanos(ttlNanos, tokenExpiration));
+  }
+
+  private static long ttlNanos(long maximumTtlNanos, Date tokenExpiration) {
+    long untilExpiration = Duration.ofMillis(
+        tokenExpiration.getTime() - System.currentTimeMillis()).toNanos();
+    return Math.max(0, Math.min(maximumTtlNanos, untilExpiration));
+  }
+
+  private record CachedUser(UserDto userDto, long ttlNanos) {
+
+  }
+
+  private static class CachedUserExpiry implements Expiry<UUID, CachedUser> {
+
+    @Override
+    public long expireAfterCreate(UUID key, CachedUser value, long currentTime) {
+      return value.ttlNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(UUID key, CachedUser value, long currentTime,
+        long currentDuration) {
+      return value.ttlNanos();
+    }
+
+    @Override
+    public long expireAfterRead(UUID key, CachedUser value, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
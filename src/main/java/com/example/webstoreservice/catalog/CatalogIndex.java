@@ -0,0 +1,145 @@
+package com.example.webstoreservice.catalog;
+
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.BookFacetRow;
+import com.example.webstoreservice.model.BookSpecifications;
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import com.example.webstoreservice.repository.BookRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Индекс каталога в памяти процесса. При включенной настройке {@code catalog.index.enabled} после
+ * старта приложения загружает все неудаленные книги в {@link CatalogSnapshot} и отвечает на
+ * запросы списка книг без обращения к базе данных. Изменения книг применяются к снимку после
+ * фиксации транзакции пакетами: изменения, накопившиеся, пока применялся предыдущий пакет,
+ * загружаются одним запросом и применяются за один проход по снимку. Пока индекс выключен или не
+ * загружен, а также для поиска по названию и сортировки по релевантности, запросы выполняются в
+ * базе данных.
+ */
+@Slf4j
+@Component
+public class CatalogIndex {
+
+  private final BookRepository bookRepository;
+
+  private final boolean enabled;
+
+  private final Queue<Long> pendingBookIds = new ConcurrentLinkedQueue<>();
+
+  private volatile CatalogSnapshot snapshot;
+
+  public CatalogIndex(
+      BookRepository bookRepository,
+      @Value("${catalog.index.enabled}") boolean enabled,
+      MeterRegistry meterRegistry) {
+    this.bookRepository = bookRepository;
+    this.enabled = enabled;
+    Gauge.builder("catalog.index.books", this,
+            index -> index.snapshot == null ? 0 : index.snapshot.size())
+        .description("Количество книг в индексе каталога")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Загрузка всех неудаленных книг в индекс после старта приложения.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void load() {
+    if (!enabled) {
+      return;
+    }
+    pendingBookIds.clear();
+    List<BookView> books = bookRepository.findViews(BookSpecifications.notDeleted());
+    snapshot = CatalogSnapshot.of(books);
+    log.info("Индекс каталога загружен, книг: {}", books.size());
+    applyPending();
+  }
+
+  /**
+   * Выборка книг из индекса.
+   *
+   * @param filter        Параметры фильтрации.
+   * @param sortBy        Поле сортировки.
+   * @param sortDirection Направление сортировки.
+   * @param offset        Количество пропускаемых книг.
+   * @param limit         Максимальное количество книг.
+   * @param countTotal    Признак необходимости подсчета общего количества подходящих книг.
+   * @return Объект {@link CatalogResult} или пустой {@link Optional}, если запрос должен быть
+   * выполнен в базе данных.
+   */
+  public Optional<CatalogResult> find(BookFilterDto filter, SortBy sortBy,
+      SortDirection sortDirection, long offset, int limit, boolean countTotal) {
+    CatalogSnapshot current = snapshot;
+    if (current == null || sortBy == SortBy.RELEVANCE || StringUtils.isNotBlank(filter.title())) {
+      return Optional.empty();
+    }
+    return Optional.of(current.find(filter, sortBy, sortDirection, offset, limit, countTotal));
+  }
+
+  /**
+   * Подсчет фасетов каталога за один проход по индексу.
+   *
+   * @param filter      Параметры фильтрации.
+   * @param priceBounds Границы ценовых диапазонов в порядке возрастания.
+   * @return Список строк {@link BookFacetRow} или пустой {@link Optional}, если индекс не
+   * загружен или задано название книги.
+   */
+  public Optional<List<BookFacetRow>> facets(BookFilterDto filter, List<BigDecimal> priceBounds) {
+    CatalogSnapshot current = snapshot;
+    if (current == null || StringUtils.isNotBlank(filter.title())) {
+      return Optional.empty();
+    }
+    return Optional.of(current.facets(filter, priceBounds));
+  }
+
+  /**
+   * Применение изменения книги к индексу после фиксации транзакции. Изменение ставится в очередь,
+   * и вызывающий поток применяет все накопившиеся изменения одним пакетом; если их уже забрал
+   * другой поток, то к моменту возврата они применены.
+   *
+   * @param event Событие изменения книги.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    if (!enabled) {
+      return;
+    }
+    pendingBookIds.add(event.bookId());
+    applyPending();
+  }
+
+  private synchronized void applyPending() {
+    CatalogSnapshot current = snapshot;
+    if (current == null) {
+      return;
+    }
+    Set<Long> bookIds = new HashSet<>();
+    for (Long bookId = pendingBookIds.poll(); bookId != null; bookId = pendingBookIds.poll()) {
+      bookIds.add(bookId);
+    }
+    if (bookIds.isEmpty()) {
+      return;
+    }
+    List<BookView> books = bookRepository.findViews(
+        BookSpecifications.idIn(bookIds).and(BookSpecifications.notDeleted()));
+    snapshot = current.apply(bookIds, books);
+  }
+}
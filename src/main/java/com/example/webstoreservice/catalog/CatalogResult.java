@@ -0,0 +1,17 @@
+package com.example.webstoreservice.catalog;
+
+import com.example.webstoreservice.model.BookView;
+import java.util.List;
+
+/**
+ * Результат выборки книг из {@link CatalogIndex}.
+ *
+ * @param books Книги запрошенной страницы.
+ * @param total Общее количество книг, удовлетворяющих фильтру, или -1, если подсчет не
+ *              запрашивался.
+ */
+public record CatalogResult(
+    List<BookView> books,
+    long total) {
+
+}
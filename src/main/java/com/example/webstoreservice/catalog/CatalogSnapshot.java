@@ -0,0 +1,470 @@
+package com.example.webstoreservice.catalog;
+
+import com.example.webstoreservice.model.BookFacetRow;
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Неизменяемый снимок каталога неудаленных книг в колоночном виде. Строки упорядочены по
+ * идентификатору книги; годы, цены в копейках и коды авторов и жанров хранятся в примитивных
+ * массивах. Для каждого поля сортировки хранится перестановка строк по возрастанию значения поля
+ * (значения null последними, при равенстве - по идентификатору), которая при сортировке по
+ * убыванию читается с конца, что совпадает с порядком PostgreSQL. Поиск по названию снимок не
+ * выполняет: полнотекстовый поиск и поиск по подстроке остаются за базой данных.
+ */
+final class CatalogSnapshot {
+
+  private static final int NULL_YEAR = Integer.MIN_VALUE;
+
+  private static final long NULL_PRICE = Long.MIN_VALUE;
+
+  private static final int NO_CODE = -1;
+
+  private static final Locale TITLE_LOCALE = Locale.forLanguageTag("ru-RU");
+
+  private static final List<SortBy> SORT_FIELDS =
+      List.of(SortBy.TITLE, SortBy.PRICE, SortBy.PUBLICATION_YEAR);
+
+  private final BookView[] rows;
+
+  private final long[] ids;
+
+  private final int[] years;
+
+  private final long[] priceCents;
+
+  private final int[] authorCodes;
+
+  private final int[] genreCodes;
+
+  private final Dictionary authors;
+
+  private final Dictionary genres;
+
+  private final Map<SortBy, int[]> permutations;
+
+  private CatalogSnapshot(BookView[] rows, long[] ids, int[] years, long[] priceCents,
+      int[] authorCodes, int[] genreCodes, Dictionary authors, Dictionary genres,
+      Map<SortBy, int[]> permutations) {
+    this.rows = rows;
+    this.ids = ids;
+    this.years = years;
+    this.priceCents = priceCents;
+    this.authorCodes = authorCodes;
+    this.genreCodes = genreCodes;
+    this.authors = authors;
+    this.genres = genres;
+    this.permutations = permutations;
+  }
+
+  /**
+   * Построение снимка по списку книг.
+   *
+   * @param books Неудаленные книги.
+   * @return Объект {@link CatalogSnapshot}.
+   */
+  static CatalogSnapshot of(Collection<BookView> books) {
+    BookView[] rows = books.stream()
+        .sorted(Comparator.comparing(BookView::bookId))
+        .toArray(BookView[]::new);
+    int size = rows.length;
+
+    long[] ids = new long[size];
+    int[] years = new int[size];
+    long[] priceCents = new long[size];
+    int[] authorCodes = new int[size];
+    int[] genreCodes = new int[size];
+    Map<Long, Integer> authorDictionary = new HashMap<>();
+    Map<Long, Integer> genreDictionary = new HashMap<>();
+
+    for (int row = 0; row < size; row++) {
+      BookView book = rows[row];
+      authorCodes[row] = authorDictionary.computeIfAbsent(book.authorId(),
+          key -> authorDictionary.size());
+      genreCodes[row] = genreDictionary.computeIfAbsent(book.genreId(),
+          key -> genreDictionary.size());
+      fillRow(row, book, ids, years, priceCents);
+    }
+
+    Collator collator = Collator.getInstance(TITLE_LOCALE);
+    CollationKey[] titleKeys = Arrays.stream(rows)
+        .map(book -> collator.getCollationKey(book.title()))
+        .toArray(CollationKey[]::new);
+
+    Map<SortBy, int[]> permutations = new EnumMap<>(SortBy.class);
+    for (SortBy sortBy : SORT_FIELDS) {
+      Comparator<Integer> comparator = sortBy == SortBy.TITLE ?
+          Comparator.<Integer, CollationKey>comparing(row -> titleKeys[row])
+              .thenComparingLong(row -> ids[row]) :
+          rowComparator(sortBy, rows, ids, years, priceCents, collator)::compare;
+      permutations.put(sortBy, IntStream.range(0, size)
+          .boxed()
+          .sorted(comparator)
+          .mapToInt(Integer::intValue)
+          .toArray());
+    }
+
+    return new CatalogSnapshot(rows, ids, years, priceCents, authorCodes, genreCodes,
+        new Dictionary(authorDictionary), new Dictionary(genreDictionary), permutations);
+  }
+
+  /**
+   * Количество книг в снимке.
+   *
+   * @return Количество книг.
+   */
+  int size() {
+    return rows.length;
+  }
+
+  /**
+   * Выборка книг, удовлетворяющих фильтру, в порядке сортировки.
+   *
+   * @param filter        Параметры фильтрации без названия книги.
+   * @param sortBy        Поле сортировки, кроме {@link SortBy#RELEVANCE}.
+   * @param sortDirection Направление сортировки.
+   * @param offset        Количество пропускаемых книг.
+   * @param limit         Максимальное количество книг.
+   * @param countTotal    Признак необходимости подсчета общего количества подходящих книг.
+   * @return Объект {@link CatalogResult}.
+   */
+  CatalogResult find(BookFilterDto filter, SortBy sortBy, SortDirection sortDirection,
+      long offset, int limit, boolean countTotal) {
+    RowFilter rowFilter = new RowFilter(filter);
+    if (rowFilter.rejectsAll()) {
+      return new CatalogResult(List.of(), countTotal ? 0 : -1);
+    }
+
+    int[] permutation = permutations.get(sortBy);
+    int size = permutation.length;
+    boolean descending = sortDirection == SortDirection.DESC;
+    List<BookView> books = new ArrayList<>(Math.min(limit, size));
+    long matched = 0;
+
+    for (int i = 0; i < size; i++) {
+      int row = permutation[descending ? size - 1 - i : i];
+      if (!rowFilter.matches(row)) {
+        continue;
+      }
+      if (matched >= offset && books.size() < limit) {
+        books.add(rows[row]);
+      }
+      matched++;
+      if (!countTotal && books.size() == limit) {
+        break;
+      }
+    }
+
+    return new CatalogResult(books, countTotal ? matched : -1);
+  }
+
+  /**
+   * Подсчет книг, удовлетворяющих фильтру, для каждого сочетания жанра, автора и ценового
+   * диапазона за один проход по снимку. Границы диапазонов трактуются так же, как в
+   * {@link com.example.webstoreservice.repository.BookRepositoryCustom#countFacets}.
+   *
+   * @param filter      Параметры фильтрации без названия книги.
+   * @param priceBounds Границы ценовых диапазонов в порядке возрастания.
+   * @return Список строк {@link BookFacetRow}.
+   */
+  List<BookFacetRow> facets(BookFilterDto filter, List<BigDecimal> priceBounds) {
+    RowFilter rowFilter = new RowFilter(filter);
+    if (rowFilter.rejectsAll()) {
+      return List.of();
+    }
+    long[] boundCents = priceBounds.stream()
+        .mapToLong(bound -> toCents(bound, RoundingMode.CEILING))
+        .toArray();
+
+    Map<FacetKey, long[]> counts = new HashMap<>();
+    Map<FacetKey, BookView> samples = new HashMap<>();
+    for (int row = 0; row < rows.length; row++) {
+      if (!rowFilter.matches(row)) {
+        continue;
+      }
+      int bucket = priceCents[row] == NULL_PRICE ? NO_CODE : priceBucket(boundCents, row);
+      FacetKey key = new FacetKey(genreCodes[row], authorCodes[row], bucket);
+      counts.computeIfAbsent(key, k -> new long[1])[0]++;
+      samples.putIfAbsent(key, rows[row]);
+    }
+
+    return counts.entrySet().stream()
+        .map(entry -> {
+          BookView sample = samples.get(entry.getKey());
+          int bucket = entry.getKey().priceBucket();
+          return new BookFacetRow(sample.genreId(), sample.genreName(), sample.authorId(),
+              sample.authorName(), bucket == NO_CODE ? null : bucket, entry.getValue()[0]);
+        })
+        .toList();
+  }
+
+  /**
+   * Создание снимка, в котором применен пакет изменений книг, за один проход по колонкам и
+   * перестановкам снимка: строки без изменений переносятся с сохранением порядка, а новые версии
+   * книг сортируются между собой и вливаются в каждую перестановку слиянием. Стоимость пакета
+   * линейна по размеру снимка, поэтому пакет из многих изменений обходится почти так же, как одно
+   * изменение.
+   *
+   * @param bookIds Идентификаторы измененных книг.
+   * @param books   Актуальные версии измененных книг; книги из {@code bookIds}, которых нет в
+   *                этом списке, удаляются из снимка.
+   * @return Новый объект {@link CatalogSnapshot}.
+   */
+  CatalogSnapshot apply(Collection<Long> bookIds, Collection<BookView> books) {
+    BookView[] added = books.stream()
+        .sorted(Comparator.comparing(BookView::bookId))
+        .toArray(BookView[]::new);
+    long[] changed = LongStream.concat(
+            bookIds.stream().mapToLong(Long::longValue),
+            Arrays.stream(added).mapToLong(BookView::bookId))
+        .sorted()
+        .distinct()
+        .toArray();
+    long removed = Arrays.stream(changed)
+        .filter(bookId -> Arrays.binarySearch(ids, bookId) >= 0)
+        .count();
+    int size = rows.length - (int) removed + added.length;
+
+    Dictionary authors = this.authors;
+    Dictionary genres = this.genres;
+    for (BookView book : added) {
+      authors = authors.with(book.authorId());
+      genres = genres.with(book.genreId());
+    }
+
+    BookView[] newRows = new BookView[size];
+    long[] newIds = new long[size];
+    int[] newYears = new int[size];
+    long[] newPriceCents = new long[size];
+    int[] newAuthorCodes = new int[size];
+    int[] newGenreCodes = new int[size];
+    int[] oldToNew = new int[rows.length];
+    int[] addedRows = new int[added.length];
+
+    int next = 0;
+    int a = 0;
+    int c = 0;
+    for (int row = 0; row <= rows.length; row++) {
+      while (a < added.length && (row == rows.length || added[a].bookId() < ids[row])) {
+        BookView book = added[a];
+        addedRows[a++] = next;
+        newRows[next] = book;
+        newAuthorCodes[next] = authors.code(book.authorId());
+        newGenreCodes[next] = genres.code(book.genreId());
+        fillRow(next++, book, newIds, newYears, newPriceCents);
+      }
+      if (row == rows.length) {
+        break;
+      }
+      while (c < changed.length && changed[c] < ids[row]) {
+        c++;
+      }
+      if (c < changed.length && changed[c] == ids[row]) {
+        oldToNew[row] = NO_CODE;
+        continue;
+      }
+      oldToNew[row] = next;
+      newRows[next] = rows[row];
+      newIds[next] = ids[row];
+      newYears[next] = years[row];
+      newPriceCents[next] = priceCents[row];
+      newAuthorCodes[next] = authorCodes[row];
+      newGenreCodes[next++] = genreCodes[row];
+    }
+
+    Collator collator = Collator.getInstance(TITLE_LOCALE);
+    Map<SortBy, int[]> newPermutations = new EnumMap<>(SortBy.class);
+    for (SortBy sortBy : SORT_FIELDS) {
+      RowComparator comparator =
+          rowComparator(sortBy, newRows, newIds, newYears, newPriceCents, collator);
+      newPermutations.put(sortBy,
+          merge(permutations.get(sortBy), oldToNew, addedRows, comparator, size));
+    }
+
+    return new CatalogSnapshot(newRows, newIds, newYears, newPriceCents, newAuthorCodes,
+        newGenreCodes, authors, genres, newPermutations);
+  }
+
+  private int priceBucket(long[] boundCents, int row) {
+    int position = Arrays.binarySearch(boundCents, priceCents[row]);
+    return position < 0 ? -position - 1 : position + 1;
+  }
+
+  private static void fillRow(int row, BookView book, long[] ids, int[] years,
+      long[] priceCents) {
+    ids[row] = book.bookId();
+    years[row] = book.publicationYear() == null ? NULL_YEAR : book.publicationYear();
+    priceCents[row] = book.price() == null ? NULL_PRICE :
+        toCents(book.price(), RoundingMode.HALF_UP);
+  }
+
+  private static long toCents(BigDecimal price, RoundingMode roundingMode) {
+    return price.movePointRight(2).setScale(0, roundingMode).longValueExact();
+  }
+
+  private static RowComparator rowComparator(SortBy sortBy, BookView[] rows, long[] ids,
+      int[] years, long[] priceCents, Collator collator) {
+    RowComparator byKey = switch (sortBy) {
+      case TITLE -> (a, b) -> collator.compare(rows[a].title(), rows[b].title());
+      case PRICE -> (a, b) -> compareNullsLast(priceCents[a], priceCents[b], NULL_PRICE);
+      case PUBLICATION_YEAR -> (a, b) -> compareNullsLast(years[a], years[b], NULL_YEAR);
+      case RELEVANCE -> throw new IllegalArgumentException(
+          "Сортировка по релевантности не поддерживается индексом каталога");
+    };
+    return (a, b) -> {
+      int result = byKey.compare(a, b);
+      return result != 0 ? result : Long.compare(ids[a], ids[b]);
+    };
+  }
+
+  private static int compareNullsLast(long a, long b, long nullValue) {
+    if (a == nullValue || b == nullValue) {
+      return a == b ? 0 : a == nullValue ? 1 : -1;
+    }
+    return Long.compare(a, b);
+  }
+
+  private static int[] merge(int[] source, int[] oldToNew, int[] addedRows,
+      RowComparator comparator, int size) {
+    int[] inserted = Arrays.stream(addedRows)
+        .boxed()
+        .sorted(comparator::compare)
+        .mapToInt(Integer::intValue)
+        .toArray();
+    int[] target = new int[size];
+    int next = 0;
+    int i = 0;
+    int insertAt = inserted.length == 0 ? source.length :
+        lowerBound(source, oldToNew, inserted[0], comparator);
+    for (int s = 0; s <= source.length; s++) {
+      while (insertAt == s && i < inserted.length) {
+        target[next++] = inserted[i++];
+        insertAt = i == inserted.length ? source.length + 1 :
+            Math.max(s, lowerBound(source, oldToNew, inserted[i], comparator));
+      }
+      if (s < source.length && oldToNew[source[s]] != NO_CODE) {
+        target[next++] = oldToNew[source[s]];
+      }
+    }
+    return target;
+  }
+
+  private static int lowerBound(int[] source, int[] oldToNew, int row,
+      RowComparator comparator) {
+    int low = 0;
+    int high = source.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int kept = middle;
+      while (kept < high && oldToNew[source[kept]] == NO_CODE) {
+        kept++;
+      }
+      if (kept == high) {
+        high = middle;
+      } else if (comparator.compare(oldToNew[source[kept]], row) < 0) {
+        low = kept + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Условия фильтра, приведенные к представлению колонок снимка.
+   */
+  private final class RowFilter {
+
+    private final int authorCode;
+
+    private final int genreCode;
+
+    private final boolean unknownCode;
+
+    private final boolean priceFiltered;
+
+    private final long minCents;
+
+    private final long maxCents;
+
+    private RowFilter(BookFilterDto filter) {
+      this.authorCode = filter.authorId() == null ? NO_CODE : authors.code(filter.authorId());
+      this.genreCode = filter.genreId() == null ? NO_CODE : genres.code(filter.genreId());
+      this.unknownCode = (filter.authorId() != null && authorCode == NO_CODE)
+          || (filter.genreId() != null && genreCode == NO_CODE);
+      if (StringUtils.isNotBlank(filter.title())) {
+        throw new IllegalArgumentException(
+            "Фильтрация по названию не поддерживается индексом каталога");
+      }
+      this.priceFiltered = filter.minPrice() != null || filter.maxPrice() != null;
+      this.minCents = filter.minPrice() == null ? Long.MIN_VALUE + 1 :
+          toCents(filter.minPrice(), RoundingMode.CEILING);
+      this.maxCents = filter.maxPrice() == null ? Long.MAX_VALUE :
+          toCents(filter.maxPrice(), RoundingMode.FLOOR);
+    }
+
+    boolean rejectsAll() {
+      return unknownCode;
+    }
+
+    boolean matches(int row) {
+      return (authorCode == NO_CODE || authorCodes[row] == authorCode)
+          && (genreCode == NO_CODE || genreCodes[row] == genreCode)
+          && (!priceFiltered || (priceCents[row] >= minCents && priceCents[row] <= maxCents));
+    }
+  }
+
+  private record FacetKey(int genreCode, int authorCode, int priceBucket) {
+
+  }
+
+  @FunctionalInterface
+  private interface RowComparator {
+
+    int compare(int a, int b);
+  }
+
+  /**
+   * Словарь, сопоставляющий идентификаторам авторов или жанров компактные коды. Коды
+   * присваиваются в порядке появления и не меняются при добавлении новых значений.
+   */
+  private static final class Dictionary {
+
+    private final Map<Long, Integer> codes;
+
+    private Dictionary(Map<Long, Integer> codes) {
+      this.codes = codes;
+    }
+
+    int code(Long value) {
+      return codes.getOrDefault(value, NO_CODE);
+    }
+
+    Dictionary with(Long value) {
+      if (codes.containsKey(value)) {
+        return this;
+      }
+      Map<Long, Integer> extended = new HashMap<>(codes);
+      extended.put(value, codes.size());
+      return new Dictionary(extended);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.example.webstoreservice.catalog;
+
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.BookSpecifications;
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.dto.SuggestionDto;
+import com.example.webstoreservice.model.enums.BookChangeType;
+import com.example.webstoreservice.model.enums.OrderStatus;
+import com.example.webstoreservice.repository.BookRepository;
+import com.example.webstoreservice.repository.FavoriteRepository;
+import com.example.webstoreservice.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Индекс подсказок по названиям книг и именам авторов в памяти процесса. Включается настройкой
+ * {@code catalog.suggest.enabled}, выключенной по умолчанию, поскольку индекс держит в памяти все
+ * названия книг; пока индекс выключен, подсказки не возвращаются. Строится после старта
+ * приложения и перестраивается целиком с периодом {@code catalog.suggest.refresh-interval}, при
+ * этом популярность книги определяется количеством завершенных заказов и добавлений в избранное.
+ * Изменения книг применяются к индексу инкрементально после фиксации транзакции.
+ */
+@Slf4j
+@Component
+public class SuggestIndex {
+
+  private final BookRepository bookRepository;
+
+  private final OrderRepository orderRepository;
+
+  private final FavoriteRepository favoriteRepository;
+
+  private final boolean enabled;
+
+  private final int topK;
+
+  private volatile SuggestSnapshot snapshot;
+
+  public SuggestIndex(
+      BookRepository bookRepository,
+      OrderRepository orderRepository,
+      FavoriteRepository favoriteRepository,
+      @Value("${catalog.suggest.enabled}") boolean enabled,
+      @Value("${catalog.suggest.top-k}") int topK,
+      MeterRegistry meterRegistry) {
+    this.bookRepository = bookRepository;
+    this.orderRepository = orderRepository;
+    this.favoriteRepository = favoriteRepository;
+    this.enabled = enabled;
+    this.topK = topK;
+    Gauge.builder("catalog.suggest.keys", this,
+            index -> index.snapshot == null ? 0 : index.snapshot.size())
+        .description("Количество ключей в индексе подсказок")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Полное построение индекса с пересчетом популярности книг.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${catalog.suggest.refresh-interval}",
+      initialDelayString = "${catalog.suggest.refresh-interval}")
+  public synchronized void load() {
+    if (!enabled) {
+      return;
+    }
+    List<BookView> books = bookRepository.findViews(BookSpecifications.notDeleted());
+    Map<Long, Long> popularity = new HashMap<>();
+    Stream.concat(orderRepository.countOrdersByBook(OrderStatus.COMPLETED).stream(),
+            favoriteRepository.countFavoritesByBook().stream())
+        .forEach(book -> popularity.merge(book.bookId(), book.score(), Long::sum));
+    snapshot = SuggestSnapshot.of(books, popularity, topK);
+    log.info("Индекс подсказок построен, книг: {}", books.size());
+  }
+
+  /**
+   * Подсказки для введенного текста.
+   *
+   * @param query Введенный текст.
+   * @param limit Максимальное количество подсказок; ограничивается значением
+   *              {@code catalog.suggest.top-k}.
+   * @return Список подсказок {@link SuggestionDto} или пустой список, если индекс выключен или не
+   * построен.
+   */
+  public List<SuggestionDto> suggest(String query, int limit) {
+    SuggestSnapshot current = snapshot;
+    if (current == null) {
+      return List.of();
+    }
+    return current.suggest(query, Math.min(limit, topK));
+  }
+
+  /**
+   * Применение изменения книги к индексу после фиксации транзакции.
+   *
+   * @param event Событие изменения книги.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onBookChanged(BookChangedEvent event) {
+    SuggestSnapshot current = snapshot;
+    if (current == null || event.changeType() == BookChangeType.COVER_CHANGED) {
+      return;
+    }
+    snapshot = bookRepository.findViewById(event.bookId())
+        .map(current::with)
+        .orElseGet(() -> current.without(event.bookId()));
+  }
+}
@@ -0,0 +1,403 @@
+package com.example.webstoreservice.catalog;
+
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.dto.SuggestionDto;
+import com.example.webstoreservice.model.enums.SuggestionType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Неизменяемый префиксный индекс названий книг и имен авторов для подсказок при вводе. Ключами
+ * служат нормализованные названия и имена, а также их окончания, начинающиеся с каждого слова,
+ * поэтому подсказка находится по началу любого слова. Ключи хранятся в отсортированном массиве, и
+ * все ключи с общим префиксом образуют непрерывный диапазон, который находится двоичным поиском.
+ * Для коротких префиксов, диапазоны которых велики, лучшие подсказки вычисляются заранее. При
+ * изменении книги ключи новых записей вставляются на места, найденные двоичным поиском, без
+ * пересортировки массива, а популярность автора пересчитывается по индексу книг автора.
+ */
+final class SuggestSnapshot {
+
+  private static final int CACHED_PREFIX_LENGTH = 2;
+
+  private static final Locale TEXT_LOCALE = Locale.forLanguageTag("ru-RU");
+
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private static final Comparator<Entry> RANK = Comparator
+      .comparingLong(Entry::popularity).reversed()
+      .thenComparingInt(entry -> entry.text().length())
+      .thenComparing(Entry::text)
+      .thenComparing(Entry::type)
+      .thenComparingLong(Entry::id);
+
+  private static final Comparator<Key> KEY_ORDER = Comparator
+      .comparing(Key::text)
+      .thenComparing(Key::entry, RANK);
+
+  private final Key[] keys;
+
+  private final Map<String, List<Entry>> topByPrefix;
+
+  private final Map<Long, Entry> books;
+
+  private final Map<Long, Entry> authors;
+
+  private final Map<Long, Long> bookAuthors;
+
+  private final Map<Long, Set<Long>> authorBooks;
+
+  private final Map<Long, Long> popularity;
+
+  private final int topK;
+
+  private SuggestSnapshot(Key[] keys, Map<String, List<Entry>> topByPrefix,
+      Map<Long, Entry> books, Map<Long, Entry> authors, Map<Long, Long> bookAuthors,
+      Map<Long, Set<Long>> authorBooks, Map<Long, Long> popularity, int topK) {
+    this.keys = keys;
+    this.topByPrefix = topByPrefix;
+    this.books = books;
+    this.authors = authors;
+    this.bookAuthors = bookAuthors;
+    this.authorBooks = authorBooks;
+    this.popularity = popularity;
+    this.topK = topK;
+  }
+
+  /**
+   * Построение индекса по списку книг. Популярность автора равна суммарной популярности его книг.
+   *
+   * @param bookViews  Неудаленные книги.
+   * @param popularity Популярность книг по идентификатору; книги без записи имеют нулевую
+   *                   популярность.
+   * @param topK       Количество подсказок, хранимых для каждого короткого префикса.
+   * @return Объект {@link SuggestSnapshot}.
+   */
+  static SuggestSnapshot of(Collection<BookView> bookViews, Map<Long, Long> popularity,
+      int topK) {
+    Map<Long, Entry> books = new HashMap<>();
+    Map<Long, Long> bookAuthors = new HashMap<>();
+    Map<Long, Set<Long>> authorBooks = new HashMap<>();
+    Map<Long, String> authorNames = new HashMap<>();
+    Map<Long, Long> authorPopularity = new HashMap<>();
+    for (BookView book : bookViews) {
+      long score = popularity.getOrDefault(book.bookId(), 0L);
+      books.put(book.bookId(), new Entry(SuggestionType.BOOK, book.bookId(), book.title(), score));
+      bookAuthors.put(book.bookId(), book.authorId());
+      authorBooks.computeIfAbsent(book.authorId(), key -> new HashSet<>()).add(book.bookId());
+      authorNames.putIfAbsent(book.authorId(), book.authorName());
+      authorPopularity.merge(book.authorId(), score, Long::sum);
+    }
+    Map<Long, Entry> authors = new HashMap<>();
+    authorNames.forEach((authorId, authorName) -> authors.put(authorId,
+        new Entry(SuggestionType.AUTHOR, authorId, authorName, authorPopularity.get(authorId))));
+
+    Key[] keys = Stream.concat(books.values().stream(), authors.values().stream())
+        .flatMap(entry -> keysOf(entry).stream())
+        .sorted(KEY_ORDER)
+        .toArray(Key[]::new);
+
+    Set<String> prefixes = new HashSet<>();
+    for (Key key : keys) {
+      prefixes.addAll(cachedPrefixes(key.text()));
+    }
+    Map<String, List<Entry>> topByPrefix = new HashMap<>();
+    prefixes.forEach(prefix -> topByPrefix.put(prefix, top(keys, prefix, topK)));
+
+    return new SuggestSnapshot(keys, topByPrefix, books, authors, bookAuthors, authorBooks,
+        Map.copyOf(popularity), topK);
+  }
+
+  /**
+   * Количество ключей в индексе.
+   *
+   * @return Количество ключей.
+   */
+  int size() {
+    return keys.length;
+  }
+
+  /**
+   * Подсказки для введенного текста в порядке убывания популярности.
+   *
+   * @param query Введенный текст.
+   * @param limit Максимальное количество подсказок, не больше {@code topK}.
+   * @return Список подсказок {@link SuggestionDto}.
+   */
+  List<SuggestionDto> suggest(String query, int limit) {
+    String prefix = normalize(query);
+    if (prefix.isEmpty()) {
+      return List.of();
+    }
+    List<Entry> entries = prefix.length() <= CACHED_PREFIX_LENGTH ?
+        topByPrefix.getOrDefault(prefix, List.of()) : top(keys, prefix, limit);
+
+    return entries.stream()
+        .limit(limit)
+        .map(entry -> SuggestionDto.builder()
+            .type(entry.type())
+            .id(entry.id())
+            .text(entry.text())
+            .build())
+        .toList();
+  }
+
+  /**
+   * Создание индекса, в котором книга добавлена или заменена новой версией. Популярность книги
+   * сохраняется, автор книги добавляется, если его еще нет в индексе. Популярность прежнего и
+   * нового автора книги пересчитывается так же, как при полном построении.
+   *
+   * @param book Книга.
+   * @return Новый объект {@link SuggestSnapshot}.
+   */
+  SuggestSnapshot with(BookView book) {
+    Entry previous = books.get(book.bookId());
+    Long previousAuthorId = bookAuthors.get(book.bookId());
+    Entry entry = new Entry(SuggestionType.BOOK, book.bookId(), book.title(),
+        popularity.getOrDefault(book.bookId(), 0L));
+    if (entry.equals(previous) && book.authorId().equals(previousAuthorId)) {
+      return this;
+    }
+
+    Map<Long, Entry> books = new HashMap<>(this.books);
+    books.put(book.bookId(), entry);
+    Map<Long, Long> bookAuthors = new HashMap<>(this.bookAuthors);
+    bookAuthors.put(book.bookId(), book.authorId());
+    Map<Long, Set<Long>> authorBooks = new HashMap<>(this.authorBooks);
+    Map<Long, String> authorNames = new HashMap<>();
+    authorNames.put(book.authorId(), book.authorName());
+    if (previousAuthorId != null) {
+      unlink(authorBooks, previousAuthorId, book.bookId());
+      authorNames.putIfAbsent(previousAuthorId, authors.get(previousAuthorId).text());
+    }
+    link(authorBooks, book.authorId(), book.bookId());
+
+    return update(previous, entry, books, bookAuthors, authorBooks, authorNames);
+  }
+
+  /**
+   * Создание индекса без указанной книги. Популярность автора книги пересчитывается, автор без
+   * оставшихся книг удаляется из индекса.
+   *
+   * @param bookId Идентификатор книги.
+   * @return Новый объект {@link SuggestSnapshot} или текущий, если книги в индексе нет.
+   */
+  SuggestSnapshot without(long bookId) {
+    Entry previous = books.get(bookId);
+    if (previous == null) {
+      return this;
+    }
+    Long authorId = bookAuthors.get(bookId);
+    Map<Long, Entry> books = new HashMap<>(this.books);
+    books.remove(bookId);
+    Map<Long, Long> bookAuthors = new HashMap<>(this.bookAuthors);
+    bookAuthors.remove(bookId);
+    Map<Long, Set<Long>> authorBooks = new HashMap<>(this.authorBooks);
+    unlink(authorBooks, authorId, bookId);
+
+    return update(previous, null, books, bookAuthors, authorBooks,
+        Map.of(authorId, authors.get(authorId).text()));
+  }
+
+  /**
+   * Приведение текста к виду ключа индекса: нижний регистр, буква «ё» заменена на «е», все
+   * символы, кроме букв и цифр, заменены одиночными пробелами.
+   *
+   * @param text Исходный текст.
+   * @return Нормализованный текст.
+   */
+  static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    return SEPARATORS.matcher(text.toLowerCase(TEXT_LOCALE).replace('ё', 'е'))
+        .replaceAll(" ")
+        .strip();
+  }
+
+  private SuggestSnapshot update(Entry removedBook, Entry addedBook, Map<Long, Entry> books,
+      Map<Long, Long> bookAuthors, Map<Long, Set<Long>> authorBooks,
+      Map<Long, String> authorNames) {
+    Set<Entry> removed = new HashSet<>();
+    List<Entry> added = new ArrayList<>();
+    if (removedBook != null) {
+      removed.add(removedBook);
+    }
+    if (addedBook != null) {
+      added.add(addedBook);
+    }
+    Map<Long, Entry> authors = new HashMap<>(this.authors);
+    authorNames.forEach((authorId, authorName) -> {
+      Entry previous = this.authors.get(authorId);
+      Entry current = author(authorId, previous == null ? authorName : previous.text(),
+          authorBooks);
+      if (Objects.equals(previous, current)) {
+        return;
+      }
+      if (previous != null) {
+        removed.add(previous);
+        authors.remove(authorId);
+      }
+      if (current != null) {
+        added.add(current);
+        authors.put(authorId, current);
+      }
+    });
+
+    Set<String> affected = new HashSet<>();
+    List<Key> retained = new ArrayList<>(keys.length);
+    for (Key key : keys) {
+      if (removed.contains(key.entry())) {
+        affected.addAll(cachedPrefixes(key.text()));
+      } else {
+        retained.add(key);
+      }
+    }
+    List<Key> inserted = new ArrayList<>();
+    for (Entry entry : added) {
+      for (Key key : keysOf(entry)) {
+        affected.addAll(cachedPrefixes(key.text()));
+        inserted.add(key);
+      }
+    }
+    Key[] keys = insert(retained, inserted);
+
+    Map<String, List<Entry>> topByPrefix = new HashMap<>(this.topByPrefix);
+    for (String prefix : affected) {
+      List<Entry> top = top(keys, prefix, topK);
+      if (top.isEmpty()) {
+        topByPrefix.remove(prefix);
+      } else {
+        topByPrefix.put(prefix, top);
+      }
+    }
+
+    return new SuggestSnapshot(keys, topByPrefix, books, authors, bookAuthors, authorBooks,
+        popularity, topK);
+  }
+
+  private Entry author(long authorId, String authorName, Map<Long, Set<Long>> authorBooks) {
+    Set<Long> bookIds = authorBooks.get(authorId);
+    if (bookIds == null) {
+      return null;
+    }
+    long score = bookIds.stream()
+        .mapToLong(bookId -> popularity.getOrDefault(bookId, 0L))
+        .sum();
+    return new Entry(SuggestionType.AUTHOR, authorId, authorName, score);
+  }
+
+  private static void link(Map<Long, Set<Long>> authorBooks, long authorId, long bookId) {
+    Set<Long> bookIds = new HashSet<>(authorBooks.getOrDefault(authorId, Set.of()));
+    bookIds.add(bookId);
+    authorBooks.put(authorId, bookIds);
+  }
+
+  private static void unlink(Map<Long, Set<Long>> authorBooks, long authorId, long bookId) {
+    Set<Long> bookIds = new HashSet<>(authorBooks.get(authorId));
+    bookIds.remove(bookId);
+    if (bookIds.isEmpty()) {
+      authorBooks.remove(authorId);
+    } else {
+      authorBooks.put(authorId, bookIds);
+    }
+  }
+
+  private static Key[] insert(List<Key> retained, List<Key> inserted) {
+    inserted.sort(KEY_ORDER);
+    Key[] keys = new Key[retained.size() + inserted.size()];
+    int next = 0;
+    int from = 0;
+    for (Key key : inserted) {
+      int position = Collections.binarySearch(retained, key, KEY_ORDER);
+      for (int to = position < 0 ? -position - 1 : position; from < to; from++) {
+        keys[next++] = retained.get(from);
+      }
+      keys[next++] = key;
+    }
+    while (from < retained.size()) {
+      keys[next++] = retained.get(from++);
+    }
+    return keys;
+  }
+
+  private static List<Entry> top(Key[] keys, String prefix, int limit) {
+    PriorityQueue<Entry> best = new PriorityQueue<>(RANK.reversed());
+    Set<Entry> seen = new HashSet<>();
+    for (int i = lowerBound(keys, prefix); i < keys.length && keys[i].text().startsWith(prefix);
+        i++) {
+      Entry entry = keys[i].entry();
+      if (!seen.add(entry)) {
+        continue;
+      }
+      best.add(entry);
+      if (best.size() > limit) {
+        best.poll();
+      }
+    }
+
+    List<Entry> top = new ArrayList<>(best);
+    top.sort(RANK);
+    return List.copyOf(top);
+  }
+
+  private static int lowerBound(Key[] keys, String prefix) {
+    int low = 0;
+    int high = keys.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (keys[middle].text().compareTo(prefix) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static List<Key> keysOf(Entry entry) {
+    String text = normalize(entry.text());
+    Set<Key> keys = new LinkedHashSet<>();
+    if (text.isEmpty()) {
+      return List.of();
+    }
+    int start = 0;
+    while (true) {
+      keys.add(new Key(text.substring(start), entry));
+      int separator = text.indexOf(' ', start);
+      if (separator < 0) {
+        break;
+      }
+      start = separator + 1;
+    }
+    return List.copyOf(keys);
+  }
+
+  private static List<String> cachedPrefixes(String key) {
+    List<String> prefixes = new ArrayList<>(CACHED_PREFIX_LENGTH);
+    for (int length = 1; length <= Math.min(CACHED_PREFIX_LENGTH, key.length()); length++) {
+      prefixes.add(key.substring(0, length));
+    }
+    return prefixes;
+  }
+
+  private record Entry(SuggestionType type, long id, String text, long popularity) {
+
+  }
+
+  private record Key(String text, Entry entry) {
+
+  }
+}
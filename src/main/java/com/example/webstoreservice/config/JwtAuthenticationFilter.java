@@ -1,36 +1,56 @@
 package com.example.webstoreservice.config;
 
-import com.example.webstoreservice.feign.UserClient;
+import com.example.commoncode.model.enums.Role;
+import com.example.webstoreservice.cache.TokenRevocationList;
+import com.example.webstoreservice.cache.UserDtoCache;
+import com.example.webstoreservice.feign.CoalescingUserClient;
+import com.example.webstoreservice.model.ParsedToken;
+import com.example.webstoreservice.model.UserPrincipal;
 import com.example.webstoreservice.model.dto.UserDto;
+import com.example.webstoreservice.model.enums.AuthenticationMode;
 import com.example.webstoreservice.service.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
 import java.util.UUID;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+/**
+ * Фильтр аутентификации по JWT-токену. Токен текущего запроса хранится в атрибуте запроса, а не в
+ * {@link ThreadLocal}, поэтому не переживает запрос и не зависит от потока, в котором он
+ * обрабатывается.
+ */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtService jwtService;
 
-  private final UserClient userService;
+  private final CoalescingUserClient userService;
 
-  private final static ThreadLocal<String> tokenThreadLocal = new ThreadLocal<>();
+  private final UserDtoCache userDtoCache;
+
+  private final TokenRevocationList tokenRevocationList;
+
+  @Value("${jwt.authentication.mode}")
+  private AuthenticationMode authenticationMode;
+
+  private static final String BEARER_TOKEN_ATTRIBUTE =
+      JwtAuthenticationFilter.class.getName() + ".BEARER_TOKEN";
 
   @Override
   protected void doFilterInternal(
@@ -40,33 +60,70 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
     final String authHeader = request.getHeader("Authorization");
     final String jwt;
-    final String uuid;
+    final ParsedToken token;
     if (StringUtils.isEmpty(authHeader) || !StringUtils.startsWith(authHeader, "Bearer ")) {
       filterChain.doFilter(request, response);
       return;
     }
     jwt = authHeader.substring(7);
-    uuid = jwtService.extractUuid(jwt);
-    if (uuid != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      tokenThreadLocal.set(jwt);
-      UserDto userDto = userService.getUserDtoByUuid(UUID.fromString(uuid));
-      UserDetails userDetails = User.builder()
-          .username(userDto.username())
-          .password(userDto.password())
-          .authorities(List.of(new SimpleGrantedAuthority(userDto.role().name())))
-          .build();
-      if (jwtService.isTokenValid(jwt, userDetails)) {
-        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-            userDetails, null, userDetails.getAuthorities());
-        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-        SecurityContextHolder.getContext().setAuthentication(authToken);
+    try {
+      token = jwtService.parseToken(jwt);
+      if (token.uuid() != null && SecurityContextHolder.getContext().getAuthentication() == null
+          && !tokenRevocationList.isRevoked(token)) {
+        request.setAttribute(BEARER_TOKEN_ATTRIBUTE, jwt);
+        UserDto userDto = resolveUser(token);
+        UserDetails userDetails = userDto != null ? new UserPrincipal(userDto) : null;
+        if (userDetails != null && jwtService.isTokenValid(token, userDetails)) {
+          UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+              userDetails, null, userDetails.getAuthorities());
+          authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+          SecurityContextHolder.getContext().setAuthentication(authToken);
+        }
       }
+      filterChain.doFilter(request, response);
+    } finally {
+      request.removeAttribute(BEARER_TOKEN_ATTRIBUTE);
     }
-    filterChain.doFilter(request, response);
-    tokenThreadLocal.remove();
   }
 
+  /**
+   * Получение данных пользователя для токена. В режиме {@link AuthenticationMode#STATELESS} данные
+   * формируются только из утверждений токена, без обращения к сервису регистрации и
+   * аутентификации.
+   *
+   * @param token Разобранный JWT-токен.
+   * @return Объект {@link UserDto} или null, если в токене недостаточно данных или роль в токене
+   * неизвестна.
+   */
+  private UserDto resolveUser(ParsedToken token) {
+    UUID userUuid = UUID.fromString(token.uuid());
+    if (authenticationMode == AuthenticationMode.STATELESS) {
+      Role role = EnumUtils.getEnum(Role.class, token.role());
+      if (role == null) {
+        return null;
+      }
+      return UserDto.builder()
+          .userUuid(userUuid)
+          .username(token.username())
+          .role(role)
+          .build();
+    }
+    return userDtoCache.get(userUuid, token.expiration(),
+        () -> userService.getUserDtoByUuid(userUuid));
+  }
+
+  /**
+   * Получение JWT-токена запроса, обрабатываемого в текущий момент.
+   *
+   * @return JWT-токен или null, если запрос не аутентифицирован токеном или выполняется вне
+   * контекста HTTP-запроса.
+   */
   public static String getCurrentToken() {
-    return tokenThreadLocal.get();
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes == null) {
+      return null;
+    }
+    return (String) requestAttributes.getAttribute(BEARER_TOKEN_ATTRIBUTE,
+        RequestAttributes.SCOPE_REQUEST);
   }
 }
\ No newline at end of file
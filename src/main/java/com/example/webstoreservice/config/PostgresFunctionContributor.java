@@ -0,0 +1,35 @@
+package com.example.webstoreservice.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Регистрация функций PostgreSQL для поиска книг по названию, недоступных в HQL и Criteria API.
+ * Выражения совпадают с выражениями GIN-индексов, поэтому планировщик может использовать индексы.
+ */
+public class PostgresFunctionContributor implements FunctionContributor {
+
+  public static final String FTS_MATCH = "fts_match";
+
+  public static final String FTS_RANK = "fts_rank";
+
+  public static final String TRGM_SIMILARITY = "trgm_similarity";
+
+  @Override
+  public void contributeFunctions(FunctionContributions functionContributions) {
+    BasicTypeRegistry basicTypeRegistry = functionContributions.getTypeConfiguration()
+        .getBasicTypeRegistry();
+
+    functionContributions.getFunctionRegistry().registerPattern(FTS_MATCH,
+        "(to_tsvector('russian', ?1) @@ websearch_to_tsquery('russian', ?2))",
+        basicTypeRegistry.resolve(StandardBasicTypes.BOOLEAN));
+    functionContributions.getFunctionRegistry().registerPattern(FTS_RANK,
+        "ts_rank(to_tsvector('russian', ?1), websearch_to_tsquery('russian', ?2))",
+        basicTypeRegistry.resolve(StandardBasicTypes.DOUBLE));
+    functionContributions.getFunctionRegistry().registerPattern(TRGM_SIMILARITY,
+        "similarity(lower(?1), lower(?2))",
+        basicTypeRegistry.resolve(StandardBasicTypes.DOUBLE));
+  }
+}
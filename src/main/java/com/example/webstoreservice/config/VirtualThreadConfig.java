@@ -0,0 +1,43 @@
+package com.example.webstoreservice.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Конфигурация обработки HTTP-запросов Tomcat в виртуальных потоках. Включается настройкой
+ * {@code server.tomcat.virtual-threads.enabled} и требует Java 21 или новее.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.tomcat.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+  /**
+   * Замена пула потоков Tomcat на исполнитель, создающий виртуальный поток для каждого запроса.
+   *
+   * @return Объект {@link TomcatProtocolHandlerCustomizer}.
+   */
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+    ExecutorService executor = newVirtualThreadPerTaskExecutor();
+    return protocolHandler -> protocolHandler.setExecutor(executor);
+  }
+
+  static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(
+          "Виртуальные потоки не поддерживаются текущей версией Java: "
+              + Runtime.version(), e);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Не удалось создать исполнитель виртуальных потоков", e);
+    }
+  }
+}
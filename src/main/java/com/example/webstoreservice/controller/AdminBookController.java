@@ -1,6 +1,7 @@
 package com.example.webstoreservice.controller;
 
 import com.example.webstoreservice.model.dto.BookDto;
+import com.example.webstoreservice.model.dto.CoverMigrationDto;
 import com.example.webstoreservice.service.BookService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
@@ -63,6 +64,39 @@ public class AdminBookController {
     return ResponseEntity.ok(bookService.saveBookCover(bookId, file));
   }
 
+  /**
+   * Запуск перестроения уменьшенных вариантов всех обложек в фоне.
+   *
+   * @return Объект {@link ResponseEntity} без тела с кодом принятия запроса.
+   */
+  @PostMapping("/images/variants")
+  public ResponseEntity<Void> regenerateImageVariants() {
+    bookService.regenerateCoverVariants();
+    return ResponseEntity.accepted().build();
+  }
+
+  /**
+   * Перенос файлов обложек из каталога в пакетные файлы.
+   *
+   * @return Объект {@link ResponseEntity} с количеством и объемом перенесенных файлов
+   *     {@link CoverMigrationDto}.
+   */
+  @PostMapping("/images/migrate")
+  public ResponseEntity<CoverMigrationDto> migrateImages() {
+    return ResponseEntity.ok(bookService.migrateCoversToPacks());
+  }
+
+  /**
+   * Сжатие хранилища обложек с удалением обложек, на которые не ссылаются книги.
+   *
+   * @return Объект {@link ResponseEntity} без тела с кодом успешного выполнения.
+   */
+  @PostMapping("/images/compact")
+  public ResponseEntity<Void> compactImages() {
+    bookService.compactCoverStorage();
+    return ResponseEntity.ok().build();
+  }
+
   /**
    * Удаление книги с указанным идентификатором.
    *
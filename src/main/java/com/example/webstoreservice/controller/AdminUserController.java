@@ -0,0 +1,50 @@
+package com.example.webstoreservice.controller;
+
+import com.example.webstoreservice.cache.TokenRevocationList;
+import com.example.webstoreservice.cache.UserDtoCache;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Контроллер для управления данными пользователей с правами администратора. Предоставляет методы
+ * сброса локально закэшированных данных пользователя и отзыва его токенов.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/admin/users")
+public class AdminUserController {
+
+  private final UserDtoCache userDtoCache;
+
+  private final TokenRevocationList tokenRevocationList;
+
+  /**
+   * Удаление закэшированных данных пользователя с указанным UUID.
+   *
+   * @param userUuid UUID пользователя.
+   * @return Объект {@link ResponseEntity} без тела с кодом успешного выполнения.
+   */
+  @DeleteMapping("/{userUuid}/cache")
+  public ResponseEntity<Void> evictUserCache(@PathVariable UUID userUuid) {
+    userDtoCache.evict(userUuid);
+    return ResponseEntity.ok().build();
+  }
+
+  /**
+   * Отзыв всех выпущенных на текущий момент токенов пользователя с указанным UUID.
+   *
+   * @param userUuid UUID пользователя.
+   * @return Объект {@link ResponseEntity} без тела с кодом успешного выполнения.
+   */
+  @PostMapping("/{userUuid}/revocation")
+  public ResponseEntity<Void> revokeTokens(@PathVariable UUID userUuid) {
+    tokenRevocationList.revoke(userUuid);
+    return ResponseEntity.ok().build();
+  }
+}
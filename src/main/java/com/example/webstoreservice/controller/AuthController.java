@@ -1,6 +1,6 @@
 package com.example.webstoreservice.controller;
 
-import com.example.webstoreservice.feign.AuthClient;
+import com.example.webstoreservice.feign.BulkheadAuthClient;
 import com.example.webstoreservice.model.dto.UserDtoLogin;
 import com.example.webstoreservice.model.dto.UserDtoRegister;
 import jakarta.validation.Valid;
@@ -20,7 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/auth")
 public class AuthController {
 
-  private final AuthClient authClient;
+  private final BulkheadAuthClient authClient;
 
   /**
    * Регистрация нового пользователя на основе предоставленных данных.
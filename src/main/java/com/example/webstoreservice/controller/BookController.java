@@ -1,34 +1,88 @@
 package com.example.webstoreservice.controller;
 
+import com.example.commoncode.exception.BookCoverException;
+import com.example.webstoreservice.model.BookCover;
+import com.example.webstoreservice.model.dto.BookBatchDto;
 import com.example.webstoreservice.model.dto.BookDto;
+import com.example.webstoreservice.model.dto.BookFacetsDto;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.dto.CursorPageDto;
+import com.example.webstoreservice.model.dto.SliceDto;
+import com.example.webstoreservice.model.dto.SuggestionDto;
+import com.example.webstoreservice.model.enums.PagingMode;
 import com.example.webstoreservice.model.enums.SortBy;
 import com.example.webstoreservice.model.enums.SortDirection;
 import com.example.webstoreservice.service.BookService;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Контроллер для управления книгами. Предоставляет методы получения страниц с книгами,
  * информации о конкретной книге и обложки книги.
+ * <p>
+ * Списки книг, информация о книге и обложка отдаются со строгим ETag: для книги он равен версии
+ * книги, для обложки - версии книги и имени отдаваемого файла, для списков - поколению каталога
+ * узла, если включена настройка {@code book.http-cache.books-etag}. Запрос с совпадающим
+ * {@code If-None-Match} получает ответ 304 до загрузки и сериализации данных. Заголовок
+ * {@code Cache-Control} для каждого вида ответа задается настройками {@code book.http-cache}.
  */
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/books")
 public class BookController {
 
+  private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+  private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+  private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+  private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
   private final BookService bookService;
 
+  @Value("${book.http-cache.books}")
+  private String booksCacheControl;
+
+  @Value("${book.http-cache.books-etag}")
+  private boolean booksETagEnabled;
+
+  @Value("${book.http-cache.book}")
+  private String bookCacheControl;
+
+  @Value("${book.http-cache.cover}")
+  private String coverCacheControl;
+
   /**
-   * Получение страницы с книгами с учетом параметров фильтрации и сортировки.
+   * Получение страницы с книгами с учетом параметров фильтрации и сортировки. Режим
+   * {@link PagingMode#SLICE}, выбираемый параметром {@code paging} или заголовком
+   * {@code X-Paging-Mode}, возвращает компактный ответ {@link SliceDto} без общего количества
+   * книг.
+   * <p>
+   * Поколение каталога ведется отдельно на каждом узле и меняется на других узлах только при
+   * обмене изменениями книг через Kafka, поэтому по умолчанию ETag списка отдается лишь при
+   * включенной настройке {@code book.change.kafka.enabled}. Без нее настройку
+   * {@code book.http-cache.books-etag} можно включать только при единственном узле сервиса.
    *
    * @param title          Фильтрация по названию книги.
    * @param authorId       Фильтрация по идентификатору автора.
@@ -36,15 +90,23 @@ public class BookController {
    * @param minPrice       Фильтрация по минимальной цене книги.
    * @param maxPrice       Фильтрация по максимальной цене книги.
    * @param sortBy         Поле, по которому выполняется сортировка ({@link SortBy#TITLE},
-   *                       {@link SortBy#PRICE}, {@link SortBy#PUBLICATION_YEAR}).
+   *                       {@link SortBy#PRICE}, {@link SortBy#PUBLICATION_YEAR},
+   *                       {@link SortBy#RELEVANCE} - требует названия книги).
    * @param sortDirection  Направление сортировки ({@link SortDirection#ASC} или
-   *                       {@link SortDirection#DESC}).
+   *                       {@link SortDirection#DESC}); при сортировке по релевантности не
+   *                       учитывается, наиболее релевантные книги выводятся первыми.
    * @param page           Номер страницы при постраничном выводе.
    * @param size           Количество объектов на странице при постраничном выводе.
-   * @return Объект {@link ResponseEntity} со списком книг {@link Page<BookDto>}.
+   * @param paging         Режим постраничного вывода ({@link PagingMode#PAGE} или
+   *                       {@link PagingMode#SLICE}).
+   * @param pagingHeader   Режим постраничного вывода, переданный в заголовке; используется, если
+   *                       не передан параметр {@code paging}.
+   * @param request        Текущий запрос для проверки заголовка {@code If-None-Match}.
+   * @return Объект {@link ResponseEntity} со списком книг {@link Page<BookDto>} или
+   * {@link SliceDto<BookDto>} в зависимости от режима.
    */
   @GetMapping
-  public ResponseEntity<Page<BookDto>> getBooks(
+  public ResponseEntity<?> getBooks(
       @RequestParam(name = "title", required = false) String title,
       @RequestParam(name = "author", required = false) Long authorId,
       @RequestParam(name = "genre", required = false) Long genreId,
@@ -54,34 +116,237 @@ public class BookController {
       @RequestParam(name = "sortDirection",
           required = false, defaultValue = "ASC") SortDirection sortDirection,
       @RequestParam(name = "page", defaultValue = "0") int page,
-      @RequestParam(name = "size", defaultValue = "1") int size) {
+      @RequestParam(name = "size", defaultValue = "1") int size,
+      @RequestParam(name = "paging", required = false) PagingMode paging,
+      @RequestHeader(name = "X-Paging-Mode", required = false) PagingMode pagingHeader,
+      WebRequest request) {
     PageRequest pageable = PageRequest.of(page, size);
-    Page<BookDto> books = bookService.getBooks(title, authorId, genreId, minPrice, maxPrice,
-        sortBy, sortDirection, pageable);
-    return ResponseEntity.ok(books);
+    PagingMode pagingMode = paging != null ? paging : pagingHeader;
+    Function<ResponseEntity.BodyBuilder, ResponseEntity<Object>> response = ok -> {
+      ok.header(HttpHeaders.VARY, "X-Paging-Mode");
+      if (pagingMode == PagingMode.SLICE) {
+        BookFilterDto filter = BookFilterDto.builder()
+            .title(title)
+            .authorId(authorId)
+            .genreId(genreId)
+            .minPrice(minPrice)
+            .maxPrice(maxPrice)
+            .build();
+        return ok.body(bookService.getBooksSlice(filter, sortBy, sortDirection, pageable));
+      }
+      Page<BookDto> books = bookService.getBooks(title, authorId, genreId, minPrice, maxPrice,
+          sortBy, sortDirection, pageable);
+      return ok.body(books);
+    };
+    if (!booksETagEnabled) {
+      return response.apply(
+          ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, booksCacheControl));
+    }
+    String eTag = bookService.getCatalogGeneration() + "-" + pagingMode;
+    return conditional(request, eTag, booksCacheControl, response);
+  }
+
+  /**
+   * Получение страницы с книгами с постраничным выводом по ключу. Вместо номера страницы
+   * передается курсор, полученный с предыдущей страницей.
+   *
+   * @param title         Фильтрация по названию книги.
+   * @param authorId      Фильтрация по идентификатору автора.
+   * @param genreId       Фильтрация по идентификатору жанра.
+   * @param minPrice      Фильтрация по минимальной цене книги.
+   * @param maxPrice      Фильтрация по максимальной цене книги.
+   * @param sortBy        Поле, по которому выполняется сортировка ({@link SortBy#TITLE},
+   *                      {@link SortBy#PRICE}, {@link SortBy#PUBLICATION_YEAR}).
+   * @param sortDirection Направление сортировки ({@link SortDirection#ASC} или
+   *                      {@link SortDirection#DESC}).
+   * @param cursor        Курсор следующей страницы; не передается для первой страницы.
+   * @param size          Количество объектов на странице.
+   * @return Объект {@link ResponseEntity} со списком книг {@link CursorPageDto<BookDto>}.
+   */
+  @GetMapping("/cursor")
+  public ResponseEntity<CursorPageDto<BookDto>> getBooksByCursor(
+      @RequestParam(name = "title", required = false) String title,
+      @RequestParam(name = "author", required = false) Long authorId,
+      @RequestParam(name = "genre", required = false) Long genreId,
+      @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+      @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+      @RequestParam(name = "sortBy", required = false, defaultValue = "TITLE") SortBy sortBy,
+      @RequestParam(name = "sortDirection",
+          required = false, defaultValue = "ASC") SortDirection sortDirection,
+      @RequestParam(name = "cursor", required = false) String cursor,
+      @RequestParam(name = "size", defaultValue = "1") int size) {
+    BookFilterDto filter = BookFilterDto.builder()
+        .title(title)
+        .authorId(authorId)
+        .genreId(genreId)
+        .minPrice(minPrice)
+        .maxPrice(maxPrice)
+        .build();
+    return ResponseEntity.ok(
+        bookService.getBooksByCursor(filter, sortBy, sortDirection, cursor, size));
+  }
+
+  /**
+   * Получение фасетов каталога: количества книг по жанрам, авторам и ценовым диапазонам с учетом
+   * тех же параметров фильтрации, что и у списка книг.
+   *
+   * @param title    Фильтрация по названию книги.
+   * @param authorId Фильтрация по идентификатору автора.
+   * @param genreId  Фильтрация по идентификатору жанра.
+   * @param minPrice Фильтрация по минимальной цене книги.
+   * @param maxPrice Фильтрация по максимальной цене книги.
+   * @return Объект {@link ResponseEntity} с фасетами {@link BookFacetsDto}.
+   */
+  @GetMapping("/facets")
+  public ResponseEntity<BookFacetsDto> getBookFacets(
+      @RequestParam(name = "title", required = false) String title,
+      @RequestParam(name = "author", required = false) Long authorId,
+      @RequestParam(name = "genre", required = false) Long genreId,
+      @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+      @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice) {
+    BookFilterDto filter = BookFilterDto.builder()
+        .title(title)
+        .authorId(authorId)
+        .genreId(genreId)
+        .minPrice(minPrice)
+        .maxPrice(maxPrice)
+        .build();
+    return ResponseEntity.ok(bookService.getBookFacets(filter));
+  }
+
+  /**
+   * Получение подсказок для ввода по началу любого слова в названии книги или имени автора.
+   *
+   * @param query Введенный текст.
+   * @param limit Максимальное количество подсказок.
+   * @return Объект {@link ResponseEntity} со списком подсказок {@link SuggestionDto}.
+   */
+  @GetMapping("/suggest")
+  public ResponseEntity<List<SuggestionDto>> getSuggestions(
+      @RequestParam(name = "query") String query,
+      @RequestParam(name = "limit", defaultValue = "10") int limit) {
+    return ResponseEntity.ok(bookService.getSuggestions(query, limit));
+  }
+
+  /**
+   * Получение нескольких книг по списку идентификаторов одним запросом. Книги возвращаются в
+   * порядке переданных идентификаторов, а ненайденные идентификаторы перечисляются отдельно.
+   *
+   * @param bookIds Идентификаторы книг; количество ограничено настройкой
+   *                {@code book.batch.max-size}.
+   * @return Объект {@link ResponseEntity} с книгами {@link BookBatchDto}.
+   */
+  @GetMapping("/batch")
+  public ResponseEntity<BookBatchDto> getBooksByIds(
+      @RequestParam(name = "ids") List<Long> bookIds) {
+    return ResponseEntity.ok(bookService.getBooksByIds(bookIds));
   }
 
   /**
    * Получение информации о конкретной книге по идентификатору.
    *
-   * @param bookId Идентификатор книги.
+   * @param bookId  Идентификатор книги.
+   * @param request Текущий запрос для проверки заголовка {@code If-None-Match}.
    * @return Объект {@link ResponseEntity} с информацией о книге {@link BookDto}.
    */
   @GetMapping("/{bookId}")
-  public ResponseEntity<BookDto> getBookById(@PathVariable Long bookId) {
-    return ResponseEntity.ok(bookService.getBookDtoById(bookId));
+  public ResponseEntity<BookDto> getBookById(@PathVariable Long bookId, WebRequest request) {
+    return conditional(request, String.valueOf(bookService.getBookVersion(bookId)),
+        bookCacheControl, ok -> ok.body(bookService.getBookDtoById(bookId)));
   }
 
   /**
-   * Получение обложки книги по идентификатору.
+   * Получение обложки книги по идентификатору. Параметр {@code size} выбирает уменьшенный вариант
+   * обложки; пока вариант не построен, отдается исходная обложка. ETag включает версию книги и
+   * название отдаваемого варианта, поэтому после построения варианта ответ меняется. ETag
+   * вычисляется без чтения обложки, и при совпадении {@code If-None-Match} обложка не
+   * загружается из кэша или хранилища. Тип содержимого определяется по сохраненному файлу,
+   * время изменения файла передается в заголовке {@code Last-Modified}. Обложка из кэша
+   * копируется в ответ из буфера; файл не читается в память: если контейнер поддерживает
+   * sendfile, он передает файл сам, иначе файл копируется в ответ потоком. Поддерживаются
+   * запросы диапазонов ({@code Range}).
    *
-   * @param bookId Идентификатор книги.
-   * @return Объект {@link ResponseEntity} изображения обложки в виде массива байтов.
+   * @param bookId  Идентификатор книги.
+   * @param size    Название уменьшенного варианта обложки, например {@code thumb}.
+   * @param request Текущий запрос для проверки заголовка {@code If-None-Match}.
+   * @return Объект {@link ResponseEntity} с файлом обложки.
    */
   @GetMapping("/{bookId}/image")
-  public ResponseEntity<byte[]> getBookCover(@PathVariable Long bookId) {
-    return ResponseEntity.ok()
-        .contentType(MediaType.IMAGE_JPEG)
-        .body(bookService.getBookCover(bookId));
+  public ResponseEntity<Resource> getBookCover(@PathVariable Long bookId,
+      @RequestParam(name = "size", required = false) String size, WebRequest request) {
+    BookCover bookCover = bookService.getBookCover(bookId, size);
+    return conditional(request, bookCover.eTag(),
+        coverCacheControl, ok -> {
+          Resource cover = bookService.getBookCoverContent(bookCover);
+          ok.contentType(MediaTypeFactory.getMediaType(cover)
+                  .orElse(MediaType.APPLICATION_OCTET_STREAM))
+              .lastModified(lastModified(cover));
+          if (cover.isFile() && request.getHeader(HttpHeaders.RANGE) == null
+              && sendfile(request, cover, ok)) {
+            return ok.body(null);
+          }
+          return ok.body(cover);
+        });
+  }
+
+  /**
+   * Передача файла целиком средствами Tomcat (sendfile), если коннектор выставил атрибут запроса
+   * {@code org.apache.tomcat.sendfile.support}. В этом случае тело ответа не записывается
+   * приложением, а файл копируется ядром напрямую в сокет. Если атрибута нет или размер и путь
+   * файла определить не удалось, файл копируется в ответ потоком.
+   *
+   * @param request  Текущий запрос.
+   * @param resource Файловый ресурс.
+   * @param ok       Заготовка ответа, в которую добавляется длина содержимого.
+   * @return true, если файл будет передан контейнером, в противном случае - false.
+   */
+  private static boolean sendfile(WebRequest request, Resource resource,
+      ResponseEntity.BodyBuilder ok) {
+    if (!Boolean.TRUE.equals(
+        request.getAttribute(SENDFILE_SUPPORT, RequestAttributes.SCOPE_REQUEST))) {
+      return false;
+    }
+    long length;
+    String path;
+    try {
+      length = resource.contentLength();
+      path = resource.getFile().getAbsolutePath();
+    } catch (IOException e) {
+      return false;
+    }
+    request.setAttribute(SENDFILE_FILENAME, path, RequestAttributes.SCOPE_REQUEST);
+    request.setAttribute(SENDFILE_START, 0L, RequestAttributes.SCOPE_REQUEST);
+    request.setAttribute(SENDFILE_END, length, RequestAttributes.SCOPE_REQUEST);
+    ok.contentLength(length).header(HttpHeaders.ACCEPT_RANGES, "bytes");
+    return true;
+  }
+
+  private static long lastModified(Resource resource) {
+    try {
+      return resource.lastModified();
+    } catch (IOException e) {
+      throw new BookCoverException("Ошибка при чтении файла обложки");
+    }
+  }
+
+  /**
+   * Ответ на условный запрос. Если {@code If-None-Match} совпадает с ETag, возвращается ответ 304
+   * без вызова {@code response}. Заголовок ETag в обоих случаях устанавливается
+   * {@link WebRequest#checkNotModified(String)}.
+   *
+   * @param request      Текущий запрос.
+   * @param eTag         Значение ETag без кавычек.
+   * @param cacheControl Значение заголовка {@code Cache-Control}.
+   * @param response     Функция построения полного ответа по заготовке с кодом 200.
+   * @return Объект {@link ResponseEntity}.
+   */
+  private static <T> ResponseEntity<T> conditional(WebRequest request, String eTag,
+      String cacheControl, Function<ResponseEntity.BodyBuilder, ResponseEntity<T>> response) {
+    if (request.checkNotModified(eTag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+          .build();
+    }
+    return response.apply(ResponseEntity.ok().header(HttpHeaders.CACHE_CONTROL, cacheControl));
   }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.webstoreservice.event;
+
+import com.example.webstoreservice.model.enums.BookChangeType;
+
+/**
+ * Сообщение об изменении книги, которым узлы сервиса обмениваются через Kafka.
+ *
+ * @param nodeId     Идентификатор узла, на котором выполнено изменение.
+ * @param bookId     Идентификатор книги.
+ * @param version    Версия книги после изменения.
+ * @param changeType Тип изменения.
+ */
+public record BookChangeMessage(
+    String nodeId,
+    Long bookId,
+    Long version,
+    BookChangeType changeType) {
+
+}
@@ -0,0 +1,21 @@
+package com.example.webstoreservice.event;
+
+import com.example.webstoreservice.model.enums.BookChangeType;
+
+/**
+ * Событие изменения книги. Публикуется сервисом книг после создания, изменения, удаления книги
+ * или замены ее обложки и используется для сброса зависящих от каталога кэшей. Изменения,
+ * выполненные на других узлах, публикуются повторно с признаком {@code remote}.
+ *
+ * @param bookId     Идентификатор книги.
+ * @param version    Версия книги после изменения.
+ * @param changeType Тип изменения.
+ * @param remote     Признак изменения, полученного с другого узла.
+ */
+public record BookChangedEvent(
+    Long bookId,
+    Long version,
+    BookChangeType changeType,
+    boolean remote) {
+
+}
@@ -12,7 +12,8 @@ import org.springframework.web.bind.annotation.RequestBody;
  */
 @FeignClient(name = "${feign.webstore-auth-service.auth-client.name}",
     url = "${feign.webstore-auth-service.auth-client.url}",
-    configuration = FeignErrorConfig.class)
+    configuration = FeignErrorConfig.class,
+    fallbackFactory = AuthClientFallbackFactory.class)
 public interface AuthClient {
 
   /**
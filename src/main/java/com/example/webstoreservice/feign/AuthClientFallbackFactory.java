@@ -0,0 +1,29 @@
+package com.example.webstoreservice.feign;
+
+import com.example.webstoreservice.model.dto.UserDtoLogin;
+import com.example.webstoreservice.model.dto.UserDtoRegister;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обработка ошибок {@link AuthClient}, перехваченных предохранителем. Ошибки недоступности сервиса
+ * преобразуются в {@link ServiceUnavailableException}, остальные передаются без изменений.
+ */
+@Component
+public class AuthClientFallbackFactory implements FallbackFactory<AuthClient> {
+
+  @Override
+  public AuthClient create(Throwable cause) {
+    return new AuthClient() {
+      @Override
+      public UserDtoRegister register(UserDtoRegister userDto) {
+        throw FeignErrorDecoder.decodeFailure(cause);
+      }
+
+      @Override
+      public String authenticate(UserDtoLogin userDto) {
+        throw FeignErrorDecoder.decodeFailure(cause);
+      }
+    };
+  }
+}
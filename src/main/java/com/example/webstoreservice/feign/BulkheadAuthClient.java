@@ -0,0 +1,63 @@
+package com.example.webstoreservice.feign;
+
+import com.example.webstoreservice.model.dto.UserDtoLogin;
+import com.example.webstoreservice.model.dto.UserDtoRegister;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обертка над {@link AuthClient}, ограничивающая число одновременных запросов регистрации и входа
+ * к сервису регистрации и аутентификации. При заполнении bulkhead вызов сразу завершается ошибкой
+ * {@link ServiceUnavailableException}, не занимая поток обработки запроса ожиданием медленного
+ * сервиса.
+ */
+@Component
+public class BulkheadAuthClient {
+
+  private final AuthClient authClient;
+
+  private final Bulkhead bulkhead;
+
+  public BulkheadAuthClient(
+      AuthClient authClient,
+      @Value("${auth.client.bulkhead.max-concurrent-calls}") int maxConcurrentCalls) {
+    this.authClient = authClient;
+    this.bulkhead = Bulkhead.of("auth-client", BulkheadConfig.custom()
+        .maxConcurrentCalls(maxConcurrentCalls)
+        .maxWaitDuration(Duration.ZERO)
+        .build());
+  }
+
+  /**
+   * Регистрация нового пользователя в сервисе регистрации и аутентификации.
+   *
+   * @param userDto Данные пользователя для регистрации.
+   * @return Объект {@link UserDtoRegister} зарегистрированного пользователя.
+   */
+  public UserDtoRegister register(UserDtoRegister userDto) {
+    return execute(() -> authClient.register(userDto));
+  }
+
+  /**
+   * Аутентификация пользователя в сервисе регистрации и аутентификации.
+   *
+   * @param userDto Данные пользователя для аутентификации.
+   * @return Строка, представляющая сгенерированный токен, для аутентифицированного пользователя.
+   */
+  public String authenticate(UserDtoLogin userDto) {
+    return execute(() -> authClient.authenticate(userDto));
+  }
+
+  private <T> T execute(Supplier<T> call) {
+    try {
+      return bulkhead.executeSupplier(call);
+    } catch (BulkheadFullException e) {
+      throw FeignErrorDecoder.decodeFailure(e);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.webstoreservice.feign;
+
+import com.example.webstoreservice.model.dto.UserDto;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обертка над {@link UserClient}, объединяющая одновременные запросы одного и того же пользователя.
+ * Пока запрос к сервису регистрации и аутентификации выполняется, остальные вызовы с тем же ключом
+ * ожидают его результата вместо отправки собственного запроса. Число одновременных запросов к
+ * сервису ограничено bulkhead: при его заполнении вызов сразу завершается ошибкой
+ * {@link ServiceUnavailableException}, не занимая поток обработки запроса.
+ */
+@Component
+public class CoalescingUserClient {
+
+  private final UserClient userClient;
+
+  private final Counter coalescedCalls;
+
+  private final Bulkhead bulkhead;
+
+  private final ConcurrentMap<LookupKey, CompletableFuture<UserDto>> inFlight =
+      new ConcurrentHashMap<>();
+
+  public CoalescingUserClient(
+      UserClient userClient,
+      MeterRegistry meterRegistry,
+      @Value("${user.client.bulkhead.max-concurrent-calls}") int maxConcurrentCalls) {
+    this.userClient = userClient;
+    this.bulkhead = Bulkhead.of("user-client", BulkheadConfig.custom()
+        .maxConcurrentCalls(maxConcurrentCalls)
+        .maxWaitDuration(Duration.ZERO)
+        .build());
+    this.coalescedCalls = Counter.builder("user.client.coalesced.calls")
+        .description("Вызовы UserClient, объединенные с уже выполняющимся запросом")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Получение данных пользователя по UUID.
+   *
+   * @param uuid UUID пользователя.
+   * @return Объект {@link UserDto} с данными пользователя.
+   */
+  public UserDto getUserDtoByUuid(UUID uuid) {
+    return execute(new LookupKey(LookupType.UUID, uuid.toString()),
+        () -> userClient.getUserDtoByUuid(uuid));
+  }
+
+  /**
+   * Получение данных пользователя по имени пользователя.
+   *
+   * @param username Имя пользователя.
+   * @return Объект {@link UserDto} с данными пользователя.
+   */
+  public UserDto getUserDtoByUsername(String username) {
+    return execute(new LookupKey(LookupType.USERNAME, username),
+        () -> userClient.getUserDtoByUsername(username));
+  }
+
+  private UserDto execute(LookupKey key, Supplier<UserDto> call) {
+    CompletableFuture<UserDto> future = new CompletableFuture<>();
+    CompletableFuture<UserDto> existing = inFlight.putIfAbsent(key, future);
+    if (existing != null) {
+      coalescedCalls.increment();
+      return await(existing);
+    }
+    try {
+      UserDto userDto = bulkhead.executeSupplier(call);
+      future.complete(userDto);
+      return userDto;
+    } catch (BulkheadFullException e) {
+      RuntimeException failure = FeignErrorDecoder.decodeFailure(e);
+      future.completeExceptionally(failure);
+      throw failure;
+    } catch (RuntimeException e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, future);
+    }
+  }
+
+  private static UserDto await(CompletableFuture<UserDto> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private enum LookupType {
+    UUID, USERNAME
+  }
+
+  private record LookupKey(LookupType type, String value) {
+
+  }
+}
@@ -3,26 +3,70 @@ package com.example.webstoreservice.feign;
 import com.example.commoncode.model.dto.ErrorResponseDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.Response;
+import feign.RetryableException;
 import feign.codec.ErrorDecoder;
-import lombok.SneakyThrows;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import java.io.IOException;
+import java.io.InputStream;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.web.server.ResponseStatusException;
 
 public class FeignErrorDecoder implements ErrorDecoder {
 
   private final ObjectMapper objectMapper = new ObjectMapper();
 
-  @SneakyThrows
   @Override
   public Exception decode(String methodKey, Response response) {
-    String message = HttpStatus.valueOf(response.status()).getReasonPhrase();
+    HttpStatusCode status = HttpStatusCode.valueOf(response.status());
+    String message = readMessage(response, status);
 
-    if (response.body() != null) {
-      ErrorResponseDto errorResponse = objectMapper.readValue(response.body().asInputStream(),
-          ErrorResponseDto.class);
-      message = errorResponse.message();
+    if (status.is5xxServerError()) {
+      return new ServiceUnavailableException(status, message, null);
     }
+    return new ResponseStatusException(status, message);
+  }
+
+  /**
+   * Преобразование ошибки вызова Feign-клиента, перехваченной предохранителем, в исключение с
+   * соответствующим HTTP-статусом.
+   *
+   * @param cause Исходная ошибка вызова.
+   * @return Исключение для передачи вызывающей стороне.
+   */
+  public static RuntimeException decodeFailure(Throwable cause) {
+    if (cause instanceof CallNotPermittedException) {
+      return new ServiceUnavailableException(HttpStatus.SERVICE_UNAVAILABLE,
+          "Сервис регистрации и аутентификации временно недоступен", cause);
+    }
+    if (cause instanceof BulkheadFullException) {
+      return new ServiceUnavailableException(HttpStatus.SERVICE_UNAVAILABLE,
+          "Сервис регистрации и аутентификации перегружен", cause);
+    }
+    if (cause instanceof RetryableException) {
+      return new ServiceUnavailableException(HttpStatus.GATEWAY_TIMEOUT,
+          "Сервис регистрации и аутентификации не отвечает", cause);
+    }
+    if (cause instanceof RuntimeException runtimeException) {
+      return runtimeException;
+    }
+    return new ServiceUnavailableException(HttpStatus.SERVICE_UNAVAILABLE,
+        "Ошибка при обращении к сервису регистрации и аутентификации", cause);
+  }
+
+  private String readMessage(Response response, HttpStatusCode status) {
+    String defaultMessage = status instanceof HttpStatus httpStatus ?
+        httpStatus.getReasonPhrase() : String.valueOf(status.value());
 
-    return new ResponseStatusException(HttpStatus.valueOf(response.status()), message);
+    if (response.body() == null) {
+      return defaultMessage;
+    }
+    try (InputStream body = response.body().asInputStream()) {
+      ErrorResponseDto errorResponse = objectMapper.readValue(body, ErrorResponseDto.class);
+      return errorResponse.message() != null ? errorResponse.message() : defaultMessage;
+    } catch (IOException e) {
+      return defaultMessage;
+    }
   }
 }
@@ -0,0 +1,15 @@
+package com.example.webstoreservice.feign;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Исключение, сигнализирующее о недоступности сервиса регистрации и аутентификации: ошибка
+ * сервера, превышение времени ожидания, открытый предохранитель или переполненный bulkhead.
+ */
+public class ServiceUnavailableException extends ResponseStatusException {
+
+  public ServiceUnavailableException(HttpStatusCode status, String message, Throwable cause) {
+    super(status, message, cause);
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.webstoreservice.feign;
+
+import com.example.webstoreservice.model.dto.UserDto;
+import java.util.UUID;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обработка ошибок {@link UserClient}, перехваченных предохранителем. Ошибки недоступности сервиса
+ * преобразуются в {@link ServiceUnavailableException}, остальные передаются без изменений.
+ */
+@Component
+public class UserClientFallbackFactory implements FallbackFactory<UserClient> {
+
+  @Override
+  public UserClient create(Throwable cause) {
+    return new UserClient() {
+      @Override
+      public UserDto getUserDtoByUuid(UUID uuid) {
+        throw FeignErrorDecoder.decodeFailure(cause);
+      }
+
+      @Override
+      public UserDto getUserDtoByUsername(String username) {
+        throw FeignErrorDecoder.decodeFailure(cause);
+      }
+    };
+  }
+}
@@ -0,0 +1,137 @@
+package com.example.webstoreservice.kafka;
+
+import com.example.webstoreservice.event.BookChangeMessage;
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.entity.Book;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Обмен изменениями книг между узлами сервиса. Изменения, выполненные на текущем узле, после
+ * фиксации транзакции асинхронно отправляются в топик {@code book.change.kafka.topic}; ожидание
+ * метаданных или места в буфере производителя ограничено {@code book.change.kafka.max-block},
+ * поэтому недоступность брокера не задерживает поток, зафиксировавший транзакцию. Каждый узел
+ * читает топик в собственной постоянной группе {@code book.change.kafka.group-id}, которая
+ * сохраняется между перезапусками узла, и для изменений с других узлов удаляет книгу из кэша
+ * второго уровня Hibernate и повторно публикует {@link BookChangedEvent}, по которому
+ * сбрасываются локальные кэши и индексы каталога.
+ * <p>
+ * Для каждой книги запоминается последняя примененная версия, и сообщения с версией не выше нее
+ * пропускаются, поэтому повторная или запоздавшая доставка не вызывает лишних сбросов. Сообщение
+ * не содержит данных книги: локальные кэши перечитывают ее из базы данных, и устаревшее сообщение
+ * не может вернуть прежнее состояние.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "book.change.kafka.enabled", havingValue = "true")
+public class BookChangeBroadcaster {
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  private final KafkaTemplate<String, BookChangeMessage> kafkaTemplate;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  private final String topic;
+
+  private final Cache<Long, Long> versions;
+
+  public BookChangeBroadcaster(
+      ProducerFactory<String, BookChangeMessage> producerFactory,
+      ApplicationEventPublisher eventPublisher,
+      EntityManagerFactory entityManagerFactory,
+      @Value("${book.change.kafka.topic}") String topic,
+      @Value("${book.change.kafka.max-block}") Duration maxBlock,
+      @Value("${book.change.version-ttl}") Duration versionTtl) {
+    this.kafkaTemplate = new KafkaTemplate<>(producerFactory,
+        Map.of(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlock.toMillis()));
+    this.eventPublisher = eventPublisher;
+    this.entityManagerFactory = entityManagerFactory;
+    this.topic = topic;
+    this.versions = Caffeine.newBuilder()
+        .expireAfterWrite(versionTtl)
+        .build();
+  }
+
+  /**
+   * Асинхронная отправка изменения книги, выполненного на текущем узле, после фиксации
+   * транзакции. Сообщения одной книги отправляются с ее идентификатором в качестве ключа и
+   * попадают в одну партицию. Ошибка отправки только записывается в журнал: другие узлы
+   * обновят книгу по истечении срока жизни своих кэшей.
+   *
+   * @param event Событие изменения книги.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    if (event.remote()) {
+      return;
+    }
+    advance(event.bookId(), event.version());
+    kafkaTemplate.send(topic, String.valueOf(event.bookId()),
+            new BookChangeMessage(nodeId, event.bookId(), event.version(), event.changeType()))
+        .whenComplete((result, e) -> {
+          if (e != null) {
+            log.warn("Не удалось отправить изменение книги с id = {}", event.bookId(), e);
+          }
+        });
+  }
+
+  /**
+   * Применение изменения книги, выполненного на другом узле.
+   *
+   * @param message Сообщение об изменении книги.
+   */
+  @KafkaListener(topics = "${book.change.kafka.topic}",
+      groupId = "${book.change.kafka.group-id}",
+      properties = {
+          "value.deserializer=org.springframework.kafka.support.serializer.JsonDeserializer",
+          "spring.json.value.default.type=com.example.webstoreservice.event.BookChangeMessage",
+          "spring.json.use.type.headers=false"})
+  public void onRemoteChange(BookChangeMessage message) {
+    if (nodeId.equals(message.nodeId())) {
+      return;
+    }
+    if (!advance(message.bookId(), message.version())) {
+      log.debug("Пропущено устаревшее изменение книги с id = {}, версия {}",
+          message.bookId(), message.version());
+      return;
+    }
+    entityManagerFactory.getCache().evict(Book.class, message.bookId());
+    eventPublisher.publishEvent(new BookChangedEvent(message.bookId(), message.version(),
+        message.changeType(), true));
+    log.debug("Применено изменение книги с id = {} с узла {}", message.bookId(),
+        message.nodeId());
+  }
+
+  private boolean advance(Long bookId, Long version) {
+    ConcurrentMap<Long, Long> applied = versions.asMap();
+    Long current;
+    do {
+      current = applied.putIfAbsent(bookId, version);
+      if (current == null) {
+        return true;
+      }
+      if (current >= version) {
+        return false;
+      }
+    } while (!applied.replace(bookId, current, version));
+    return true;
+  }
+}
@@ -0,0 +1,34 @@
+package com.example.webstoreservice.kafka;
+
+import com.example.webstoreservice.cache.TokenRevocationList;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обработчик сообщений об отзыве токенов пользователей. Каждый экземпляр сервиса читает топик в
+ * собственной группе, чтобы отзыв применялся на всех узлах.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.kafka.enabled", havingValue = "true")
+public class TokenRevocationListener {
+
+  private final TokenRevocationList tokenRevocationList;
+
+  /**
+   * Отзыв токенов пользователя, UUID которого передан в сообщении.
+   *
+   * @param userUuid Строковое представление UUID пользователя.
+   */
+  @KafkaListener(topics = "${jwt.revocation.kafka.topic}",
+      groupId = "${spring.application.name}-${random.uuid}")
+  public void onRevocation(String userUuid) {
+    tokenRevocationList.revoke(UUID.fromString(userUuid));
+    log.info("Токены пользователя с uuid = {} отозваны", userUuid);
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.webstoreservice.model;
+
+/**
+ * Обложка книги, выбранная для ответа, без ее содержимого. Позволяет проверить условный запрос
+ * до чтения обложки из кэша или хранилища.
+ *
+ * @param bookId    Идентификатор книги.
+ * @param version   Версия книги.
+ * @param coverPath Путь исходной обложки в хранилище.
+ * @param variant   Название построенного уменьшенного варианта или null, если отдается исходная
+ *                  обложка.
+ */
+public record BookCover(
+    Long bookId,
+    Long version,
+    String coverPath,
+    String variant) {
+
+  private static final String ORIGINAL = "original";
+
+  /**
+   * Значение ETag обложки: версия книги и название отдаваемого варианта. Замена обложки
+   * увеличивает версию книги, а построение варианта меняет название.
+   *
+   * @return Значение ETag без кавычек.
+   */
+  public String eTag() {
+    return version + "-" + (variant == null ? ORIGINAL : variant);
+  }
+}
@@ -0,0 +1,105 @@
+package com.example.webstoreservice.model;
+
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция в упорядоченном списке книг для постраничного вывода по ключу: значение поля сортировки
+ * и идентификатор последней выданной книги. Передается клиенту в виде непрозрачной строки.
+ *
+ * @param sortBy        Поле, по которому выполняется сортировка.
+ * @param sortDirection Направление сортировки.
+ * @param value         Значение поля сортировки последней выданной книги (может быть null).
+ * @param bookId        Идентификатор последней выданной книги.
+ */
+public record BookCursor(
+    SortBy sortBy,
+    SortDirection sortDirection,
+    Comparable<?> value,
+    Long bookId) {
+
+  private static final String SEPARATOR = "|";
+
+  private static final String VALUE_PREFIX = "v";
+
+  /**
+   * Создание курсора, указывающего на переданную книгу.
+   *
+   * @param book          Последняя выданная книга.
+   * @param sortBy        Поле, по которому выполняется сортировка.
+   * @param sortDirection Направление сортировки.
+   * @return Объект {@link BookCursor}.
+   */
+  public static BookCursor of(BookView book, SortBy sortBy, SortDirection sortDirection) {
+    Comparable<?> value = switch (sortBy) {
+      case TITLE -> book.title();
+      case PRICE -> book.price();
+      case PUBLICATION_YEAR -> book.publicationYear();
+      case RELEVANCE -> throw unsupportedSort();
+    };
+    return new BookCursor(sortBy, sortDirection, value, book.bookId());
+  }
+
+  /**
+   * Восстановление курсора из строкового представления.
+   *
+   * @param cursor        Строковое представление курсора.
+   * @param sortBy        Поле сортировки текущего запроса.
+   * @param sortDirection Направление сортировки текущего запроса.
+   * @return Объект {@link BookCursor}.
+   * @throws IllegalArgumentException, если курсор поврежден или получен при другой сортировке.
+   */
+  public static BookCursor decode(String cursor, SortBy sortBy, SortDirection sortDirection) {
+    String[] parts;
+    try {
+      parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+          .split("\\" + SEPARATOR, 4);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Некорректный курсор", e);
+    }
+    if (parts.length != 4
+        || !sortBy.name().equals(parts[0]) || !sortDirection.name().equals(parts[1])) {
+      throw new IllegalArgumentException("Курсор не соответствует параметрам сортировки");
+    }
+    try {
+      Comparable<?> value = parts[3].isEmpty() ? null : parseValue(sortBy, parts[3].substring(1));
+      return new BookCursor(sortBy, sortDirection, value, Long.valueOf(parts[2]));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Некорректный курсор", e);
+    }
+  }
+
+  /**
+   * Преобразование курсора в непрозрачную строку для передачи клиенту.
+   *
+   * @return Строковое представление курсора.
+   */
+  public String encode() {
+    String encodedValue = value == null ? "" : VALUE_PREFIX + formatValue();
+    String raw = String.join(SEPARATOR, sortBy.name(), sortDirection.name(),
+        String.valueOf(bookId), encodedValue);
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String formatValue() {
+    return value instanceof BigDecimal price ? price.toPlainString() : value.toString();
+  }
+
+  private static Comparable<?> parseValue(SortBy sortBy, String value) {
+    return switch (sortBy) {
+      case TITLE -> value;
+      case PRICE -> new BigDecimal(value);
+      case PUBLICATION_YEAR -> Integer.valueOf(value);
+      case RELEVANCE -> throw unsupportedSort();
+    };
+  }
+
+  private static IllegalArgumentException unsupportedSort() {
+    return new IllegalArgumentException(
+        "Сортировка по релевантности не поддерживается при постраничном выводе по курсору");
+  }
+}
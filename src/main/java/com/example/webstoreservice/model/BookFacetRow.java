@@ -0,0 +1,23 @@
+package com.example.webstoreservice.model;
+
+/**
+ * Количество книг с одним сочетанием жанра, автора и ценового диапазона. Строки для всех
+ * сочетаний, встречающихся среди отфильтрованных книг, получаются одним агрегирующим запросом и
+ * сворачиваются в отдельные фасеты.
+ *
+ * @param genreId     Идентификатор жанра.
+ * @param genreName   Название жанра.
+ * @param authorId    Идентификатор автора.
+ * @param authorName  Имя автора.
+ * @param priceBucket Номер ценового диапазона или null, если цена книги не указана.
+ * @param count       Количество книг.
+ */
+public record BookFacetRow(
+    Long genreId,
+    String genreName,
+    Long authorId,
+    String authorName,
+    Integer priceBucket,
+    Long count) {
+
+}
@@ -0,0 +1,13 @@
+package com.example.webstoreservice.model;
+
+/**
+ * Показатель популярности книги: количество заказов или добавлений в избранное.
+ *
+ * @param bookId Идентификатор книги.
+ * @param score  Количество заказов или добавлений в избранное.
+ */
+public record BookPopularity(
+    Long bookId,
+    Long score) {
+
+}
@@ -1,13 +1,30 @@
 package com.example.webstoreservice.model;
 
+import static com.example.webstoreservice.config.PostgresFunctionContributor.FTS_MATCH;
+import static com.example.webstoreservice.config.PostgresFunctionContributor.FTS_RANK;
+import static com.example.webstoreservice.config.PostgresFunctionContributor.TRGM_SIMILARITY;
+
+import com.example.commoncode.model.entity.BaseEntity;
+import com.example.webstoreservice.model.dto.BookFilterDto;
 import com.example.webstoreservice.model.entity.Author_;
 import com.example.webstoreservice.model.entity.Book;
 import com.example.webstoreservice.model.entity.Book_;
+import com.example.webstoreservice.model.entity.Favorite;
+import com.example.webstoreservice.model.entity.Favorite_;
 import com.example.webstoreservice.model.entity.Genre_;
 import com.example.webstoreservice.model.enums.SortBy;
 import com.example.webstoreservice.model.enums.SortDirection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import java.math.BigDecimal;
 import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -16,19 +33,41 @@ import org.springframework.data.jpa.domain.Specification;
  */
 public class BookSpecifications {
 
+  private static final char LIKE_ESCAPE = '\\';
+
   /**
-   * Создание спецификации для фильтрации по названию книги.
+   * Создание спецификации, объединяющей все условия фильтрации неудаленных книг.
+   *
+   * @param filter Параметры фильтрации.
+   * @return Спецификация для фильтрации книг.
+   */
+  public static Specification<Book> filter(BookFilterDto filter) {
+    return Specification
+        .where(titleMatches(filter.title()))
+        .and(authorIs(filter.authorId()))
+        .and(genreIs(filter.genreId()))
+        .and(priceBetween(filter.minPrice(), filter.maxPrice()))
+        .and(notDeleted());
+  }
+
+  /**
+   * Создание спецификации для фильтрации по названию книги. Книга подходит, если ее название
+   * соответствует поисковому запросу с учетом словоформ (полнотекстовый поиск PostgreSQL) или
+   * содержит запрос как подстроку без учета регистра. Оба условия обслуживаются GIN-индексами.
    *
    * @param title Название книги для фильтрации.
    * @return Спецификация для фильтрации по названию книги.
    */
-  public static Specification<Book> titleContains(String title) {
+  public static Specification<Book> titleMatches(String title) {
     return (root, query, criteriaBuilder) -> {
-      if (StringUtils.isEmpty(title)) {
+      if (StringUtils.isBlank(title)) {
         return criteriaBuilder.conjunction();
       }
-      return criteriaBuilder.like(root.get(Book_.title),
-          MessageFormat.format("%{0}%", title));
+      return criteriaBuilder.or(
+          criteriaBuilder.isTrue(criteriaBuilder.function(FTS_MATCH, Boolean.class,
+              root.get(Book_.title), criteriaBuilder.literal(title))),
+          criteriaBuilder.like(criteriaBuilder.lower(root.get(Book_.title)),
+              MessageFormat.format("%{0}%", escapeLike(title.toLowerCase())), LIKE_ESCAPE));
     };
   }
 
@@ -95,7 +134,7 @@ public class BookSpecifications {
    * @throws IllegalArgumentException, если параметры сортировки имеют недопустимые значения.
    */
   public static Specification<Book> orderBy(SortBy sortBy, SortDirection sortDirection) {
-    if (sortBy == null || sortDirection == null) {
+    if (sortBy == null || sortBy.getField() == null || sortDirection == null) {
       throw new IllegalArgumentException("Параметры сортировки имеют недопустимые значения");
     }
 
@@ -109,6 +148,76 @@ public class BookSpecifications {
     };
   }
 
+  /**
+   * Создание спецификации для сортировки по релевантности названия книги поисковому запросу:
+   * сначала по рангу полнотекстового поиска, затем по триграммному сходству названия с запросом.
+   * Наиболее релевантные книги всегда выводятся первыми, обратный порядок не поддерживается.
+   *
+   * @param title Поисковый запрос по названию книги.
+   * @return Спецификация для сортировки результатов запроса.
+   * @throws IllegalArgumentException, если поисковый запрос не передан.
+   */
+  public static Specification<Book> orderByRelevance(String title) {
+    if (StringUtils.isBlank(title)) {
+      throw new IllegalArgumentException(
+          "Для сортировки по релевантности необходимо указать название книги");
+    }
+
+    return (root, query, criteriaBuilder) -> {
+      Expression<Double> rank = criteriaBuilder.function(FTS_RANK, Double.class,
+          root.get(Book_.title), criteriaBuilder.literal(title));
+      Expression<Double> similarity = criteriaBuilder.function(TRGM_SIMILARITY, Double.class,
+          root.get(Book_.title), criteriaBuilder.literal(title));
+
+      query.orderBy(criteriaBuilder.desc(rank), criteriaBuilder.desc(similarity),
+          criteriaBuilder.asc(root.get(BaseEntity.Fields.id)));
+
+      return query.getRestriction();
+    };
+  }
+
+  /**
+   * Создание спецификации для выборки книг из избранного пользователя.
+   *
+   * @param userUuid UUID пользователя.
+   * @return Спецификация для выборки избранных книг пользователя.
+   */
+  public static Specification<Book> favoriteOf(UUID userUuid) {
+    return (root, query, criteriaBuilder) -> {
+      Subquery<Long> favoriteBookIds = query.subquery(Long.class);
+      Root<Favorite> favorite = favoriteBookIds.from(Favorite.class);
+      favoriteBookIds
+          .select(favorite.get(Favorite_.book).<Long>get(BaseEntity.Fields.id))
+          .where(criteriaBuilder.equal(favorite.get(Favorite_.userUuid), userUuid));
+      return root.get(BaseEntity.Fields.id).in(favoriteBookIds);
+    };
+  }
+
+  /**
+   * Создание спецификации для выборки книг по списку идентификаторов.
+   *
+   * @param bookIds Идентификаторы книг.
+   * @return Спецификация для выборки книг с указанными идентификаторами.
+   */
+  public static Specification<Book> idIn(Collection<Long> bookIds) {
+    return (root, query, criteriaBuilder) -> root.get(BaseEntity.Fields.id).in(bookIds);
+  }
+
+  /**
+   * Создание спецификации для чтения книг пакетами в порядке возрастания идентификатора: каждый
+   * следующий пакет начинается после последней прочитанной книги, а не со смещения.
+   *
+   * @param bookId Идентификатор последней прочитанной книги или null для первого пакета.
+   * @return Спецификация для выборки и сортировки книг.
+   */
+  public static Specification<Book> idAfter(Long bookId) {
+    return (root, query, criteriaBuilder) -> {
+      query.orderBy(criteriaBuilder.asc(root.get(BaseEntity.Fields.id)));
+      return bookId == null ? criteriaBuilder.conjunction() :
+          criteriaBuilder.greaterThan(root.get(BaseEntity.Fields.id), bookId);
+    };
+  }
+
   /**
    * Создание спецификации для фильтрации неудаленных книг.
    *
@@ -117,4 +226,94 @@ public class BookSpecifications {
   public static Specification<Book> notDeleted() {
     return ((root, query, criteriaBuilder) -> criteriaBuilder.isFalse(root.get(Book_.deleted)));
   }
-}
\ No newline at end of file
+
+  /**
+   * Создание спецификации для сортировки по ключу постраничного вывода: полю сортировки и
+   * идентификатору книги в одном направлении. Порядок совпадает с порядком составных индексов
+   * (поле, book_id), поэтому при обратном направлении индекс читается в обратную сторону.
+   *
+   * @param sortBy        Поле, по которому выполняется сортировка.
+   * @param sortDirection Направление сортировки.
+   * @return Спецификация для сортировки результатов запроса.
+   * @throws IllegalArgumentException, если параметры сортировки имеют недопустимые значения.
+   */
+  public static Specification<Book> orderByKeyset(SortBy sortBy, SortDirection sortDirection) {
+    if (sortBy == SortBy.RELEVANCE) {
+      throw new IllegalArgumentException(
+          "Сортировка по релевантности не поддерживается при постраничном выводе по курсору");
+    }
+    if (sortBy == null || sortBy.getField() == null || sortDirection == null) {
+      throw new IllegalArgumentException("Параметры сортировки имеют недопустимые значения");
+    }
+
+    return (root, query, criteriaBuilder) -> {
+
+      query.orderBy((sortDirection == SortDirection.DESC) ?
+          List.of(criteriaBuilder.desc(root.get(sortBy.getField())),
+              criteriaBuilder.desc(root.get(BaseEntity.Fields.id))) :
+          List.of(criteriaBuilder.asc(root.get(sortBy.getField())),
+              criteriaBuilder.asc(root.get(BaseEntity.Fields.id))));
+
+      return query.getRestriction();
+    };
+  }
+
+  /**
+   * Создание спецификаций диапазонов ключа, следующих за позицией курсора, в порядке вывода.
+   * Каждый диапазон задается условием, которое служит началом диапазона в составном индексе
+   * (поле, book_id): для значений поля - избыточной границей {@code поле >= значение} (или
+   * {@code <=} при убывании), для книг без значения - условием {@code поле IS NULL}. Книги без
+   * значения выводятся отдельным диапазоном в порядке, принятом в PostgreSQL по умолчанию:
+   * последними при сортировке по возрастанию и первыми при сортировке по убыванию. Следующий
+   * диапазон запрашивается, только если предыдущий исчерпан.
+   *
+   * @param sortBy        Поле, по которому выполняется сортировка.
+   * @param sortDirection Направление сортировки.
+   * @param cursor        Позиция последней выданной книги или null для первой страницы.
+   * @return Список спецификаций диапазонов.
+   */
+  public static List<Specification<Book>> after(SortBy sortBy, SortDirection sortDirection,
+      BookCursor cursor) {
+    boolean descending = sortDirection == SortDirection.DESC;
+    Specification<Book> withValue = (root, query, criteriaBuilder) ->
+        criteriaBuilder.isNotNull(root.get(sortBy.getField()));
+    Specification<Book> withoutValue = (root, query, criteriaBuilder) ->
+        criteriaBuilder.isNull(root.get(sortBy.getField()));
+
+    if (cursor == null) {
+      return descending ? List.of(withoutValue, withValue) : List.of(withValue, withoutValue);
+    }
+    if (cursor.value() == null) {
+      Specification<Book> restWithoutValue = (root, query, criteriaBuilder) -> {
+        Path<Long> id = root.get(BaseEntity.Fields.id);
+        return criteriaBuilder.and(criteriaBuilder.isNull(root.get(sortBy.getField())),
+            descending ? criteriaBuilder.lessThan(id, cursor.bookId()) :
+                criteriaBuilder.greaterThan(id, cursor.bookId()));
+      };
+      return descending ? List.of(restWithoutValue, withValue) : List.of(restWithoutValue);
+    }
+    Specification<Book> restWithValue = (root, query, criteriaBuilder) -> seek(criteriaBuilder,
+        root.get(sortBy.getField()), root.get(BaseEntity.Fields.id), cursor);
+    return descending ? List.of(restWithValue) : List.of(restWithValue, withoutValue);
+  }
+
+  private static String escapeLike(String value) {
+    return value
+        .replace(String.valueOf(LIKE_ESCAPE), String.valueOf(LIKE_ESCAPE) + LIKE_ESCAPE)
+        .replace("%", LIKE_ESCAPE + "%")
+        .replace("_", LIKE_ESCAPE + "_");
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static Predicate seek(CriteriaBuilder cb, Path key, Path<Long> id, BookCursor cursor) {
+    Comparable value = cursor.value();
+    Long bookId = cursor.bookId();
+
+    if (cursor.sortDirection() == SortDirection.DESC) {
+      return cb.and(cb.lessThanOrEqualTo(key, value),
+          cb.or(cb.lessThan(key, value), cb.lessThan(id, bookId)));
+    }
+    return cb.and(cb.greaterThanOrEqualTo(key, value),
+        cb.or(cb.greaterThan(key, value), cb.greaterThan(id, bookId)));
+  }
+}
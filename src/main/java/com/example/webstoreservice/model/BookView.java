@@ -0,0 +1,25 @@
+package com.example.webstoreservice.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Плоская проекция книги с именами автора и жанра для чтения каталога. Заполняется напрямую из
+ * результата запроса, минуя контекст персистентности.
+ */
+public record BookView(
+    Long bookId,
+    Long version,
+    String title,
+    Long authorId,
+    String authorName,
+    Long genreId,
+    String genreName,
+    Integer publicationYear,
+    BigDecimal price,
+    String ISBN,
+    Integer pageCount,
+    Integer ageRating,
+    String coverPath,
+    Boolean deleted) {
+
+}
@@ -0,0 +1,31 @@
+package com.example.webstoreservice.model;
+
+import java.util.Date;
+import lombok.Builder;
+
+/**
+ * Проверенный JWT-токен с извлеченными из него утверждениями.
+ *
+ * @param username   Имя пользователя.
+ * @param uuid       Строковое представление UUID пользователя.
+ * @param role       Роль пользователя, если она передана в токене.
+ * @param issuedAt   Время выпуска токена.
+ * @param expiration Время истечения срока действия токена.
+ */
+@Builder
+public record ParsedToken(
+    String username,
+    String uuid,
+    String role,
+    Date issuedAt,
+    Date expiration) {
+
+  /**
+   * Проверка истечения срока действия токена.
+   *
+   * @return true, если срок действия токена истек, в противном случае - false.
+   */
+  public boolean isExpired() {
+    return expiration.before(new Date());
+  }
+}
@@ -0,0 +1,27 @@
+package com.example.webstoreservice.model;
+
+import com.example.webstoreservice.model.dto.UserDto;
+import java.util.List;
+import java.util.Objects;
+import lombok.Getter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Аутентифицированный пользователь, хранящий в контексте безопасности данные {@link UserDto},
+ * полученные при проверке JWT-токена.
+ */
+@Getter
+public class UserPrincipal extends User {
+
+  /**
+   * Данные аутентифицированного пользователя.
+   */
+  private final UserDto userDto;
+
+  public UserPrincipal(UserDto userDto) {
+    super(userDto.username(), Objects.requireNonNullElse(userDto.password(), ""),
+        List.of(new SimpleGrantedAuthority(userDto.role().name())));
+    this.userDto = userDto;
+  }
+}
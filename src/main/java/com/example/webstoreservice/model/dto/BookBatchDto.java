@@ -0,0 +1,11 @@
+package com.example.webstoreservice.model.dto;
+
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+public record BookBatchDto(
+    List<BookDto> books,
+    List<Long> missingIds) {
+
+}
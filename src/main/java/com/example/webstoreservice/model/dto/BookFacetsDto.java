@@ -0,0 +1,13 @@
+package com.example.webstoreservice.model.dto;
+
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+public record BookFacetsDto(
+    long total,
+    List<FacetCountDto> genres,
+    List<FacetCountDto> authors,
+    List<PriceBucketDto> prices) {
+
+}
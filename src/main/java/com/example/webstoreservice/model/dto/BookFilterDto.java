@@ -0,0 +1,14 @@
+package com.example.webstoreservice.model.dto;
+
+import java.math.BigDecimal;
+import lombok.Builder;
+
+@Builder
+public record BookFilterDto(
+    String title,
+    Long authorId,
+    Long genreId,
+    BigDecimal minPrice,
+    BigDecimal maxPrice) {
+
+}
@@ -0,0 +1,10 @@
+package com.example.webstoreservice.model.dto;
+
+import lombok.Builder;
+
+@Builder
+public record CoverMigrationDto(
+    long files,
+    long bytes) {
+
+}
@@ -0,0 +1,13 @@
+package com.example.webstoreservice.model.dto;
+
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+public record CursorPageDto<T>(
+    List<T> content,
+    int size,
+    boolean hasNext,
+    String nextCursor) {
+
+}
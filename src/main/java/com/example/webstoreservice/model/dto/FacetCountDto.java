@@ -0,0 +1,11 @@
+package com.example.webstoreservice.model.dto;
+
+import lombok.Builder;
+
+@Builder
+public record FacetCountDto(
+    Long id,
+    String name,
+    long count) {
+
+}
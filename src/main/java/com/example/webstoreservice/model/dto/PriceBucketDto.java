@@ -0,0 +1,12 @@
+package com.example.webstoreservice.model.dto;
+
+import java.math.BigDecimal;
+import lombok.Builder;
+
+@Builder
+public record PriceBucketDto(
+    BigDecimal from,
+    BigDecimal to,
+    long count) {
+
+}
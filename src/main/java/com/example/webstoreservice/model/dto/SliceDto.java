@@ -0,0 +1,13 @@
+package com.example.webstoreservice.model.dto;
+
+import java.util.List;
+import lombok.Builder;
+
+@Builder
+public record SliceDto<T>(
+    List<T> content,
+    int page,
+    int size,
+    boolean hasNext) {
+
+}
@@ -0,0 +1,12 @@
+package com.example.webstoreservice.model.dto;
+
+import com.example.webstoreservice.model.enums.SuggestionType;
+import lombok.Builder;
+
+@Builder
+public record SuggestionDto(
+    SuggestionType type,
+    Long id,
+    String text) {
+
+}
@@ -4,8 +4,11 @@ import com.example.commoncode.model.entity.BaseEntity;
 import jakarta.persistence.AttributeOverride;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.Table;
 import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
@@ -16,10 +19,14 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldNameConstants;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Сущность для хранения информации об электронных книгах.
- * Наследует поле 'id' от базового класса BaseEntity.
+ * Наследует поле 'id' от базового класса BaseEntity. Автор и жанр загружаются лениво, а для
+ * сценариев, где они нужны, используется граф {@link #WITH_AUTHOR_AND_GENRE}. Сущность хранится в
+ * кэше второго уровня Hibernate со стратегией {@link CacheConcurrencyStrategy#READ_WRITE}.
  */
 @Builder(toBuilder = true)
 @FieldNameConstants
@@ -28,10 +35,18 @@ import lombok.experimental.FieldNameConstants;
 @Data
 @EqualsAndHashCode(callSuper = true)
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Book.CACHE_REGION)
+@NamedEntityGraph(name = Book.WITH_AUTHOR_AND_GENRE, attributeNodes = {
+    @NamedAttributeNode(Book.Fields.author),
+    @NamedAttributeNode(Book.Fields.genre)})
 @AttributeOverride(name = "id", column = @Column(name = "book_id"))
 @Table(name = "books")
 public class Book extends BaseEntity {
 
+  public static final String WITH_AUTHOR_AND_GENRE = "Book.withAuthorAndGenre";
+
+  public static final String CACHE_REGION = "books";
+
   /**
    * Версия для оптимистичной блокировки.
    */
@@ -49,7 +64,7 @@ public class Book extends BaseEntity {
    * Автор книги.
    */
   @NotNull
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "author_id", nullable = false)
   private Author author;
 
@@ -57,7 +72,7 @@ public class Book extends BaseEntity {
    * Жанр книги
    */
   @NotNull
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "genre_id", nullable = false)
   private Genre genre;
 
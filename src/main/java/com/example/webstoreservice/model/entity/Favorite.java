@@ -3,6 +3,7 @@ package com.example.webstoreservice.model.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -38,7 +39,7 @@ public class Favorite {
   /**
    * Книга, относящаяся к избранному пользователей.
    */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "book_id", insertable = false, updatable = false)
   private Book book;
 }
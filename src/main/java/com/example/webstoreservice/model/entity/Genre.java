@@ -11,10 +11,13 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldNameConstants;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Сущность для хранения информации о жанрах электронных книг.
- * Наследует поле 'id' от базового класса BaseEntity.
+ * Наследует поле 'id' от базового класса BaseEntity. Сущность редко изменяется и хранится в кэше
+ * второго уровня Hibernate со стратегией {@link CacheConcurrencyStrategy#NONSTRICT_READ_WRITE}.
  */
 @Builder
 @FieldNameConstants
@@ -23,10 +26,13 @@ import lombok.experimental.FieldNameConstants;
 @Data
 @EqualsAndHashCode(callSuper = true)
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = Genre.CACHE_REGION)
 @AttributeOverride(name = "id", column = @Column(name = "genre_id"))
 @Table(name = "genres")
 public class Genre extends BaseEntity {
 
+  public static final String CACHE_REGION = "genres";
+
   /**
    * Название жанра.
    */
@@ -0,0 +1,5 @@
+package com.example.webstoreservice.model.enums;
+
+public enum BookChangeType {
+  CREATED, UPDATED, DELETED, COVER_CHANGED
+}
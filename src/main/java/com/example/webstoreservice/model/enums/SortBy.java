@@ -8,7 +8,8 @@ import lombok.Getter;
 public enum SortBy {
   TITLE("title"),
   PRICE("price"),
-  PUBLICATION_YEAR("publicationYear");
+  PUBLICATION_YEAR("publicationYear"),
+  RELEVANCE(null);
 
   private final String field;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.example.webstoreservice.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum SuggestionType {
+  BOOK("Книга"),
+  AUTHOR("Автор");
+
+  public final String displayValue;
+}
@@ -1,6 +1,7 @@
 package com.example.webstoreservice.model.mapper;
 
 import com.example.commoncode.model.mapper.CustomMapping;
+import com.example.webstoreservice.model.BookView;
 import com.example.webstoreservice.model.dto.BookDto;
 import com.example.webstoreservice.model.entity.Book;
 import org.mapstruct.Mapper;
@@ -23,4 +24,10 @@ public interface BookMapper {
 
   @Mapping(source = "id", target = "bookId")
   BookDto bookToBookDto(Book book);
+
+  @Mapping(source = "authorId", target = "author.authorId")
+  @Mapping(source = "authorName", target = "author.authorName")
+  @Mapping(source = "genreId", target = "genre.genreId")
+  @Mapping(source = "genreName", target = "genre.genreName")
+  BookDto bookViewToBookDto(BookView bookView);
 }
\ No newline at end of file
@@ -1,11 +1,26 @@
 package com.example.webstoreservice.repository;
 
 import com.example.webstoreservice.model.entity.Book;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>,
+    BookRepositoryCustom {
 
+  @Override
+  @EntityGraph(Book.WITH_AUTHOR_AND_GENRE)
+  Optional<Book> findById(Long bookId);
+
+  @EntityGraph(Book.WITH_AUTHOR_AND_GENRE)
   Optional<Book> findByISBN(String isbn);
+
+  @EntityGraph(Book.WITH_AUTHOR_AND_GENRE)
+  Optional<Book> findWithAuthorAndGenreById(Long bookId);
+
+  @Query("SELECT DISTINCT b.coverPath FROM Book b WHERE b.coverPath IS NOT NULL")
+  List<String> findCoverPaths();
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.example.webstoreservice.repository;
+
+import com.example.webstoreservice.model.BookCursor;
+import com.example.webstoreservice.model.BookFacetRow;
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.entity.Book;
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface BookRepositoryCustom {
+
+  List<BookView> findViews(Specification<Book> spec);
+
+  List<BookView> findViews(Specification<Book> spec, long offset, int limit);
+
+  List<BookView> findViewsAfter(Specification<Book> spec, SortBy sortBy,
+      SortDirection sortDirection, BookCursor cursor, int limit);
+
+  Optional<BookView> findViewById(Long bookId);
+
+  List<BookFacetRow> countFacets(Specification<Book> spec, List<BigDecimal> priceBounds);
+}
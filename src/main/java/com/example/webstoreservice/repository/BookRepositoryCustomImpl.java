@@ -0,0 +1,197 @@
+package com.example.webstoreservice.repository;
+
+import com.example.commoncode.model.entity.BaseEntity;
+import com.example.webstoreservice.model.BookCursor;
+import com.example.webstoreservice.model.BookFacetRow;
+import com.example.webstoreservice.model.BookSpecifications;
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.entity.Author;
+import com.example.webstoreservice.model.entity.Author_;
+import com.example.webstoreservice.model.entity.Book;
+import com.example.webstoreservice.model.entity.Book_;
+import com.example.webstoreservice.model.entity.Genre;
+import com.example.webstoreservice.model.entity.Genre_;
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaBuilder.Case;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Реализация {@link BookRepositoryCustom}. Выполняет выборку книг по спецификации сразу в
+ * проекцию {@link BookView} с именами автора и жанра одним запросом, без загрузки сущностей в
+ * контекст персистентности и без дополнительного запроса {@code COUNT(*)}, а также подсчет
+ * фасетов каталога одним агрегирующим запросом.
+ */
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Получение всех книг, удовлетворяющих спецификации, в порядке, заданном спецификацией.
+   *
+   * @param spec Спецификация фильтрации и сортировки.
+   * @return Список проекций {@link BookView}.
+   */
+  @Override
+  public List<BookView> findViews(Specification<Book> spec) {
+    return createViewQuery(spec).getResultList();
+  }
+
+  /**
+   * Получение не более {@code limit} книг, удовлетворяющих спецификации, начиная с позиции
+   * {@code offset}, в порядке, заданном спецификацией.
+   *
+   * @param spec   Спецификация фильтрации и сортировки.
+   * @param offset Количество пропускаемых книг.
+   * @param limit  Максимальное количество книг.
+   * @return Список проекций {@link BookView}.
+   */
+  @Override
+  public List<BookView> findViews(Specification<Book> spec, long offset, int limit) {
+    return createViewQuery(spec)
+        .setFirstResult(Math.toIntExact(offset))
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  /**
+   * Получение не более {@code limit} книг, следующих за позицией курсора, в порядке ключа
+   * постраничного вывода. Диапазоны ключа из {@link BookSpecifications#after} запрашиваются по
+   * очереди, пока не набрано {@code limit} книг, поэтому каждый запрос читает индекс
+   * (поле, book_id) с позиции курсора, а не с начала.
+   *
+   * @param spec          Спецификация фильтрации.
+   * @param sortBy        Поле, по которому выполняется сортировка.
+   * @param sortDirection Направление сортировки.
+   * @param cursor        Позиция последней выданной книги или null для первой страницы.
+   * @param limit         Максимальное количество книг.
+   * @return Список проекций {@link BookView}.
+   */
+  @Override
+  public List<BookView> findViewsAfter(Specification<Book> spec, SortBy sortBy,
+      SortDirection sortDirection, BookCursor cursor, int limit) {
+    List<BookView> books = new ArrayList<>(limit);
+    for (Specification<Book> range : BookSpecifications.after(sortBy, sortDirection, cursor)) {
+      books.addAll(findViews(spec.and(range)
+              .and(BookSpecifications.orderByKeyset(sortBy, sortDirection)),
+          0, limit - books.size()));
+      if (books.size() >= limit) {
+        break;
+      }
+    }
+    return books;
+  }
+
+  /**
+   * Получение проекции неудаленной книги по идентификатору.
+   *
+   * @param bookId Идентификатор книги.
+   * @return Проекция {@link BookView} или пустой {@link Optional}, если книга не найдена или
+   * удалена.
+   */
+  @Override
+  public Optional<BookView> findViewById(Long bookId) {
+    return findViews(BookSpecifications.notDeleted().and((root, query, criteriaBuilder) ->
+        criteriaBuilder.equal(root.get(BaseEntity.Fields.id), bookId)), 0, 1)
+        .stream()
+        .findFirst();
+  }
+
+  /**
+   * Подсчет книг, удовлетворяющих спецификации, для каждого сочетания жанра, автора и ценового
+   * диапазона одним запросом с группировкой. Диапазон с номером {@code i} содержит цены не меньше
+   * {@code priceBounds[i - 1]} и меньше {@code priceBounds[i]}; первый и последний диапазоны
+   * открыты.
+   *
+   * @param spec        Спецификация фильтрации.
+   * @param priceBounds Границы ценовых диапазонов в порядке возрастания.
+   * @return Список строк {@link BookFacetRow}.
+   */
+  @Override
+  public List<BookFacetRow> countFacets(Specification<Book> spec, List<BigDecimal> priceBounds) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<BookFacetRow> query = criteriaBuilder.createQuery(BookFacetRow.class);
+    Root<Book> root = query.from(Book.class);
+    Join<Book, Author> author = root.join(Book_.author);
+    Join<Book, Genre> genre = root.join(Book_.genre);
+
+    Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+
+    Expression<Long> genreId = genre.get(BaseEntity.Fields.id);
+    Expression<String> genreName = genre.get(Genre_.genreName);
+    Expression<Long> authorId = author.get(BaseEntity.Fields.id);
+    Expression<String> authorName = author.get(Author_.authorName);
+    Expression<Integer> priceBucket = priceBucket(criteriaBuilder, root.get(Book_.price),
+        priceBounds);
+
+    query
+        .select(criteriaBuilder.construct(BookFacetRow.class, genreId, genreName, authorId,
+            authorName, priceBucket, criteriaBuilder.count(root)))
+        .groupBy(genreId, genreName, authorId, authorName, priceBucket);
+
+    return entityManager.createQuery(query).getResultList();
+  }
+
+  private TypedQuery<BookView> createViewQuery(Specification<Book> spec) {
+    CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<BookView> query = criteriaBuilder.createQuery(BookView.class);
+    Root<Book> root = query.from(Book.class);
+
+    Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+    if (predicate != null) {
+      query.where(predicate);
+    }
+
+    return entityManager.createQuery(query.select(toView(criteriaBuilder, root)));
+  }
+
+  private static Expression<Integer> priceBucket(CriteriaBuilder criteriaBuilder,
+      Expression<BigDecimal> price, List<BigDecimal> priceBounds) {
+    Case<Integer> bucket = criteriaBuilder.<Integer>selectCase()
+        .when(criteriaBuilder.isNull(price), criteriaBuilder.nullLiteral(Integer.class));
+    for (int i = 0; i < priceBounds.size(); i++) {
+      bucket = bucket.when(criteriaBuilder.lessThan(price, priceBounds.get(i)), i);
+    }
+    return bucket.otherwise(priceBounds.size());
+  }
+
+  private static CompoundSelection<BookView> toView(
+      CriteriaBuilder criteriaBuilder, Root<Book> root) {
+    Join<Book, Author> author = root.join(Book_.author);
+    Join<Book, Genre> genre = root.join(Book_.genre);
+
+    return criteriaBuilder.construct(BookView.class,
+        root.get(BaseEntity.Fields.id),
+        root.get(Book_.version),
+        root.get(Book_.title),
+        author.get(BaseEntity.Fields.id),
+        author.get(Author_.authorName),
+        genre.get(BaseEntity.Fields.id),
+        genre.get(Genre_.genreName),
+        root.get(Book_.publicationYear),
+        root.get(Book_.price),
+        root.get(Book_.ISBN),
+        root.get(Book_.pageCount),
+        root.get(Book_.ageRating),
+        root.get(Book_.coverPath),
+        root.get(Book_.deleted));
+  }
+}
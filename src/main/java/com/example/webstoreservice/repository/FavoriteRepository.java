@@ -1,14 +1,21 @@
 package com.example.webstoreservice.repository;
 
+import com.example.webstoreservice.model.BookPopularity;
 import com.example.webstoreservice.model.entity.Favorite;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
 
-  List<Favorite> findByUserUuid(UUID userUuid);
-
   Optional<Favorite> findByUserUuidAndBookId(UUID userUuid, Long bookId);
-}
\ No newline at end of file
+
+  @Query("""
+      SELECT new com.example.webstoreservice.model.BookPopularity(f.book.id, COUNT(f))
+      FROM Favorite f
+      GROUP BY f.book.id
+      """)
+  List<BookPopularity> countFavoritesByBook();
+}
@@ -1,24 +1,39 @@
 package com.example.webstoreservice.repository;
 
+import com.example.webstoreservice.model.BookPopularity;
 import com.example.webstoreservice.model.entity.Order;
 import com.example.webstoreservice.model.enums.OrderStatus;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+  @EntityGraph(attributePaths = {"books", "books.author", "books.genre"})
   Optional<Order> findByUserUuidAndStatus(UUID userUuid, OrderStatus orderStatus);
 
   Optional<Order> findByIdAndUserUuidAndStatus(Long orderId, UUID userUuid, OrderStatus orderStatus);
 
   @Query("""
       FROM Order o
-      LEFT JOIN FETCH o.books
+      LEFT JOIN FETCH o.books b
+      LEFT JOIN FETCH b.author
+      LEFT JOIN FETCH b.genre
       WHERE o.userUuid = :userUuid AND o.status = :status
       """)
   Optional<Order> findByUserUuidAndStatusWithBooks(@Param("userUuid") UUID userUuid,
       @Param("status") OrderStatus status);
-}
\ No newline at end of file
+
+  @Query("""
+      SELECT new com.example.webstoreservice.model.BookPopularity(b.id, COUNT(o))
+      FROM Order o
+      JOIN o.books b
+      WHERE o.status = :status
+      GROUP BY b.id
+      """)
+  List<BookPopularity> countOrdersByBook(@Param("status") OrderStatus status);
+}
@@ -1,10 +1,20 @@
 package com.example.webstoreservice.service;
 
+import com.example.webstoreservice.model.BookCover;
+import com.example.webstoreservice.model.dto.BookBatchDto;
 import com.example.webstoreservice.model.dto.BookDto;
+import com.example.webstoreservice.model.dto.BookFacetsDto;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.dto.CoverMigrationDto;
+import com.example.webstoreservice.model.dto.CursorPageDto;
+import com.example.webstoreservice.model.dto.SliceDto;
+import com.example.webstoreservice.model.dto.SuggestionDto;
 import com.example.webstoreservice.model.entity.Book;
 import com.example.webstoreservice.model.enums.SortBy;
 import com.example.webstoreservice.model.enums.SortDirection;
 import java.math.BigDecimal;
+import java.util.List;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
@@ -21,15 +31,46 @@ public interface BookService {
       SortDirection sortDirection,
       Pageable pageable);
 
+  SliceDto<BookDto> getBooksSlice(
+      BookFilterDto filter,
+      SortBy sortBy,
+      SortDirection sortDirection,
+      Pageable pageable);
+
+  CursorPageDto<BookDto> getBooksByCursor(
+      BookFilterDto filter,
+      SortBy sortBy,
+      SortDirection sortDirection,
+      String cursor,
+      int size);
+
+  BookFacetsDto getBookFacets(BookFilterDto filter);
+
+  List<SuggestionDto> getSuggestions(String query, int limit);
+
   BookDto getBookDtoById(Long bookId);
 
+  BookBatchDto getBooksByIds(List<Long> bookIds);
+
+  Long getBookVersion(Long bookId);
+
+  String getCatalogGeneration();
+
   Book getBookById(Long bookId);
 
   void deleteBookById(Long bookId);
 
   String saveBookCover(Long bookId, MultipartFile file);
 
-  byte[] getBookCover(Long bookId);
+  BookCover getBookCover(Long bookId, String variant);
+
+  Resource getBookCoverContent(BookCover cover);
+
+  void regenerateCoverVariants();
+
+  CoverMigrationDto migrateCoversToPacks();
+
+  void compactCoverStorage();
 
   byte[] exportBooksToExcel();
 
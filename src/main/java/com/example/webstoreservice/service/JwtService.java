@@ -1,12 +1,11 @@
 package com.example.webstoreservice.service;
 
+import com.example.webstoreservice.model.ParsedToken;
 import org.springframework.security.core.userdetails.UserDetails;
 
 public interface JwtService {
 
-  String extractUsername(String token);
+  ParsedToken parseToken(String token);
 
-  String extractUuid(String token);
-
-  boolean isTokenValid(String jwt, UserDetails userDetails);
-}
\ No newline at end of file
+  boolean isTokenValid(ParsedToken token, UserDetails userDetails);
+}
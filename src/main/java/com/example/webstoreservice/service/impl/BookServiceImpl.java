@@ -2,37 +2,69 @@ package com.example.webstoreservice.service.impl;
 
 import com.example.commoncode.exception.BookCoverException;
 import com.example.commoncode.exception.BookExportException;
+import com.example.webstoreservice.cache.BookCountCache;
+import com.example.webstoreservice.cache.BookCoverCache;
+import com.example.webstoreservice.cache.BookFacetsCache;
+import com.example.webstoreservice.cache.BookPageCache;
+import com.example.webstoreservice.catalog.CatalogIndex;
+import com.example.webstoreservice.catalog.CatalogResult;
+import com.example.webstoreservice.catalog.SuggestIndex;
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.BookCover;
+import com.example.webstoreservice.model.BookCursor;
+import com.example.webstoreservice.model.BookFacetRow;
 import com.example.webstoreservice.model.BookSpecifications;
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.dto.BookBatchDto;
 import com.example.webstoreservice.model.dto.BookDto;
+import com.example.webstoreservice.model.dto.BookFacetsDto;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.dto.CoverMigrationDto;
+import com.example.webstoreservice.model.dto.CursorPageDto;
+import com.example.webstoreservice.model.dto.FacetCountDto;
+import com.example.webstoreservice.model.dto.PriceBucketDto;
+import com.example.webstoreservice.model.dto.SliceDto;
+import com.example.webstoreservice.model.dto.SuggestionDto;
 import com.example.webstoreservice.model.entity.Book;
+import com.example.webstoreservice.model.enums.BookChangeType;
 import com.example.webstoreservice.model.enums.SortBy;
 import com.example.webstoreservice.model.enums.SortDirection;
 import com.example.webstoreservice.model.mapper.BookMapper;
 import com.example.webstoreservice.repository.BookRepository;
 import com.example.webstoreservice.service.BookService;
+import com.example.webstoreservice.storage.CoverPackMigration;
+import com.example.webstoreservice.storage.CoverStorage;
+import com.example.webstoreservice.storage.CoverStorageCompactor;
+import com.example.webstoreservice.storage.CoverVariantPipeline;
 import jakarta.persistence.EntityNotFoundException;
 import java.io.ByteArrayOutputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -48,11 +80,42 @@ public class BookServiceImpl implements BookService {
 
   private final BookMapper bookMapper;
 
-  @Value("${book.covers.upload.path}")
-  private String uploadPath;
+  private final BookCountCache bookCountCache;
+
+  private final BookFacetsCache bookFacetsCache;
+
+  private final BookPageCache bookPageCache;
+
+  private final BookCoverCache bookCoverCache;
+
+  private final CatalogIndex catalogIndex;
+
+  private final SuggestIndex suggestIndex;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final CoverStorage coverStorage;
+
+  private final CoverVariantPipeline coverVariantPipeline;
+
+  private final CoverStorageCompactor coverStorageCompactor;
+
+  private final Optional<CoverPackMigration> coverPackMigration;
+
+  @Value("${book.facets.price-bounds}")
+  private List<BigDecimal> priceBounds;
+
+  @Value("${book.batch.max-size}")
+  private int batchMaxSize;
+
+  @Value("${book.export.batch-size}")
+  private int exportBatchSize;
 
   /**
-   * Получение страницы с книгами с учетом фильтрации и сортировки.
+   * Получение страницы с книгами с учетом фильтрации и сортировки. Готовые страницы хранятся в
+   * {@link BookPageCache} до изменения каталога, поэтому повторный запрос не открывает транзакцию.
+   * При промахе общее количество книг берется из {@link BookCountCache}, а при включенном
+   * {@link CatalogIndex} запрос выполняется в памяти.
    *
    * @param title         Название книги для фильтрации.
    * @param authorId      Идентификатор автора для фильтрации.
@@ -60,9 +123,11 @@ public class BookServiceImpl implements BookService {
    * @param minPrice      Минимальная цена книги для фильтрации.
    * @param maxPrice      Максимальная цена книги для фильтрации.
    * @param sortBy        Поле, по которому выполняется сортировка ({@link SortBy#TITLE},
-   *                      {@link SortBy#PRICE}, {@link SortBy#PUBLICATION_YEAR}).
+   *                      {@link SortBy#PRICE}, {@link SortBy#PUBLICATION_YEAR},
+   *                      {@link SortBy#RELEVANCE} - требует названия книги).
    * @param sortDirection Направление сортировки ({@link SortDirection#ASC} или
-   *                      {@link SortDirection#DESC}).
+   *                      {@link SortDirection#DESC}); при сортировке по релевантности не
+   *                      учитывается, наиболее релевантные книги выводятся первыми.
    * @param pageable      Объект, представляющий информацию о странице и сортировке.
    * @return Страница {@link Page} с объектами {@link BookDto} с учетом условий фильтрации и
    * сортировки.
@@ -71,33 +136,213 @@ public class BookServiceImpl implements BookService {
   @Override
   public Page<BookDto> getBooks(String title, Long authorId, Long genreId, BigDecimal minPrice,
       BigDecimal maxPrice, SortBy sortBy, SortDirection sortDirection, Pageable pageable) {
-    Specification<Book> spec = Specification
-        .where(BookSpecifications.titleContains(title))
-        .and(BookSpecifications.authorIs(authorId))
-        .and(BookSpecifications.genreIs(genreId))
-        .and(BookSpecifications.priceBetween(minPrice, maxPrice))
-        .and(BookSpecifications.notDeleted())
-        .and(BookSpecifications.orderBy(sortBy, sortDirection));
+    BookFilterDto filter = BookFilterDto.builder()
+        .title(title)
+        .authorId(authorId)
+        .genreId(genreId)
+        .minPrice(minPrice)
+        .maxPrice(maxPrice)
+        .build();
+    return bookPageCache.get(filter, sortBy, sortDirection, pageable,
+        normalized -> findBooks(normalized, sortBy, sortDirection, pageable));
+  }
 
-    Page<Book> books = bookRepository.findAll(spec, pageable);
+  /**
+   * Получение страницы с книгами с учетом фильтрации и сортировки без подсчета общего количества
+   * книг. Для определения наличия следующей страницы запрашивается на одну книгу больше. При
+   * включенном {@link CatalogIndex} запрос выполняется в памяти.
+   *
+   * @param filter        Параметры фильтрации.
+   * @param sortBy        Поле, по которому выполняется сортировка ({@link SortBy#TITLE},
+   *                      {@link SortBy#PRICE}, {@link SortBy#PUBLICATION_YEAR},
+   *                      {@link SortBy#RELEVANCE} - требует названия книги).
+   * @param sortDirection Направление сортировки ({@link SortDirection#ASC} или
+   *                      {@link SortDirection#DESC}); при сортировке по релевантности не
+   *                      учитывается, наиболее релевантные книги выводятся первыми.
+   * @param pageable      Объект, представляющий информацию о странице.
+   * @return Объект {@link SliceDto} с книгами и признаком наличия следующей страницы.
+   * @throws EntityNotFoundException, если не найдены соответствующие книги.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public SliceDto<BookDto> getBooksSlice(BookFilterDto filter, SortBy sortBy,
+      SortDirection sortDirection, Pageable pageable) {
+    List<BookView> books = catalogIndex.find(filter, sortBy, sortDirection,
+            pageable.getOffset(), pageable.getPageSize() + 1, false)
+        .map(CatalogResult::books)
+        .orElseGet(() -> bookRepository.findViews(BookSpecifications.filter(filter)
+                .and(orderBy(filter, sortBy, sortDirection)), pageable.getOffset(),
+            pageable.getPageSize() + 1));
 
     if (books.isEmpty()) {
       throw new EntityNotFoundException("Книги не найдены");
     }
 
-    return books.map(bookMapper::bookToBookDto);
+    boolean hasNext = books.size() > pageable.getPageSize();
+    List<BookView> content = hasNext ? books.subList(0, pageable.getPageSize()) : books;
+
+    return SliceDto.<BookDto>builder()
+        .content(content.stream().map(bookMapper::bookViewToBookDto).toList())
+        .page(pageable.getPageNumber())
+        .size(pageable.getPageSize())
+        .hasNext(hasNext)
+        .build();
   }
 
   /**
-   * Получение объекта {@link BookDto} по идентификатору книги.
+   * Получение очередной порции книг с учетом фильтрации и сортировки с постраничным выводом по
+   * ключу. Выборка начинается сразу после позиции курсора и использует составной индекс
+   * (поле сортировки, book_id), поэтому время ответа не зависит от глубины страницы. Общее
+   * количество книг не подсчитывается: для определения наличия следующей страницы запрашивается
+   * на одну книгу больше.
+   *
+   * @param filter        Параметры фильтрации.
+   * @param sortBy        Поле, по которому выполняется сортировка ({@link SortBy#TITLE},
+   *                      {@link SortBy#PRICE}, {@link SortBy#PUBLICATION_YEAR}).
+   * @param sortDirection Направление сортировки ({@link SortDirection#ASC} или
+   *                      {@link SortDirection#DESC}).
+   * @param cursor        Курсор, полученный с предыдущей страницей, или null для первой
+   *                      страницы.
+   * @param size          Количество книг на странице.
+   * @return Объект {@link CursorPageDto} с книгами и курсором следующей страницы.
+   * @throws EntityNotFoundException,  если на первой странице не найдено ни одной книги.
+   * @throws IllegalArgumentException, если курсор некорректен или размер страницы меньше 1.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public CursorPageDto<BookDto> getBooksByCursor(BookFilterDto filter, SortBy sortBy,
+      SortDirection sortDirection, String cursor, int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("Размер страницы должен быть больше нуля");
+    }
+
+    BookCursor after = cursor == null ? null : BookCursor.decode(cursor, sortBy, sortDirection);
+    List<BookView> books = bookRepository.findViewsAfter(BookSpecifications.filter(filter),
+        sortBy, sortDirection, after, size + 1);
+
+    if (books.isEmpty() && after == null) {
+      throw new EntityNotFoundException("Книги не найдены");
+    }
+
+    boolean hasNext = books.size() > size;
+    List<BookView> content = hasNext ? books.subList(0, size) : books;
+
+    return CursorPageDto.<BookDto>builder()
+        .content(content.stream().map(bookMapper::bookViewToBookDto).toList())
+        .size(size)
+        .hasNext(hasNext)
+        .nextCursor(hasNext ?
+            BookCursor.of(content.get(size - 1), sortBy, sortDirection).encode() : null)
+        .build();
+  }
+
+  /**
+   * Получение фасетов каталога для параметров фильтрации: количества книг по жанрам, авторам и
+   * ценовым диапазонам, границы которых задаются настройкой {@code book.facets.price-bounds}. Все
+   * счетчики вычисляются одним агрегирующим запросом или, при включенном {@link CatalogIndex},
+   * одним проходом по индексу, и кэшируются в {@link BookFacetsCache}.
+   *
+   * @param filter Параметры фильтрации.
+   * @return Объект {@link BookFacetsDto} с количеством книг по жанрам, авторам и ценовым
+   * диапазонам.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public BookFacetsDto getBookFacets(BookFilterDto filter) {
+    return bookFacetsCache.get(filter, () -> toFacets(catalogIndex.facets(filter, priceBounds)
+        .orElseGet(() -> bookRepository.countFacets(BookSpecifications.filter(filter),
+            priceBounds))));
+  }
+
+  /**
+   * Получение подсказок по началу названия книги или имени автора. Подсказки выбираются из
+   * {@link SuggestIndex} без обращения к базе данных.
+   *
+   * @param query Введенный текст.
+   * @param limit Максимальное количество подсказок.
+   * @return Список подсказок {@link SuggestionDto} в порядке убывания популярности.
+   * @throws IllegalArgumentException, если количество подсказок меньше 1.
+   */
+  @Override
+  public List<SuggestionDto> getSuggestions(String query, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("Количество подсказок должно быть больше нуля");
+    }
+    return suggestIndex.suggest(query, limit);
+  }
+
+  /**
+   * Получение объекта {@link BookDto} по идентификатору книги. Данные читаются одним запросом в
+   * проекцию {@link BookView} без загрузки сущности в контекст персистентности.
    *
    * @param bookId Идентификатор книги.
    * @return Объект {@link BookDto}.
-   * @throws EntityNotFoundException, если книга не найдена.
+   * @throws EntityNotFoundException, если книга не найдена или удалена.
    */
   @Override
+  @Transactional(readOnly = true)
   public BookDto getBookDtoById(Long bookId) {
-    return bookMapper.bookToBookDto(getBookById(bookId));
+    return bookRepository.findViewById(bookId)
+        .map(bookMapper::bookViewToBookDto)
+        .orElseThrow(() -> new EntityNotFoundException("Книга не найдена"));
+  }
+
+  /**
+   * Получение нескольких книг по списку идентификаторов одним запросом в проекцию
+   * {@link BookView} с автором и жанром. Повторяющиеся идентификаторы учитываются один раз.
+   *
+   * @param bookIds Идентификаторы книг.
+   * @return Объект {@link BookBatchDto} с найденными книгами в порядке запрошенных
+   * идентификаторов и списком идентификаторов, для которых книги не найдены или удалены.
+   * @throws IllegalArgumentException, если количество идентификаторов превышает
+   *                                   {@code book.batch.max-size}.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public BookBatchDto getBooksByIds(List<Long> bookIds) {
+    Set<Long> distinctIds = new LinkedHashSet<>(bookIds);
+    if (distinctIds.size() > batchMaxSize) {
+      throw new IllegalArgumentException(
+          "Количество книг в запросе не должно превышать " + batchMaxSize);
+    }
+    Map<Long, BookView> found = distinctIds.isEmpty() ? Map.of() :
+        bookRepository.findViews(BookSpecifications.idIn(distinctIds)
+                .and(BookSpecifications.notDeleted())).stream()
+            .collect(Collectors.toMap(BookView::bookId, Function.identity()));
+
+    return BookBatchDto.builder()
+        .books(distinctIds.stream()
+            .filter(found::containsKey)
+            .map(bookId -> bookMapper.bookViewToBookDto(found.get(bookId)))
+            .toList())
+        .missingIds(distinctIds.stream()
+            .filter(bookId -> !found.containsKey(bookId))
+            .toList())
+        .build();
+  }
+
+  /**
+   * Получение версии книги для проверки условных запросов до загрузки данных. Книга читается
+   * через кэш второго уровня, поэтому для часто запрашиваемых книг запрос к базе данных не
+   * выполняется.
+   *
+   * @param bookId Идентификатор книги.
+   * @return Версия книги.
+   * @throws EntityNotFoundException, если книга не найдена.
+   */
+  @Override
+  public Long getBookVersion(Long bookId) {
+    return getBookById(bookId).getVersion();
+  }
+
+  /**
+   * Получение текущего поколения каталога, которое меняется после каждого изменения книги.
+   *
+   * @return Строковое представление поколения каталога.
+   */
+  @Override
+  public String getCatalogGeneration() {
+    return bookPageCache.generation();
   }
 
   /**
@@ -124,16 +369,19 @@ public class BookServiceImpl implements BookService {
   public void deleteBookById(Long bookId) {
     Book book = getBookById(bookId);
     book.setDeleted(true);
-    bookRepository.save(book);
+    Book deletedBook = bookRepository.saveAndFlush(book);
+    publishBookChanged(deletedBook, BookChangeType.DELETED);
   }
 
   /**
-   * Сохранение обложки книги.
+   * Сохранение обложки книги. Файл передается в {@link CoverStorage} потоком без буферизации в
+   * памяти, а путь к обложке определяется хэшем ее содержимого. После фиксации транзакции
+   * {@link CoverVariantPipeline} строит уменьшенные варианты обложки в фоне.
    *
    * @param bookId Идентификатор книги.
    * @param file   Файл с обложкой книги.
-   * @return Путь к сохраненной обложке.
-   * @throws IllegalArgumentException, если файл не передан или пуст.
+   * @return Путь к сохраненной обложке относительно корня хранилища.
+   * @throws IllegalArgumentException, если файл не передан, пуст или превышает допустимый размер.
    * @throws EntityNotFoundException,  если книга не найдена.
    * @throws BookCoverException,       если произошла ошибка при сохранении файла обложки.
    */
@@ -146,21 +394,13 @@ public class BookServiceImpl implements BookService {
 
     Book book = getBookById(bookId);
 
-    String uniqueFilename = String.format("book_%d.%s", bookId,
-        FilenameUtils.getExtension(file.getOriginalFilename()));
-
-    String filePath = Paths.get(uploadPath).resolve(uniqueFilename).toString()
-        .replace("/", "\\");
-
-    try {
-      if (Files.notExists(Paths.get(uploadPath))) {
-        Files.createDirectories(Paths.get(uploadPath));
-      }
-      Files.write(Paths.get(filePath), file.getBytes());
-      book.setCoverPath(filePath);
-      bookRepository.save(book);
+    try (InputStream content = file.getInputStream()) {
+      String coverPath = coverStorage.store(content,
+          FilenameUtils.getExtension(file.getOriginalFilename()));
+      book.setCoverPath(coverPath);
+      publishBookChanged(bookRepository.saveAndFlush(book), BookChangeType.COVER_CHANGED);
 
-      return filePath;
+      return coverPath;
 
     } catch (IOException e) {
 
@@ -169,49 +409,99 @@ public class BookServiceImpl implements BookService {
   }
 
   /**
-   * Получение обложки книги в виде массива байтов.
+   * Выбор обложки книги или ее уменьшенного варианта без чтения содержимого. Пока вариант не
+   * построен, а также если исходная обложка не шире варианта, выбирается исходная обложка.
    *
-   * @param bookId Идентификатор книги.
-   * @return Обложка книги в виде массива байтов.
-   * @throws EntityNotFoundException, если книга не найдена.
-   * @throws BookCoverException,      если произошла ошибка при чтении файла обложки.
+   * @param bookId  Идентификатор книги.
+   * @param variant Название уменьшенного варианта или null для исходной обложки.
+   * @return Объект {@link BookCover} с версией книги и выбранным вариантом.
+   * @throws IllegalArgumentException, если вариант не настроен.
+   * @throws EntityNotFoundException,  если книга не найдена.
+   * @throws BookCoverException,       если у книги нет обложки.
    */
   @Override
-  public byte[] getBookCover(Long bookId) {
+  public BookCover getBookCover(Long bookId, String variant) {
+    if (variant != null && !coverVariantPipeline.supports(variant)) {
+      throw new IllegalArgumentException("Неизвестный размер обложки: " + variant);
+    }
     Book book = getBookById(bookId);
+    String coverPath = book.getCoverPath();
+    if (coverPath == null) {
+      throw new BookCoverException("Ошибка при чтении файла обложки");
+    }
+    String available = variant != null && coverVariantPipeline.exists(coverPath, variant) ?
+        variant : null;
 
-    Path coverPath = Path.of(book.getCoverPath());
+    return new BookCover(book.getId(), book.getVersion(), coverPath, available);
+  }
 
+  /**
+   * Получение содержимого выбранной обложки. Исходная обложка кэшируется под собственным
+   * ключом, а не под ключом варианта. Часто запрашиваемые обложки из каталога отдаются из
+   * {@link BookCoverCache} по идентификатору и версии книги, остальные - в виде ресурса
+   * хранилища, содержимое которого не копируется в кучу, а передается в ответ потоком или
+   * средствами контейнера.
+   *
+   * @param cover Обложка, выбранная {@link #getBookCover(Long, String)}.
+   * @return Объект {@link Resource} с обложкой.
+   * @throws BookCoverException, если файл обложки отсутствует или недоступен для чтения.
+   */
+  @Override
+  public Resource getBookCoverContent(BookCover cover) {
+    return bookCoverCache.get(cover.bookId(), cover.version(), cover.variant(), () ->
+        (cover.variant() == null ? coverStorage.find(cover.coverPath()) :
+            coverVariantPipeline.find(cover.coverPath(), cover.variant()))
+            .orElseThrow(() -> new BookCoverException("Ошибка при чтении файла обложки")));
+  }
+
+  /**
+   * Перестроение уменьшенных вариантов всех обложек в фоне.
+   */
+  @Override
+  public void regenerateCoverVariants() {
+    coverVariantPipeline.regenerateAll();
+  }
+
+  /**
+   * Перенос файлов обложек из каталога в пакетные файлы.
+   *
+   * @return Объект {@link CoverMigrationDto} с количеством и объемом перенесенных файлов.
+   * @throws IllegalStateException, если хранилище обложек в пакетных файлах не включено.
+   * @throws BookCoverException,    если произошла ошибка при переносе обложек.
+   */
+  @Override
+  public CoverMigrationDto migrateCoversToPacks() {
+    CoverPackMigration migration = coverPackMigration.orElseThrow(() ->
+        new IllegalStateException("Хранилище обложек в пакетных файлах не включено"));
     try {
-      if (Files.exists(coverPath)) {
-        return Files.readAllBytes(coverPath);
-      } else {
-        throw new FileNotFoundException("Обложка не найдена");
-      }
+      return migration.migrate();
     } catch (IOException e) {
-      throw new BookCoverException("Ошибка при чтении файла обложки");
+      throw new BookCoverException("Ошибка при переносе обложек в пакетные файлы");
     }
   }
 
   /**
-   * Экспорт списка книг в формате Excel.
+   * Освобождение места, занятого обложками, на которые больше не ссылаются книги.
+   */
+  @Override
+  public void compactCoverStorage() {
+    coverStorageCompactor.compact();
+  }
+
+  /**
+   * Экспорт списка книг в формате Excel. Книги читаются пакетами по
+   * {@code book.export.batch-size} в проекцию {@link BookView} в порядке возрастания
+   * идентификатора, а {@link SXSSFWorkbook} сбрасывает заполненные строки листа во временный
+   * файл, поэтому в памяти не накапливаются ни сущности, ни строки всего каталога.
    *
    * @return Массив байтов, представляющий Excel-файл с информацией о книгах.
    * @throws BookExportException, если произошла ошибка при выгрузке книг в Excel.
    */
   @Override
+  @Transactional(readOnly = true)
   public byte[] exportBooksToExcel() {
-
-    List<BookDto> allBooks = Stream.iterate(0, i -> i + 1)
-        .map(pageNumber -> bookRepository.findAll(PageRequest.of(pageNumber, 5)))
-        .takeWhile(page -> !page.getContent().isEmpty())
-        .flatMap(bookPage -> bookPage.stream().map(bookMapper::bookToBookDto)).toList();
-
-    if (allBooks.isEmpty()) {
-      throw new BookExportException("Нет данных для экспорта");
-    }
-
-    try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+    SXSSFWorkbook workbook = new SXSSFWorkbook(exportBatchSize);
+    try (workbook; ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
       Sheet sheet = workbook.createSheet("Books");
 
       Row headerRow = sheet.createRow(0);
@@ -223,18 +513,29 @@ public class BookServiceImpl implements BookService {
       }
 
       int rowNum = 1;
-      for (BookDto book : allBooks) {
-        Row row = sheet.createRow(rowNum++);
-        row.createCell(0).setCellValue(book.title());
-        row.createCell(1).setCellValue(book.author().authorName());
-        row.createCell(2).setCellValue(book.genre().genreName());
-        row.createCell(3).setCellValue(book.publicationYear());
-        row.createCell(4).setCellValue(book.price().doubleValue());
-        row.createCell(5).setCellValue(book.ISBN());
-        row.createCell(6).setCellValue(book.pageCount());
-        row.createCell(7).setCellValue(book.ageRating());
-        row.createCell(8).setCellValue(book.coverPath());
-        row.createCell(9).setCellValue(book.deleted());
+      Long lastBookId = null;
+      List<BookView> books;
+      do {
+        books = bookRepository.findViews(BookSpecifications.idAfter(lastBookId), 0,
+            exportBatchSize);
+        for (BookView book : books) {
+          Row row = sheet.createRow(rowNum++);
+          row.createCell(0).setCellValue(book.title());
+          row.createCell(1).setCellValue(book.authorName());
+          row.createCell(2).setCellValue(book.genreName());
+          setNumericCell(row, 3, book.publicationYear());
+          setNumericCell(row, 4, book.price());
+          row.createCell(5).setCellValue(book.ISBN());
+          setNumericCell(row, 6, book.pageCount());
+          setNumericCell(row, 7, book.ageRating());
+          row.createCell(8).setCellValue(book.coverPath());
+          row.createCell(9).setCellValue(book.deleted());
+          lastBookId = book.bookId();
+        }
+      } while (books.size() == exportBatchSize);
+
+      if (rowNum == 1) {
+        throw new BookExportException("Нет данных для экспорта");
       }
       workbook.write(outputStream);
 
@@ -242,6 +543,8 @@ public class BookServiceImpl implements BookService {
 
     } catch (IOException e) {
       throw new BookExportException("Ошибка при выгрузке книг в Excel");
+    } finally {
+      workbook.dispose();
     }
   }
 
@@ -256,7 +559,11 @@ public class BookServiceImpl implements BookService {
   @Transactional
   public BookDto saveBook(BookDto bookDto) {
     return bookMapper.bookToBookDto(bookRepository.findByISBN(bookDto.ISBN())
-        .orElseGet(() -> bookRepository.save(bookMapper.bookDtoToBook(bookDto))));
+        .orElseGet(() -> {
+          Book savedBook = bookRepository.save(bookMapper.bookDtoToBook(bookDto));
+          publishBookChanged(savedBook, BookChangeType.CREATED);
+          return savedBook;
+        }));
   }
 
   /**
@@ -280,6 +587,84 @@ public class BookServiceImpl implements BookService {
 
     bookMapper.updateBookFromDto(bookDto, existingBook);
 
-    return bookMapper.bookToBookDto(bookRepository.saveAndFlush(existingBook));
+    Book updatedBook = bookRepository.saveAndFlush(existingBook);
+    publishBookChanged(updatedBook, BookChangeType.UPDATED);
+
+    return bookMapper.bookToBookDto(updatedBook);
+  }
+
+  private Page<BookDto> findBooks(BookFilterDto filter, SortBy sortBy,
+      SortDirection sortDirection, Pageable pageable) {
+    Optional<CatalogResult> indexed = catalogIndex.find(filter, sortBy, sortDirection,
+        pageable.getOffset(), pageable.getPageSize(), true);
+    Specification<Book> filterSpec = BookSpecifications.filter(filter);
+
+    List<BookView> books = indexed
+        .map(CatalogResult::books)
+        .orElseGet(() -> bookRepository.findViews(
+            filterSpec.and(orderBy(filter, sortBy, sortDirection)),
+            pageable.getOffset(), pageable.getPageSize()));
+
+    if (books.isEmpty()) {
+      throw new EntityNotFoundException("Книги не найдены");
+    }
+
+    return PageableExecutionUtils.getPage(
+        books.stream().map(bookMapper::bookViewToBookDto).toList(), pageable,
+        () -> indexed
+            .map(CatalogResult::total)
+            .orElseGet(() -> bookCountCache.get(filter, () -> bookRepository.count(filterSpec))));
+  }
+
+  private BookFacetsDto toFacets(List<BookFacetRow> rows) {
+    long[] priceCounts = new long[priceBounds.size() + 1];
+    rows.stream()
+        .filter(row -> row.priceBucket() != null)
+        .forEach(row -> priceCounts[row.priceBucket()] += row.count());
+
+    return BookFacetsDto.builder()
+        .total(rows.stream().mapToLong(BookFacetRow::count).sum())
+        .genres(countBy(rows, BookFacetRow::genreId, BookFacetRow::genreName))
+        .authors(countBy(rows, BookFacetRow::authorId, BookFacetRow::authorName))
+        .prices(IntStream.range(0, priceCounts.length)
+            .mapToObj(bucket -> PriceBucketDto.builder()
+                .from(bucket == 0 ? null : priceBounds.get(bucket - 1))
+                .to(bucket == priceBounds.size() ? null : priceBounds.get(bucket))
+                .count(priceCounts[bucket])
+                .build())
+            .toList())
+        .build();
+  }
+
+  private static List<FacetCountDto> countBy(List<BookFacetRow> rows,
+      Function<BookFacetRow, Long> id, Function<BookFacetRow, String> name) {
+    Map<Long, FacetCountDto> counts = new HashMap<>();
+    rows.forEach(row -> counts.merge(id.apply(row),
+        new FacetCountDto(id.apply(row), name.apply(row), row.count()),
+        (current, added) -> new FacetCountDto(current.id(), current.name(),
+            current.count() + added.count())));
+
+    return counts.values().stream()
+        .sorted(Comparator.comparingLong(FacetCountDto::count).reversed()
+            .thenComparing(FacetCountDto::id))
+        .toList();
+  }
+
+  private static void setNumericCell(Row row, int column, Number value) {
+    if (value != null) {
+      row.createCell(column).setCellValue(value.doubleValue());
+    }
+  }
+
+  private static Specification<Book> orderBy(BookFilterDto filter, SortBy sortBy,
+      SortDirection sortDirection) {
+    return sortBy == SortBy.RELEVANCE ?
+        BookSpecifications.orderByRelevance(filter.title()) :
+        BookSpecifications.orderBy(sortBy, sortDirection);
+  }
+
+  private void publishBookChanged(Book book, BookChangeType changeType) {
+    eventPublisher.publishEvent(
+        new BookChangedEvent(book.getId(), book.getVersion(), changeType, false));
   }
 }
\ No newline at end of file
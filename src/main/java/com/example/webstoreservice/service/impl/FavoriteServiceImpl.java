@@ -1,5 +1,7 @@
 package com.example.webstoreservice.service.impl;
 
+import com.example.webstoreservice.model.BookSpecifications;
+import com.example.webstoreservice.model.BookView;
 import com.example.webstoreservice.model.dto.BookDto;
 import com.example.webstoreservice.model.dto.FavoriteIdDto;
 import com.example.webstoreservice.model.dto.UserDto;
@@ -79,24 +81,26 @@ public class FavoriteServiceImpl implements FavoriteService {
   }
 
   /**
-   * Получение списка избранных книг пользователя.
+   * Получение списка избранных книг пользователя без удаленных книг.
    *
    * @return Список объектов {@link BookDto} избранных книг пользователя.
    * @throws EntityNotFoundException, если в избранном пользователя нет книг.
    * @throws EntityNotFoundException, если пользователь не аутентифицирован.
    */
   @Override
+  @Transactional(readOnly = true)
   public List<BookDto> getFavoriteBooks() {
     UserDto user = userService.getAuthenticatedUser();
 
-    List<Favorite> favoriteBooks = favoriteRepository.findByUserUuid(user.userUuid());
+    List<BookView> favoriteBooks = bookRepository.findViews(
+        BookSpecifications.favoriteOf(user.userUuid()).and(BookSpecifications.notDeleted()));
 
     if (favoriteBooks.isEmpty()) {
       throw new EntityNotFoundException("В избранном нет книг");
     }
 
     return favoriteBooks.stream()
-        .map(favorite -> bookMapper.bookToBookDto(favorite.getBook()))
+        .map(bookMapper::bookViewToBookDto)
         .toList();
   }
 }
\ No newline at end of file
@@ -1,88 +1,135 @@
 package com.example.webstoreservice.service.impl;
 
+import com.example.webstoreservice.model.ParsedToken;
 import com.example.webstoreservice.service.JwtService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import java.security.Key;
-import java.util.Date;
-import java.util.function.Function;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 /**
- * Реализация сервиса {@link JwtService} для работы с JSON Web Token (JWT).
+ * Реализация сервиса {@link JwtService} для работы с JSON Web Token (JWT). Ключ подписи и парсер
+ * создаются один раз, а успешно проверенные токены кэшируются по хэшу до истечения срока их
+ * действия.
  */
 @Service
 public class JwtServiceImpl implements JwtService {
 
-  @Value("${jwt.secret}")
-  private String secretKey;
+  private final JwtParser jwtParser;
 
-  @Value("${jwt.claim.uuid}")
-  private String claimUuid;
+  private final String claimUuid;
 
-  /**
-   * Извлечение имени пользователя из JWT.
-   *
-   * @param token JWT-токен.
-   * @return Имя пользователя.
-   */
-  @Override
-  public String extractUsername(String token) {
-    return extractClaim(token, Claims::getSubject);
+  private final String claimRole;
+
+  private final long cacheTtlNanos;
+
+  private final Cache<String, ParsedToken> verifiedTokens;
+
+  public JwtServiceImpl(
+      @Value("${jwt.secret}") String secretKey,
+      @Value("${jwt.claim.uuid}") String claimUuid,
+      @Value("${jwt.claim.role}") String claimRole,
+      @Value("${jwt.cache.maximum-size}") long cacheMaximumSize,
+      @Value("${jwt.cache.ttl}") Duration cacheTtl,
+      MeterRegistry meterRegistry) {
+    this.jwtParser = Jwts
+        .parserBuilder()
+        .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey)))
+        .build();
+    this.claimUuid = claimUuid;
+    this.claimRole = claimRole;
+    this.cacheTtlNanos = cacheTtl.toNanos();
+    this.verifiedTokens = Caffeine.newBuilder()
+        .maximumSize(cacheMaximumSize)
+        .expireAfter(new TokenExpiry())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt-tokens");
   }
 
   /**
-   * Извлечение UUID из JWT.
+   * Проверка подписи JWT и извлечение из него утверждений. Повторная проверка ранее разобранного
+   * токена не выполняется, пока он находится в кэше.
    *
    * @param token JWT-токен.
-   * @return Строковое представление UUID.
+   * @return Объект {@link ParsedToken} с утверждениями токена.
    */
   @Override
-  public String extractUuid(String token) {
-    return extractClaim(token, claims -> claims.get(claimUuid, String.class));
+  public ParsedToken parseToken(String token) {
+    return verifiedTokens.get(hash(token), key -> toParsedToken(extractAllClaims(token)));
   }
 
   /**
    * Проверка валидности JWT-токена для конкретного пользователя.
    *
-   * @param token       JWT-токен.
+   * @param token       Разобранный JWT-токен.
    * @param userDetails Информация о пользователе.
    * @return true, если токен валиден, в противном случае - false.
    */
   @Override
-  public boolean isTokenValid(String token, UserDetails userDetails) {
-    final String username = extractUsername(token);
-    return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+  public boolean isTokenValid(ParsedToken token, UserDetails userDetails) {
+    return token.username().equals(userDetails.getUsername()) && !token.isExpired();
   }
 
-  private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-    final Claims claims = extractAllClaims(token);
-    return claimsResolver.apply(claims);
-  }
-
-  private boolean isTokenExpired(String token) {
-    return extractExpiration(token).before(new Date());
-  }
-
-  private Date extractExpiration(String token) {
-    return extractClaim(token, Claims::getExpiration);
+  private ParsedToken toParsedToken(Claims claims) {
+    return ParsedToken.builder()
+        .username(claims.getSubject())
+        .uuid(claims.get(claimUuid, String.class))
+        .role(claims.get(claimRole, String.class))
+        .issuedAt(claims.getIssuedAt())
+        .expiration(claims.getExpiration())
+        .build();
   }
 
   private Claims extractAllClaims(String token) {
-    return Jwts
-        .parserBuilder()
-        .setSigningKey(getSecretKey())
-        .build()
+    return jwtParser
         .parseClaimsJws(token)
         .getBody();
   }
 
-  private Key getSecretKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-    return Keys.hmacShaKeyFor(keyBytes);
+  private static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+          .digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private class TokenExpiry implements Expiry<String, ParsedToken> {
+
+    @Override
+    public long expireAfterCreate(String key, ParsedToken value, long currentTime) {
+      long untilExpiration = Duration.ofMillis(
+          value.expiration().getTime() - System.currentTimeMillis()).toNanos();
+      return Math.max(0, Math.min(cacheTtlNanos, untilExpiration));
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, ParsedToken value, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
+
+    @Override
+    public long expireAfterRead(String key, ParsedToken value, long currentTime,
+        long currentDuration) {
+      return currentDuration;
+    }
   }
-}
\ No newline at end of file
+}
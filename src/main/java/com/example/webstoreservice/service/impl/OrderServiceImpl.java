@@ -7,6 +7,7 @@ import com.example.webstoreservice.model.entity.Book;
 import com.example.webstoreservice.model.entity.Order;
 import com.example.webstoreservice.model.enums.OrderStatus;
 import com.example.webstoreservice.model.mapper.OrderMapper;
+import com.example.webstoreservice.repository.BookRepository;
 import com.example.webstoreservice.repository.OrderRepository;
 import com.example.webstoreservice.service.BookService;
 import com.example.webstoreservice.service.OrderService;
@@ -33,6 +34,8 @@ public class OrderServiceImpl implements OrderService {
 
   private final BookService bookService;
 
+  private final BookRepository bookRepository;
+
   private final OrderMapper orderMapper;
 
   private final UserService userService;
@@ -66,7 +69,9 @@ public class OrderServiceImpl implements OrderService {
   }
 
   /**
-   * Добавление книги в корзину пользователя.
+   * Добавление книги в корзину пользователя. Корзина и добавляемая книга загружаются запросами с
+   * графом сущностей, включающим автора и жанр, а не из кэша второго уровня, где связи хранятся
+   * неинициализированными прокси: корзина сериализуется уже после завершения транзакции.
    *
    * @param bookId Идентификатор книги.
    * @return Объект {@link OrderDto}, представляющий обновленную корзину пользователя.
@@ -77,14 +82,15 @@ public class OrderServiceImpl implements OrderService {
   public OrderDto addToCart(Long bookId) {
     UserDto user = userService.getAuthenticatedUser();
 
-    Book book = bookService.getBookById(bookId);
-
     Order cartOrder = orderRepository.findByUserUuidAndStatus(user.userUuid(), OrderStatus.IN_CART)
         .orElseGet(() -> orderRepository.save(Order.builder()
             .userUuid(user.userUuid())
             .status(OrderStatus.IN_CART)
             .build()));
 
+    Book book = bookRepository.findWithAuthorAndGenreById(bookId)
+        .orElseThrow(() -> new EntityNotFoundException("Книга не найдена"));
+
     if (cartOrder.getBooks().contains(book)) {
       throw new DuplicateException("Книга уже добавлена в корзину");
     }
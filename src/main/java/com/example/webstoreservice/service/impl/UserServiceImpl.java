@@ -1,10 +1,12 @@
 package com.example.webstoreservice.service.impl;
 
-import com.example.webstoreservice.feign.UserClient;
+import com.example.webstoreservice.feign.CoalescingUserClient;
+import com.example.webstoreservice.model.UserPrincipal;
 import com.example.webstoreservice.model.dto.UserDto;
 import com.example.webstoreservice.service.UserService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -15,17 +17,23 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserServiceImpl implements UserService {
 
-  private final UserClient userService;
+  private final CoalescingUserClient userService;
 
   /**
-   * Получение аутентифицированного пользователя.
+   * Получение аутентифицированного пользователя. Данные пользователя берутся из контекста
+   * безопасности, а запрос к сервису регистрации и аутентификации выполняется, только если они
+   * там отсутствуют.
    *
    * @return Объект {@link UserDto}, представляющий аутентифицированного пользователя.
    * @throws EntityNotFoundException, если пользователь не аутентифицирован.
    */
   @Override
   public UserDto getAuthenticatedUser() {
-    String username = SecurityContextHolder.getContext().getAuthentication().getName();
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+      return userPrincipal.getUserDto();
+    }
+    String username = authentication.getName();
     if (username == null || username.isEmpty()) {
       throw new EntityNotFoundException("Пользователь не аутентифицирован");
     }
@@ -0,0 +1,116 @@
+package com.example.webstoreservice.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Общая часть хранилищ обложек: содержимое копируется потоком во временный файл с
+ * одновременным вычислением SHA-256 и проверкой размера, после чего временный файл передается
+ * реализации для размещения.
+ */
+abstract class AbstractCoverStorage implements CoverStorage {
+
+  private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Path tempDirectory;
+
+  private final long maxSize;
+
+  protected AbstractCoverStorage(Path tempDirectory, long maxSize) {
+    this.tempDirectory = tempDirectory;
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public String store(InputStream content, String extension) throws IOException {
+    Path temp = createTempFile();
+    try {
+      String hash = copy(content, temp, maxSize);
+      String normalized = extension == null ? "" : extension.toLowerCase(Locale.ROOT);
+      String coverPath = hash.substring(0, 2) + "/" + hash
+          + (EXTENSION.matcher(normalized).matches() ? "." + normalized : "");
+
+      touch(coverPath);
+      if (!exists(coverPath)) {
+        putFile(coverPath, temp);
+      }
+      return coverPath;
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  @Override
+  public void put(String coverPath, InputStream content) throws IOException {
+    Path temp = createTempFile();
+    try {
+      Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+      putFile(coverPath, temp);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Размещение содержимого временного файла по указанному пути. Реализация может переместить
+   * временный файл; оставшийся файл удаляется после вызова.
+   *
+   * @param coverPath Путь обложки.
+   * @param file      Временный файл с содержимым.
+   * @throws IOException, если произошла ошибка ввода-вывода.
+   */
+  protected abstract void putFile(String coverPath, Path file) throws IOException;
+
+  /**
+   * Отметка загрузки обложки перед проверкой ее наличия, чтобы параллельное сжатие не удалило
+   * уже сохраненную обложку. Для отсутствующей обложки ничего не делает.
+   *
+   * @param coverPath Путь обложки.
+   * @throws IOException, если произошла ошибка ввода-вывода.
+   */
+  protected abstract void touch(String coverPath) throws IOException;
+
+  private Path createTempFile() throws IOException {
+    Files.createDirectories(tempDirectory);
+    return Files.createTempFile(tempDirectory, "upload-", ".tmp");
+  }
+
+  private static String copy(InputStream content, Path target, long maxSize) throws IOException {
+    MessageDigest digest = sha256();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    long size = 0;
+    try (OutputStream out = Files.newOutputStream(target)) {
+      int read;
+      while ((read = content.read(buffer)) >= 0) {
+        size += read;
+        if (size > maxSize) {
+          throw new IllegalArgumentException(
+              "Размер файла обложки превышает " + DataSize.ofBytes(maxSize).toKilobytes() + " КБ");
+        }
+        digest.update(buffer, 0, read);
+        out.write(buffer, 0, read);
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Алгоритм SHA-256 недоступен", e);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.example.webstoreservice.storage;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import org.springframework.core.io.AbstractResource;
+
+/**
+ * Ресурс, содержимое которого находится в буфере {@link ByteBuffer}: в куче, прямом или
+ * отображенном на файл. Каждый поток чтения работает с собственной копией позиции буфера, само
+ * содержимое не копируется.
+ */
+public final class ByteBufferResource extends AbstractResource {
+
+  private final ByteBuffer content;
+
+  private final String filename;
+
+  private final long lastModified;
+
+  /**
+   * Создание ресурса.
+   *
+   * @param content      Содержимое от текущей позиции до предела буфера.
+   * @param filename     Имя файла, по которому определяется тип содержимого.
+   * @param lastModified Время изменения в миллисекундах.
+   */
+  public ByteBufferResource(ByteBuffer content, String filename, long lastModified) {
+    this.content = content.asReadOnlyBuffer();
+    this.filename = filename;
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * Объем содержимого в буфере.
+   *
+   * @return Объем содержимого в байтах.
+   */
+  public int size() {
+    return content.remaining();
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    ByteBuffer buffer = content.duplicate();
+    return new InputStream() {
+
+      @Override
+      public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+      }
+
+      @Override
+      public int read(byte[] bytes, int offset, int length) {
+        if (!buffer.hasRemaining()) {
+          return length == 0 ? 0 : -1;
+        }
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, count);
+        return count;
+      }
+
+      @Override
+      public long skip(long count) {
+        int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+      }
+
+      @Override
+      public int available() {
+        return buffer.remaining();
+      }
+    };
+  }
+
+  @Override
+  public boolean exists() {
+    return true;
+  }
+
+  @Override
+  public long contentLength() {
+    return content.remaining();
+  }
+
+  @Override
+  public long lastModified() {
+    return lastModified;
+  }
+
+  @Override
+  public String getFilename() {
+    return filename;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Буфер [" + filename + "]";
+  }
+}
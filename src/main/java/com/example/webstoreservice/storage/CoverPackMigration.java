@@ -0,0 +1,117 @@
+package com.example.webstoreservice.storage;
+
+import com.example.webstoreservice.model.dto.CoverMigrationDto;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Перенос обложек из каталога {@code book.covers.upload.path} в {@link PackFileCoverStorage}.
+ * Путь обложки в пакете совпадает с путем файла относительно каталога, поэтому ссылки книг на
+ * обложки не меняются. Файл удаляется только после того, как пакет сброшен на диск, а длина и
+ * SHA-256 записи в пакете совпали с файлом, поэтому прерванный перенос можно запустить повторно.
+ * Файл, запись которого в пакете отличается от него, остается в каталоге.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "book.covers.storage", havingValue = "pack")
+public class CoverPackMigration {
+
+  private final PackFileCoverStorage packFileCoverStorage;
+
+  private final Path source;
+
+  private final Path packDirectory;
+
+  public CoverPackMigration(
+      PackFileCoverStorage packFileCoverStorage,
+      @Value("${book.covers.upload.path}") String source,
+      @Value("${book.covers.pack.path}") String packDirectory) {
+    this.packFileCoverStorage = packFileCoverStorage;
+    this.source = Path.of(source).toAbsolutePath().normalize();
+    this.packDirectory = Path.of(packDirectory).toAbsolutePath().normalize();
+  }
+
+  /**
+   * Перенос файлов обложек в пакеты. Временные файлы незавершенных загрузок и сами пакеты
+   * пропускаются. Файлы сначала дописываются в пакеты, затем пакет сбрасывается на диск, и
+   * проверенные файлы удаляются.
+   *
+   * @return Объект {@link CoverMigrationDto} с количеством и объемом перенесенных и удаленных
+   *     файлов.
+   * @throws IOException, если произошла ошибка ввода-вывода.
+   */
+  public synchronized CoverMigrationDto migrate() throws IOException {
+    if (Files.notExists(source)) {
+      return CoverMigrationDto.builder().files(0).bytes(0).build();
+    }
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(source)) {
+      files = paths.filter(Files::isRegularFile)
+          .filter(file -> !file.startsWith(packDirectory))
+          .filter(file -> !file.getFileName().toString().endsWith(".tmp"))
+          .toList();
+    }
+
+    for (Path file : files) {
+      String coverPath = coverPath(file);
+      if (!packFileCoverStorage.exists(coverPath)) {
+        try (InputStream content = Files.newInputStream(file)) {
+          packFileCoverStorage.put(coverPath, content);
+        }
+      }
+    }
+    packFileCoverStorage.sync();
+
+    long moved = 0;
+    long bytes = 0;
+    for (Path file : files) {
+      long size = Files.size(file);
+      if (isPacked(file, size)) {
+        Files.delete(file);
+        moved++;
+        bytes += size;
+      } else {
+        log.warn("Обложка {} в пакете отличается от файла, файл оставлен", coverPath(file));
+      }
+    }
+    log.info("Перенос обложек в пакеты завершен, файлов: {}, байт: {}", moved, bytes);
+    return CoverMigrationDto.builder().files(moved).bytes(bytes).build();
+  }
+
+  private String coverPath(Path file) {
+    return source.relativize(file).toString().replace(File.separatorChar, '/');
+  }
+
+  private boolean isPacked(Path file, long size) throws IOException {
+    Optional<Resource> packed = packFileCoverStorage.find(coverPath(file));
+    if (packed.isEmpty() || packed.get().contentLength() != size) {
+      return false;
+    }
+    try (InputStream original = Files.newInputStream(file);
+        InputStream copy = packed.get().getInputStream()) {
+      return MessageDigest.isEqual(digest(original), digest(copy));
+    }
+  }
+
+  private static byte[] digest(InputStream content) throws IOException {
+    MessageDigest digest = AbstractCoverStorage.sha256();
+    try (DigestInputStream in = new DigestInputStream(content, digest)) {
+      in.transferTo(OutputStream.nullOutputStream());
+    }
+    return digest.digest();
+  }
+}
@@ -0,0 +1,67 @@
+package com.example.webstoreservice.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Predicate;
+import org.springframework.core.io.Resource;
+
+/**
+ * Хранилище обложек книг и их уменьшенных вариантов. Обложка идентифицируется путем вида
+ * {@code <первые два символа хэша>/<SHA-256 содержимого>.<расширение>}, который хранится в
+ * книге и не зависит от способа хранения. Реализация выбирается настройкой
+ * {@code book.covers.storage}: {@link DirectoryCoverStorage} хранит каждую обложку отдельным
+ * файлом, {@link PackFileCoverStorage} дописывает обложки в пакетные файлы.
+ */
+public interface CoverStorage {
+
+  /**
+   * Сохранение обложки с адресацией по содержимому. Одинаковые изображения хранятся один раз.
+   *
+   * @param content   Поток с содержимым обложки.
+   * @param extension Расширение исходного файла; сохраняется, если состоит из латинских букв и
+   *                  цифр.
+   * @return Путь обложки.
+   * @throws IllegalArgumentException, если размер обложки превышает
+   *                                   {@code book.covers.max-size}.
+   * @throws IOException,              если произошла ошибка ввода-вывода.
+   */
+  String store(InputStream content, String extension) throws IOException;
+
+  /**
+   * Сохранение содержимого по заданному пути с заменой прежнего, например уменьшенного варианта
+   * обложки.
+   *
+   * @param coverPath Путь обложки.
+   * @param content   Поток с содержимым.
+   * @throws IOException, если произошла ошибка ввода-вывода.
+   */
+  void put(String coverPath, InputStream content) throws IOException;
+
+  /**
+   * Получение обложки.
+   *
+   * @param coverPath Путь обложки.
+   * @return Объект {@link Resource} с обложкой или пустой {@link Optional}, если обложки нет.
+   */
+  Optional<Resource> find(String coverPath);
+
+  /**
+   * Проверка наличия обложки.
+   *
+   * @param coverPath Путь обложки.
+   * @return true, если обложка есть в хранилище, в противном случае - false.
+   */
+  boolean exists(String coverPath);
+
+  /**
+   * Освобождение места, занятого обложками, на которые больше не ссылаются книги. Обложки,
+   * сохраненные или повторно загруженные после начала сжатия, не удаляются.
+   *
+   * @param live   Проверка, что обложка с указанным путем используется.
+   * @param before Время начала сжатия.
+   * @throws IOException, если произошла ошибка ввода-вывода.
+   */
+  void compact(Predicate<String> live, Instant before) throws IOException;
+}
@@ -0,0 +1,58 @@
+package com.example.webstoreservice.storage;
+
+import com.example.commoncode.exception.BookCoverException;
+import com.example.webstoreservice.repository.BookRepository;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодическое сжатие {@link CoverStorage} по расписанию {@code book.covers.compaction.cron}.
+ * Удаляются только обложки с адресацией по содержимому и их варианты, на которые не ссылается ни
+ * одна книга; файлы, сохраненные до перехода на адресацию по содержимому, не затрагиваются.
+ * <p>
+ * Обложка сохраняется в хранилище до фиксации транзакции, которая записывает ее путь в книгу,
+ * поэтому на момент чтения путей ссылка на новую обложку может быть еще не видна. Обложки,
+ * сохраненные или загруженные повторно позже чем за {@code book.covers.compaction.grace-period}
+ * до начала сжатия, не удаляются.
+ */
+@Component
+@RequiredArgsConstructor
+public class CoverStorageCompactor {
+
+  private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{2}/[0-9a-f]{64}[^/]*");
+
+  private final CoverStorage coverStorage;
+
+  private final CoverVariantPipeline coverVariantPipeline;
+
+  private final BookRepository bookRepository;
+
+  @Value("${book.covers.compaction.grace-period}")
+  private Duration gracePeriod;
+
+  /**
+   * Сжатие хранилища обложек.
+   *
+   * @throws BookCoverException, если произошла ошибка при сжатии хранилища.
+   */
+  @Scheduled(cron = "${book.covers.compaction.cron}")
+  public synchronized void compact() {
+    Instant startedAt = Instant.now();
+    Predicate<String> referenced = coverVariantPipeline.owners(bookRepository.findCoverPaths());
+    try {
+      coverStorage.compact(
+          coverPath -> !CONTENT_ADDRESSED.matcher(coverPath).matches()
+              || referenced.test(coverPath),
+          startedAt.minus(gracePeriod));
+    } catch (IOException e) {
+      throw new BookCoverException("Ошибка при сжатии хранилища обложек");
+    }
+  }
+}
@@ -0,0 +1,321 @@
+package com.example.webstoreservice.storage;
+
+import com.example.commoncode.exception.BookCoverException;
+import com.example.webstoreservice.cache.BookCoverCache;
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.entity.Book;
+import com.example.webstoreservice.model.enums.BookChangeType;
+import com.example.webstoreservice.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Построение уменьшенных вариантов обложек средствами ImageIO. Варианты задаются настройкой
+ * {@code book.covers.variants.sizes} в виде пар {@code название:ширина} и сохраняются в
+ * {@link CoverStorage} рядом с исходной обложкой под именем {@code <хэш>-<название>}. Так как
+ * имя исходной обложки определяется ее содержимым, варианты одинаковых изображений строятся
+ * один раз. Если исходная обложка не шире варианта, вместо него сохраняется пустая запись -
+ * отметка о том, что для варианта отдается исходная обложка; так обложка не декодируется заново
+ * при каждом изменении книги. Размеры изображения читаются из заголовка до декодирования, и
+ * обложки больше {@code book.covers.variants.max-pixels} пикселей не декодируются.
+ * <p>
+ * Задачи выполняются в пуле потоков с ограниченной очередью; при переполнении очереди задача
+ * отбрасывается, и до повторного построения отдается исходная обложка.
+ */
+@Slf4j
+@Component
+public class CoverVariantPipeline {
+
+  private static final String FALLBACK_FORMAT = "png";
+
+  private static final byte[] USE_ORIGINAL = new byte[0];
+
+  private final CoverStorage coverStorage;
+
+  private final BookRepository bookRepository;
+
+  private final BookCoverCache bookCoverCache;
+
+  private final Map<String, Integer> widths;
+
+  private final long maxPixels;
+
+  private final ThreadPoolExecutor executor;
+
+  private final Timer timer;
+
+  public CoverVariantPipeline(
+      CoverStorage coverStorage,
+      BookRepository bookRepository,
+      BookCoverCache bookCoverCache,
+      @Value("${book.covers.variants.sizes}") List<String> sizes,
+      @Value("${book.covers.variants.threads}") int threads,
+      @Value("${book.covers.variants.queue-capacity}") int queueCapacity,
+      @Value("${book.covers.variants.max-pixels}") long maxPixels,
+      MeterRegistry meterRegistry) {
+    this.coverStorage = coverStorage;
+    this.bookRepository = bookRepository;
+    this.bookCoverCache = bookCoverCache;
+    this.widths = parseSizes(sizes);
+    this.maxPixels = maxPixels;
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("cover-variants-"));
+    ExecutorServiceMetrics.monitor(meterRegistry, executor, "cover-variants");
+    this.timer = Timer.builder("book.cover.variants")
+        .description("Время построения вариантов одной обложки")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Проверка, что вариант с указанным названием настроен.
+   *
+   * @param variant Название варианта.
+   * @return true, если вариант настроен, в противном случае - false.
+   */
+  public boolean supports(String variant) {
+    return widths.containsKey(variant);
+  }
+
+  /**
+   * Получение готового варианта обложки.
+   *
+   * @param coverPath Путь исходной обложки.
+   * @param variant   Название варианта.
+   * @return Объект {@link Resource} с вариантом или пустой {@link Optional}, если вариант еще не
+   *     построен или для него отдается исходная обложка.
+   * @throws BookCoverException, если не удалось определить размер варианта.
+   */
+  public Optional<Resource> find(String coverPath, String variant) {
+    return coverStorage.find(variantPath(coverPath, variant))
+        .filter(CoverVariantPipeline::isBuilt);
+  }
+
+  /**
+   * Проверка, что вариант обложки построен и отличается от исходной обложки.
+   *
+   * @param coverPath Путь исходной обложки.
+   * @param variant   Название варианта.
+   * @return true, если уменьшенный вариант есть в хранилище, в противном случае - false.
+   * @throws BookCoverException, если не удалось определить размер варианта.
+   */
+  public boolean exists(String coverPath, String variant) {
+    return find(coverPath, variant).isPresent();
+  }
+
+  /**
+   * Проверка, что путь в хранилище принадлежит одной из указанных обложек или ее варианту.
+   *
+   * @param coverPaths Пути исходных обложек.
+   * @return Проверка пути в хранилище.
+   */
+  public Predicate<String> owners(Collection<String> coverPaths) {
+    Set<String> names = coverPaths.stream()
+        .map(FilenameUtils::removeExtension)
+        .collect(Collectors.toSet());
+    return path -> {
+      String name = FilenameUtils.removeExtension(path);
+      int separator = name.lastIndexOf('-');
+      return names.contains(name)
+          || separator > 0 && names.contains(name.substring(0, separator));
+    };
+  }
+
+  /**
+   * Постановка в очередь построения вариантов новой обложки после фиксации транзакции.
+   * Изменения с других узлов пропускаются: варианты строит узел, сохранивший обложку.
+   *
+   * @param event Событие изменения книги.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    if (event.changeType() != BookChangeType.COVER_CHANGED || event.remote()) {
+      return;
+    }
+    submit(() -> bookRepository.findById(event.bookId())
+        .map(Book::getCoverPath)
+        .ifPresent(coverPath -> {
+          generate(coverPath, false);
+          bookCoverCache.evict(event.bookId());
+        }));
+  }
+
+  /**
+   * Перестроение вариантов всех обложек в фоне. Задача занимает один поток пула и обрабатывает
+   * обложки последовательно.
+   */
+  public void regenerateAll() {
+    submit(() -> {
+      List<String> coverPaths = bookRepository.findCoverPaths();
+      log.info("Перестроение вариантов обложек, обложек: {}", coverPaths.size());
+      coverPaths.forEach(coverPath -> generate(coverPath, true));
+      bookCoverCache.evictAll();
+      log.info("Перестроение вариантов обложек завершено");
+    });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void submit(Runnable task) {
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      log.warn("Очередь построения вариантов обложек переполнена, задача отброшена");
+    }
+  }
+
+  private void generate(String coverPath, boolean force) {
+    timer.record(() -> {
+      try {
+        Optional<Resource> cover = coverStorage.find(coverPath);
+        if (cover.isEmpty()) {
+          log.warn("Обложка {} отсутствует в хранилище", coverPath);
+          return;
+        }
+        BufferedImage original;
+        try (InputStream content = cover.get().getInputStream()) {
+          original = read(content, coverPath);
+        }
+        if (original == null) {
+          return;
+        }
+        for (Map.Entry<String, Integer> variant : widths.entrySet()) {
+          String target = variantPath(coverPath, variant.getKey());
+          if (!force && coverStorage.exists(target)) {
+            continue;
+          }
+          if (original.getWidth() > variant.getValue()) {
+            write(resize(original, variant.getValue(), format(coverPath)), format(coverPath),
+                target);
+          } else {
+            coverStorage.put(target, new ByteArrayInputStream(USE_ORIGINAL));
+          }
+        }
+      } catch (IOException e) {
+        log.warn("Не удалось построить варианты обложки {}", coverPath, e);
+      }
+    });
+  }
+
+  private BufferedImage read(InputStream content, String coverPath) throws IOException {
+    try (ImageInputStream input = ImageIO.createImageInputStream(content)) {
+      Iterator<ImageReader> readers = input == null ? Collections.emptyIterator() :
+          ImageIO.getImageReaders(input);
+      if (!readers.hasNext()) {
+        log.warn("Формат обложки {} не поддерживается", coverPath);
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if ((long) width * height > maxPixels) {
+          log.warn("Обложка {} размером {}x{} превышает ограничение в {} пикселей", coverPath,
+              width, height, maxPixels);
+          return null;
+        }
+        return reader.read(0);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private static BufferedImage resize(BufferedImage original, int width, String format) {
+    int type = "png".equals(format) || "gif".equals(format) ?
+        BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+    BufferedImage current = original;
+    int currentWidth = original.getWidth();
+    int currentHeight = original.getHeight();
+    do {
+      currentWidth = Math.max(width, currentWidth / 2);
+      currentHeight = Math.max(1, (int) Math.round(
+          (double) original.getHeight() * currentWidth / original.getWidth()));
+      BufferedImage scaled = new BufferedImage(currentWidth, currentHeight, type);
+      Graphics2D graphics = scaled.createGraphics();
+      try {
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+            RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+      } finally {
+        graphics.dispose();
+      }
+      current = scaled;
+    } while (currentWidth > width);
+    return current;
+  }
+
+  private void write(BufferedImage image, String format, String target) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    if (!ImageIO.write(image, format, out)) {
+      throw new IOException("Нет средства записи для формата " + format);
+    }
+    coverStorage.put(target, new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  private static boolean isBuilt(Resource variant) {
+    try {
+      return variant.contentLength() > 0;
+    } catch (IOException e) {
+      throw new BookCoverException("Ошибка при чтении файла обложки");
+    }
+  }
+
+  private static String variantPath(String coverPath, String variant) {
+    return FilenameUtils.removeExtension(coverPath) + "-" + variant + "." + format(coverPath);
+  }
+
+  private static String format(String coverPath) {
+    String extension = FilenameUtils.getExtension(coverPath).toLowerCase(Locale.ROOT);
+    return ImageIO.getImageWritersBySuffix(extension).hasNext() ? extension : FALLBACK_FORMAT;
+  }
+
+  private static Map<String, Integer> parseSizes(List<String> sizes) {
+    Map<String, Integer> widths = new LinkedHashMap<>();
+    for (String size : sizes) {
+      String[] parts = size.strip().split(":");
+      if (parts.length != 2) {
+        throw new IllegalArgumentException("Некорректный вариант обложки: " + size);
+      }
+      widths.put(parts[0].strip(), Integer.parseInt(parts[1].strip()));
+    }
+    return Collections.unmodifiableMap(widths);
+  }
+}
@@ -0,0 +1,106 @@
+package com.example.webstoreservice.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Хранилище обложек в каталоге {@code book.covers.upload.path}: каждая обложка хранится
+ * отдельным файлом в подкаталоге из первых двух символов хэша. Абсолютные пути, сохраненные до
+ * перехода на адресацию по содержимому, разрешаются без изменений.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "book.covers.storage", havingValue = "directory",
+    matchIfMissing = true)
+public class DirectoryCoverStorage extends AbstractCoverStorage {
+
+  private final Path root;
+
+  public DirectoryCoverStorage(
+      @Value("${book.covers.upload.path}") String root,
+      @Value("${book.covers.max-size}") DataSize maxSize) {
+    super(Path.of(root), maxSize.toBytes());
+    this.root = Path.of(root);
+  }
+
+  @Override
+  public Optional<Resource> find(String coverPath) {
+    Path file = root.resolve(coverPath);
+    return Files.isReadable(file) ? Optional.of(new FileSystemResource(file)) : Optional.empty();
+  }
+
+  @Override
+  public boolean exists(String coverPath) {
+    return Files.exists(root.resolve(coverPath));
+  }
+
+  /**
+   * Удаление файлов неиспользуемых обложек, измененных до начала сжатия.
+   *
+   * @param live   Проверка, что обложка с указанным путем используется.
+   * @param before Время начала сжатия.
+   * @throws IOException, если произошла ошибка ввода-вывода.
+   */
+  @Override
+  public void compact(Predicate<String> live, Instant before) throws IOException {
+    if (Files.notExists(root)) {
+      return;
+    }
+    List<Path> files;
+    try (Stream<Path> paths = Files.walk(root)) {
+      files = paths.filter(Files::isRegularFile).toList();
+    }
+    int deleted = 0;
+    for (Path file : files) {
+      String coverPath = root.relativize(file).toString().replace(File.separatorChar, '/');
+      if (!live.test(coverPath)
+          && Files.getLastModifiedTime(file).toInstant().isBefore(before)
+          && Files.deleteIfExists(file)) {
+        deleted++;
+      }
+    }
+    log.info("Сжатие хранилища обложек завершено, удалено файлов: {}", deleted);
+  }
+
+  /**
+   * Атомарное перемещение временного файла на место обложки. Путь обложки определяется ее
+   * содержимым, поэтому файл, уже размещенный параллельной загрузкой, совпадает с перемещаемым.
+   * Если файловая система не заменяет существующий файл при атомарном перемещении и выбрасывает
+   * {@link FileAlreadyExistsException}, обложка считается сохраненной.
+   */
+  @Override
+  protected void putFile(String coverPath, Path file) throws IOException {
+    Path target = root.resolve(coverPath);
+    Files.createDirectories(target.getParent());
+    try {
+      Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (FileAlreadyExistsException e) {
+      log.debug("Обложка {} уже сохранена", coverPath);
+    }
+  }
+
+  @Override
+  protected void touch(String coverPath) throws IOException {
+    Path file = root.resolve(coverPath);
+    if (Files.exists(file)) {
+      Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+    }
+  }
+}
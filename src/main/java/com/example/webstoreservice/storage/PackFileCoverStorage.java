@@ -0,0 +1,512 @@
+package com.example.webstoreservice.storage;
+
+import com.example.commoncode.exception.BookCoverException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Хранилище обложек в пакетных файлах каталога {@code book.covers.pack.path}. Обложки только
+ * дописываются в конец текущего пакета; при достижении {@code book.covers.pack.segment-size}
+ * начинается новый пакет. Запись пакета состоит из заголовка (признак записи, время сохранения,
+ * длина пути, длина содержимого), пути обложки в UTF-8 и содержимого.
+ * <p>
+ * Положение последней записи каждого пути хранится в индексе в памяти, который при старте
+ * восстанавливается чтением заголовков пакетов; недописанная запись в конце пакета отбрасывается.
+ * Закрытый для записи пакет один раз отображается в память только для чтения, и обложка из него
+ * отдается срезом отображенного буфера без копирования содержимого; обложка из текущего пакета
+ * читается из файла в буфер. Замененные и неиспользуемые обложки удаляются при сжатии, которое
+ * переписывает живые записи пакетов с долей мусора не меньше {@code book.covers.pack.garbage-ratio}
+ * в текущий пакет и удаляет прежние пакеты.
+ * <p>
+ * Если включена настройка {@code book.covers.pack.sync-on-write}, каждая обложка сбрасывается на
+ * диск до завершения сохранения; сброс выполняется после снятия блокировки записи, поэтому
+ * конкурентные записи не ожидают чужих сбросов, а одновременные сбросы одного файла объединяются
+ * файловой системой. Без этой настройки пакет сбрасывается на диск при закрытии для записи, и
+ * обложки, сохраненные после последнего сброса, могут быть потеряны при сбое операционной системы,
+ * но не при аварийном завершении процесса. Переписанные при сжатии записи сбрасываются на диск до
+ * удаления прежнего пакета независимо от настройки.
+ * <p>
+ * Индекс и текущий пакет принадлежат одному процессу, поэтому хранилище предназначено для
+ * развертывания из одного узла: каталог пакетов может использовать только один экземпляр
+ * приложения. При открытии берется исключительная блокировка файла {@code pack.lock} в каталоге;
+ * если она уже занята, хранилище не создается. Хранилище также не создается при включенной
+ * настройке {@code book.change.kafka.enabled}, которая означает развертывание из нескольких узлов.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "book.covers.storage", havingValue = "pack")
+public class PackFileCoverStorage extends AbstractCoverStorage {
+
+  private static final int MAGIC = 0x434F5652;
+
+  private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES;
+
+  private static final int MAX_PATH_LENGTH = 1024;
+
+  private static final Pattern SEGMENT_NAME = Pattern.compile("pack-(\\d+)\\.dat");
+
+  private static final int FIND_ATTEMPTS = 3;
+
+  private static final String LOCK_FILE = "pack.lock";
+
+  private final Path directory;
+
+  private final long segmentSize;
+
+  private final double garbageRatio;
+
+  private final boolean syncOnWrite;
+
+  private final ConcurrentMap<String, Location> index = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<String, Long> touched = new ConcurrentHashMap<>();
+
+  private final ConcurrentNavigableMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+
+  private final Object writeLock = new Object();
+
+  private FileChannel lock;
+
+  private Segment active;
+
+  public PackFileCoverStorage(
+      @Value("${book.covers.pack.path}") String directory,
+      @Value("${book.covers.pack.segment-size}") DataSize segmentSize,
+      @Value("${book.covers.pack.garbage-ratio}") double garbageRatio,
+      @Value("${book.covers.pack.sync-on-write}") boolean syncOnWrite,
+      @Value("${book.covers.max-size}") DataSize maxSize,
+      @Value("${book.change.kafka.enabled}") boolean multiNode,
+      MeterRegistry meterRegistry) throws IOException {
+    super(Path.of(directory), maxSize.toBytes());
+    if (multiNode) {
+      throw new IllegalStateException("Хранилище обложек в пакетных файлах поддерживает только "
+          + "один узел, настройка book.change.kafka.enabled должна быть выключена");
+    }
+    this.directory = Path.of(directory);
+    this.segmentSize = Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+    this.garbageRatio = garbageRatio;
+    this.syncOnWrite = syncOnWrite;
+    open();
+    Gauge.builder("book.cover-pack.segments", segments, Map::size)
+        .description("Количество пакетных файлов обложек")
+        .register(meterRegistry);
+    Gauge.builder("book.cover-pack.covers", index, Map::size)
+        .description("Количество обложек в пакетных файлах")
+        .register(meterRegistry);
+    Gauge.builder("book.cover-pack.bytes", this, PackFileCoverStorage::size)
+        .description("Суммарный объем пакетных файлов обложек в байтах")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Получение обложки в виде среза отображенного в память закрытого пакета или содержимого,
+   * прочитанного из текущего пакета.
+   *
+   * @param coverPath Путь обложки.
+   * @return Объект {@link ByteBufferResource} или пустой {@link Optional}, если обложки нет.
+   * @throws BookCoverException, если обложку не удалось прочитать из пакета.
+   */
+  @Override
+  public Optional<Resource> find(String coverPath) {
+    for (int attempt = 0; attempt < FIND_ATTEMPTS; attempt++) {
+      Location location = index.get(coverPath);
+      if (location == null) {
+        return Optional.empty();
+      }
+      Segment segment = segments.get(location.segment());
+      if (segment == null) {
+        continue;
+      }
+      try {
+        ByteBuffer content = segment.slice(location.contentOffset(), location.length());
+        return Optional.of(new ByteBufferResource(content, FilenameUtils.getName(coverPath),
+            location.createdAt()));
+      } catch (IOException e) {
+        if (segments.containsKey(location.segment())) {
+          throw new BookCoverException("Ошибка при чтении файла обложки");
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public boolean exists(String coverPath) {
+    return index.containsKey(coverPath);
+  }
+
+  /**
+   * Сжатие пакетов. Текущий пакет закрывается для записи, затем каждый закрытый пакет, доля
+   * замененных и неиспользуемых записей в котором не меньше {@code book.covers.pack.garbage-ratio},
+   * переписывается: живые записи дописываются в текущий пакет, после чего прежний пакет
+   * удаляется. Чтения, начатые до удаления, продолжают работать с отображением удаленного файла.
+   *
+   * @param live   Проверка, что обложка с указанным путем используется.
+   * @param before Время начала сжатия.
+   * @throws IOException, если произошла ошибка ввода-вывода.
+   */
+  @Override
+  public void compact(Predicate<String> live, Instant before) throws IOException {
+    List<Segment> sealed;
+    synchronized (writeLock) {
+      if (active.size() > 0) {
+        roll();
+      }
+      sealed = List.copyOf(segments.headMap(active.id()).values());
+    }
+
+    long reclaimed = 0;
+    for (Segment segment : sealed) {
+      List<Record> records = new ArrayList<>();
+      scan(segment, (coverPath, location) -> records.add(new Record(coverPath, location)));
+      long liveBytes = records.stream()
+          .filter(record -> isLive(record, live, before))
+          .mapToLong(Record::size)
+          .sum();
+      long size = segment.size();
+      if (size > 0 && 1 - (double) liveBytes / size < garbageRatio) {
+        continue;
+      }
+
+      for (Record record : records) {
+        if (isLive(record, live, before)) {
+          synchronized (writeLock) {
+            if (record.location().equals(index.get(record.coverPath()))) {
+              index.put(record.coverPath(), write(record.coverPath(),
+                  record.location().createdAt(), segment.channel(),
+                  record.location().contentOffset(), record.location().length()));
+            }
+          }
+        } else {
+          index.remove(record.coverPath(), record.location());
+        }
+      }
+      sync();
+      segments.remove(segment.id());
+      segment.close();
+      Files.deleteIfExists(segment.path());
+      reclaimed += size - liveBytes;
+    }
+    touched.values().removeIf(time -> time < before.toEpochMilli());
+    log.info("Сжатие пакетов обложек завершено, освобождено байт: {}", reclaimed);
+  }
+
+  /**
+   * Сброс текущего пакета на диск. Закрытые для записи пакеты сброшены на диск при закрытии.
+   *
+   * @throws IOException, если произошла ошибка ввода-вывода.
+   */
+  public void sync() throws IOException {
+    synchronized (writeLock) {
+      active.channel().force(false);
+    }
+  }
+
+  /**
+   * Суммарный объем пакетных файлов.
+   *
+   * @return Объем в байтах.
+   */
+  public long size() {
+    return segments.values().stream().mapToLong(Segment::size).sum();
+  }
+
+  @PreDestroy
+  void close() throws IOException {
+    for (Segment segment : segments.values()) {
+      segment.close();
+    }
+    lock.close();
+  }
+
+  @Override
+  protected void putFile(String coverPath, Path file) throws IOException {
+    Location location;
+    try (FileChannel content = FileChannel.open(file, StandardOpenOption.READ)) {
+      synchronized (writeLock) {
+        location = write(coverPath, System.currentTimeMillis(), content, 0, content.size());
+        index.put(coverPath, location);
+      }
+    }
+    if (syncOnWrite) {
+      force(location.segment());
+    }
+  }
+
+  @Override
+  protected void touch(String coverPath) {
+    touched.put(coverPath, System.currentTimeMillis());
+  }
+
+  private void open() throws IOException {
+    Files.createDirectories(directory);
+    lock = lock(directory.resolve(LOCK_FILE));
+    try {
+      load();
+    } catch (IOException | RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  private static FileChannel lock(Path file) throws IOException {
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE);
+    FileLock fileLock;
+    try {
+      fileLock = channel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      fileLock = null;
+    }
+    if (fileLock == null) {
+      channel.close();
+      throw new IllegalStateException(
+          "Каталог пакетов обложек уже используется другим экземпляром: " + file.getParent());
+    }
+    return channel;
+  }
+
+  private void load() throws IOException {
+    List<Path> files;
+    try (Stream<Path> paths = Files.list(directory)) {
+      files = paths.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+          .toList();
+    }
+    for (Path file : files) {
+      Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+      matcher.matches();
+      int id = Integer.parseInt(matcher.group(1));
+      segments.put(id, Segment.open(id, file));
+    }
+    for (Segment segment : segments.values()) {
+      long valid = scan(segment, index::put);
+      if (valid < segment.size()) {
+        log.warn("Пакет обложек {} усечен до последней целой записи: {} из {} байт",
+            segment.path(), valid, segment.size());
+        segment.channel().truncate(valid);
+      }
+    }
+    active = segments.isEmpty() ? createSegment(1) : segments.lastEntry().getValue();
+    for (Segment segment : segments.headMap(active.id()).values()) {
+      segment.seal();
+    }
+    log.info("Открыто хранилище обложек в пакетах: пакетов {}, обложек {}", segments.size(),
+        index.size());
+  }
+
+  private boolean isLive(Record record, Predicate<String> live, Instant before) {
+    Location location = record.location();
+    return location.equals(index.get(record.coverPath()))
+        && (live.test(record.coverPath())
+        || Math.max(location.createdAt(), touched.getOrDefault(record.coverPath(), 0L))
+        >= before.toEpochMilli());
+  }
+
+  private Location write(String coverPath, long createdAt, FileChannel content, long position,
+      long length) throws IOException {
+    byte[] path = coverPath.getBytes(StandardCharsets.UTF_8);
+    if (path.length > MAX_PATH_LENGTH) {
+      throw new IllegalArgumentException("Слишком длинный путь обложки: " + coverPath);
+    }
+    long recordSize = HEADER_SIZE + path.length + length;
+    if (active.size() > 0 && active.size() + recordSize > segmentSize) {
+      roll();
+    }
+
+    FileChannel channel = active.channel();
+    long offset = channel.size();
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + path.length)
+        .putInt(MAGIC)
+        .putLong(createdAt)
+        .putInt(path.length)
+        .putLong(length)
+        .put(path)
+        .flip();
+    while (header.hasRemaining()) {
+      channel.write(header, offset + header.position());
+    }
+    channel.position(offset + header.capacity());
+    long transferred = 0;
+    while (transferred < length) {
+      transferred += content.transferTo(position + transferred, length - transferred, channel);
+    }
+    return new Location(active.id(), offset + header.capacity(), Math.toIntExact(length),
+        createdAt);
+  }
+
+  private void force(int id) throws IOException {
+    Segment segment = segments.get(id);
+    try {
+      if (segment != null) {
+        segment.channel().force(false);
+      }
+    } catch (ClosedChannelException e) {
+      if (segments.containsKey(id)) {
+        throw e;
+      }
+    }
+  }
+
+  private void roll() throws IOException {
+    Segment sealed = active;
+    active = createSegment(sealed.id() + 1);
+    sealed.seal();
+  }
+
+  private Segment createSegment(int id) throws IOException {
+    Segment segment = Segment.open(id, directory.resolve(String.format("pack-%06d.dat", id)));
+    segments.put(id, segment);
+    return segment;
+  }
+
+  private static long scan(Segment segment, BiConsumer<String, Location> consumer)
+      throws IOException {
+    FileChannel channel = segment.channel();
+    long size = channel.size();
+    long offset = 0;
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (offset + HEADER_SIZE <= size) {
+      header.clear();
+      readFully(channel, header, offset);
+      header.flip();
+      int magic = header.getInt();
+      long createdAt = header.getLong();
+      int pathLength = header.getInt();
+      long length = header.getLong();
+      long contentOffset = offset + HEADER_SIZE + pathLength;
+      if (magic != MAGIC || pathLength <= 0 || pathLength > MAX_PATH_LENGTH || length < 0
+          || length > Integer.MAX_VALUE || contentOffset + length > size) {
+        break;
+      }
+      ByteBuffer path = ByteBuffer.allocate(pathLength);
+      readFully(channel, path, offset + HEADER_SIZE);
+      consumer.accept(new String(path.array(), StandardCharsets.UTF_8),
+          new Location(segment.id(), contentOffset, (int) length, createdAt));
+      offset = contentOffset + length;
+    }
+    return offset;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long offset)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new IOException("Неожиданный конец пакета обложек");
+      }
+    }
+  }
+
+  /**
+   * Положение содержимого обложки в пакете.
+   */
+  private record Location(int segment, long contentOffset, int length, long createdAt) {
+
+  }
+
+  private record Record(String coverPath, Location location) {
+
+    long size() {
+      return HEADER_SIZE + coverPath.getBytes(StandardCharsets.UTF_8).length
+          + (long) location.length();
+    }
+  }
+
+  /**
+   * Пакетный файл. После закрытия для записи файл больше не растет и отображается в память один
+   * раз; до этого записи читаются из канала.
+   */
+  private static final class Segment {
+
+    private final int id;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private volatile MappedByteBuffer mapped;
+
+    private Segment(int id, Path path, FileChannel channel) {
+      this.id = id;
+      this.path = path;
+      this.channel = channel;
+    }
+
+    static Segment open(int id, Path path) throws IOException {
+      return new Segment(id, path, FileChannel.open(path, StandardOpenOption.CREATE,
+          StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    int id() {
+      return id;
+    }
+
+    Path path() {
+      return path;
+    }
+
+    FileChannel channel() {
+      return channel;
+    }
+
+    long size() {
+      try {
+        return channel.size();
+      } catch (IOException e) {
+        return 0;
+      }
+    }
+
+    void seal() throws IOException {
+      channel.force(false);
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    ByteBuffer slice(long offset, int length) throws IOException {
+      MappedByteBuffer current = mapped;
+      if (current != null) {
+        return current.slice(Math.toIntExact(offset), length);
+      }
+      ByteBuffer content = ByteBuffer.allocate(length);
+      readFully(channel, content, offset);
+      return content.flip();
+    }
+
+    void close() throws IOException {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,5 @@
+CREATE INDEX idx_books_title_book_id ON books (title, book_id) WHERE deleted = false;
+
+CREATE INDEX idx_books_price_book_id ON books (price, book_id) WHERE deleted = false;
+
+CREATE INDEX idx_books_publication_year_book_id ON books (publication_year, book_id) WHERE deleted = false;
@@ -0,0 +1,5 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_books_title_fts ON books USING gin (to_tsvector('russian', title)) WHERE deleted = false;
+
+CREATE INDEX idx_books_title_trgm ON books USING gin (lower(title) gin_trgm_ops) WHERE deleted = false;
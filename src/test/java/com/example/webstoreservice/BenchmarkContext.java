@@ -0,0 +1,72 @@
+package com.example.webstoreservice;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Приложение для бенчмарков, работающих с базой данных. Как и {@link IntegrationTestBase},
+ * поднимает PostgreSQL в Testcontainers и запускает приложение с профилем test, но без вывода
+ * SQL-запросов в журнал, чтобы он не искажал результаты измерений.
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+  private static final String[] TITLE_WORDS = {"Мастер", "Маргарита", "Война", "Мир",
+      "Преступление", "Наказание", "Идиот", "Бесы", "Отцы", "Дети"};
+
+  private final PostgreSQLContainer<?> container = new PostgreSQLContainer<>("postgres:16");
+
+  private final ConfigurableApplicationContext context;
+
+  public BenchmarkContext(String... properties) {
+    container.start();
+    context = new SpringApplicationBuilder(WebstoreServiceApplication.class)
+        .profiles("test")
+        .properties(
+            "spring.datasource.url=" + container.getJdbcUrl(),
+            "server.port=0",
+            "spring.jpa.show-sql=false",
+            "logging.level.root=WARN")
+        .properties(properties)
+        .run();
+  }
+
+  /**
+   * Получение компонента приложения.
+   *
+   * @param type Тип компонента.
+   * @return Компонент приложения.
+   */
+  public <T> T getBean(Class<T> type) {
+    return context.getBean(type);
+  }
+
+  /**
+   * Заполнение каталога книгами одного автора и жанра. Названия составлены из двух слов
+   * небольшого словаря и номера книги, поэтому каждое слово встречается в десятой части
+   * названий, а номер - в одном.
+   *
+   * @param books Количество книг.
+   */
+  public void generateBooks(int books) {
+    JdbcTemplate jdbcTemplate = getBean(JdbcTemplate.class);
+    String words = "(ARRAY['" + String.join("','", TITLE_WORDS) + "'])";
+    jdbcTemplate.update("INSERT INTO authors (author_name) VALUES ('Автор')");
+    jdbcTemplate.update("INSERT INTO genres (genre_name) VALUES ('Жанр')");
+    jdbcTemplate.update("""
+        INSERT INTO books (title, author_id, genre_id, publication_year, price, isbn, deleted)
+        SELECT %1$s[1 + g %% 10] || ' и ' || %1$s[1 + g / 10 %% 10] || ' ' || g,
+               (SELECT max(author_id) FROM authors), (SELECT max(genre_id) FROM genres),
+               1900 + g %% 120, 100 + g %% 5000 / 10.0, 'ISBN-' || g, false
+        FROM generate_series(1, ?) g
+        """.formatted(words), books);
+    jdbcTemplate.execute("VACUUM ANALYZE books");
+  }
+
+  @Override
+  public void close() {
+    context.close();
+    container.stop();
+  }
+}
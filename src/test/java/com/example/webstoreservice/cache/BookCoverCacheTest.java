@@ -0,0 +1,134 @@
+package com.example.webstoreservice.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.enums.BookChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+class BookCoverCacheTest {
+
+  private static final byte[] COVER = "cover-bytes".getBytes();
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final BookCoverCache bookCoverCache = new BookCoverCache(
+      DataSize.ofKilobytes(1), DataSize.ofBytes(COVER.length), meterRegistry);
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @TempDir
+  private Path coverDir;
+
+  @Test
+  void repeatedRequestForSameVersionIsServedFromCache() throws Exception {
+    Supplier<Resource> loader = loader("cover.png", COVER);
+
+    Resource first = bookCoverCache.get(1L, 0L, null, loader);
+    Resource second = bookCoverCache.get(1L, 0L, null, loader);
+
+    assertThat(loads).hasValue(1);
+    assertThat(second.isFile()).isFalse();
+    assertThat(second.contentLength()).isEqualTo(COVER.length);
+    assertThat(second.getFilename()).isEqualTo("cover.png");
+    assertThat(first.getInputStream().readAllBytes()).isEqualTo(COVER);
+    assertThat(second.getInputStream().readAllBytes()).isEqualTo(COVER);
+    try (InputStream in = second.getInputStream()) {
+      assertThat(in.skip(6)).isEqualTo(6);
+      assertThat(in.readAllBytes()).isEqualTo("bytes".getBytes());
+    }
+    assertThat(meterRegistry.get("book.cover-cache.bytes").gauge().value())
+        .isEqualTo(COVER.length);
+  }
+
+  @Test
+  void newVersionAndCoverChangeBypassPreviousEntry() {
+    Supplier<Resource> loader = loader("cover.png", COVER);
+    bookCoverCache.get(1L, 0L, null, loader);
+
+    bookCoverCache.get(1L, 1L, null, loader);
+    bookCoverCache.onBookChanged(new BookChangedEvent(1L, 2L, BookChangeType.COVER_CHANGED, false));
+    bookCoverCache.get(1L, 1L, null, loader);
+
+    assertThat(loads).hasValue(3);
+  }
+
+  @Test
+  void anyBookChangeEvictsCachedCover() {
+    Supplier<Resource> loader = loader("cover.png", COVER);
+    bookCoverCache.get(1L, 0L, null, loader);
+
+    bookCoverCache.onBookChanged(new BookChangedEvent(1L, 0L, BookChangeType.UPDATED, true));
+    bookCoverCache.get(1L, 0L, null, loader);
+
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void concurrentRequestsForSameCoverLoadItOnce() throws Exception {
+    Supplier<Resource> loader = loader("cover.png", COVER);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Resource> first = executor.submit(() -> bookCoverCache.get(1L, 0L, null, () -> {
+        loading.countDown();
+        await(release);
+        return loader.get();
+      }));
+      loading.await();
+      Future<Resource> second = executor.submit(() -> bookCoverCache.get(1L, 0L, null, loader));
+      release.countDown();
+
+      assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+      assertThat(loads).hasValue(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void coverLargerThanEntryLimitIsServedFromFile() throws Exception {
+    Supplier<Resource> loader = loader("large.png", "large-cover-bytes".getBytes());
+
+    Resource cover = bookCoverCache.get(1L, 0L, null, loader);
+    bookCoverCache.get(1L, 0L, null, loader);
+
+    assertThat(loads).hasValue(2);
+    assertThat(cover.isFile()).isTrue();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Supplier<Resource> loader(String filename, byte[] content) {
+    return () -> {
+      loads.incrementAndGet();
+      try {
+        return new FileSystemResource(Files.write(coverDir.resolve(filename), content));
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    };
+  }
+}
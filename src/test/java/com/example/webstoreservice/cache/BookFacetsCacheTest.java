@@ -0,0 +1,54 @@
+package com.example.webstoreservice.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.dto.BookFacetsDto;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.enums.BookChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class BookFacetsCacheTest {
+
+  private final BookFacetsCache bookFacetsCache = new BookFacetsCache(100, Duration.ofMinutes(1),
+      new SimpleMeterRegistry());
+
+  private final BookFilterDto filter = BookFilterDto.builder().build();
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void facetsLoadedDuringBookChangeAreNotServedAfterIt() {
+    BookFacetsDto stale = bookFacetsCache.get(filter, () -> {
+      bookFacetsCache.onBookChanged(
+          new BookChangedEvent(1L, 1L, BookChangeType.UPDATED, false));
+      return facets();
+    });
+
+    BookFacetsDto fresh = bookFacetsCache.get(filter, this::facets);
+
+    assertThat(fresh).isNotSameAs(stale);
+    assertThat(bookFacetsCache.get(filter, this::facets)).isSameAs(fresh);
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void coverChangeKeepsCachedFacets() {
+    BookFacetsDto cached = bookFacetsCache.get(filter, this::facets);
+
+    bookFacetsCache.onBookChanged(
+        new BookChangedEvent(1L, 1L, BookChangeType.COVER_CHANGED, false));
+
+    assertThat(bookFacetsCache.get(filter, this::facets)).isSameAs(cached);
+    assertThat(loads).hasValue(1);
+  }
+
+  private BookFacetsDto facets() {
+    loads.incrementAndGet();
+    return new BookFacetsDto(0, List.of(), List.of(), List.of());
+  }
+}
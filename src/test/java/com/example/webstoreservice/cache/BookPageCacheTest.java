@@ -0,0 +1,71 @@
+package com.example.webstoreservice.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.dto.BookDto;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.enums.BookChangeType;
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+class BookPageCacheTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final BookPageCache bookPageCache = new BookPageCache(100, Duration.ofMinutes(1),
+      meterRegistry);
+
+  private final Pageable pageable = PageRequest.of(0, 10);
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private final Function<BookFilterDto, Page<BookDto>> loader = filter -> {
+    loads.incrementAndGet();
+    return new PageImpl<>(List.of(), pageable, 0);
+  };
+
+  @Test
+  void equivalentFiltersAreServedFromSameEntry() {
+    Page<BookDto> first = bookPageCache.get(BookFilterDto.builder()
+            .title(" Мастер ")
+            .minPrice(new BigDecimal("100.00"))
+            .build(),
+        SortBy.TITLE, SortDirection.ASC, pageable, loader);
+    Page<BookDto> second = bookPageCache.get(BookFilterDto.builder()
+            .title("мастер")
+            .minPrice(new BigDecimal("100"))
+            .build(),
+        SortBy.TITLE, SortDirection.ASC, pageable, loader);
+
+    assertThat(second).isSameAs(first);
+    assertThat(loads).hasValue(1);
+    assertThat(meterRegistry.get("book.page-cache.load").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  void bookChangeStartsNewGenerationAndReloadsCachedPage() {
+    BookFilterDto filter = BookFilterDto.builder().build();
+    bookPageCache.get(filter, SortBy.PRICE, SortDirection.DESC, pageable, loader);
+    String generation = bookPageCache.generation();
+
+    bookPageCache.onBookChanged(new BookChangedEvent(1L, 1L, BookChangeType.UPDATED, false));
+    bookPageCache.get(filter, SortBy.PRICE, SortDirection.DESC, pageable, loader);
+
+    assertThat(bookPageCache.generation()).isNotEqualTo(generation);
+    assertThat(loads).hasValue(2);
+    assertThat(meterRegistry.get("book.page-cache.load").timer().count()).isEqualTo(2);
+    assertThat(meterRegistry.get("book.page-cache.generation").gauge().value()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.webstoreservice.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.webstoreservice.feign.ServiceUnavailableException;
+import com.example.webstoreservice.model.dto.UserDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class UserDtoCacheTest {
+
+  private static final UUID USER_UUID = UUID.randomUUID();
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private final Supplier<UserDto> loader = () -> {
+    loads.incrementAndGet();
+    return UserDto.builder().userUuid(USER_UUID).username("testUser").build();
+  };
+
+  private final UserDtoCache userDtoCache = new UserDtoCache(100, Duration.ofMinutes(1),
+      Duration.ofHours(1), new SimpleMeterRegistry());
+
+  @Test
+  void entryIsServedFromCacheWhileTokenIsValid() {
+    Date expiration = inMillis(60_000);
+
+    userDtoCache.get(USER_UUID, expiration, loader);
+    UserDto userDto = userDtoCache.get(USER_UUID, expiration, loader);
+
+    assertThat(userDto.userUuid()).isEqualTo(USER_UUID);
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  void entryExpiresWithTokenBeforeConfiguredTtl() throws Exception {
+    Date expiration = inMillis(200);
+
+    userDtoCache.get(USER_UUID, expiration, loader);
+    userDtoCache.get(USER_UUID, expiration, loader);
+    assertThat(loads.get()).isEqualTo(1);
+
+    Thread.sleep(400);
+    userDtoCache.get(USER_UUID, inMillis(60_000), loader);
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void entryLoadedWithExpiredTokenIsNotRetained() {
+    Date expiration = inMillis(-1_000);
+
+    userDtoCache.get(USER_UUID, expiration, loader);
+    userDtoCache.get(USER_UUID, expiration, loader);
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void evictRemovesEntry() {
+    Date expiration = inMillis(60_000);
+    userDtoCache.get(USER_UUID, expiration, loader);
+
+    userDtoCache.evict(USER_UUID);
+    userDtoCache.get(USER_UUID, expiration, loader);
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void staleEntryIsServedWhenServiceIsUnavailable() {
+    UserDtoCache uncachedUsers = new UserDtoCache(100, Duration.ZERO, Duration.ofHours(1),
+        new SimpleMeterRegistry());
+    Date expiration = inMillis(60_000);
+    uncachedUsers.get(USER_UUID, expiration, loader);
+
+    UserDto userDto = uncachedUsers.get(USER_UUID, expiration, unavailable());
+
+    assertThat(userDto.userUuid()).isEqualTo(USER_UUID);
+  }
+
+  @Test
+  void staleEntryExpiresWithTokenBeforeConfiguredStaleTtl() throws Exception {
+    userDtoCache.get(USER_UUID, inMillis(200), loader);
+
+    Thread.sleep(400);
+
+    assertThatThrownBy(() -> userDtoCache.get(USER_UUID, inMillis(60_000), unavailable()))
+        .isInstanceOf(ServiceUnavailableException.class);
+  }
+
+  private static Supplier<UserDto> unavailable() {
+    return () -> {
+      throw new ServiceUnavailableException(HttpStatus.SERVICE_UNAVAILABLE, "unavailable", null);
+    };
+  }
+
+  private static Date inMillis(long millis) {
+    return new Date(System.currentTimeMillis() + millis);
+  }
+}
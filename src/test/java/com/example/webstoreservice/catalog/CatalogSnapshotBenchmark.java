@@ -0,0 +1,141 @@
+package com.example.webstoreservice.catalog;
+
+import com.example.webstoreservice.model.BookFacetRow;
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Время выборки страниц, подсчета фасетов и применения пакета изменений в
+ * {@link CatalogSnapshot} на каталогах из 100 тысяч и 1 миллиона книг. Книги генерируются в
+ * памяти с равномерно распределенными авторами, жанрами, годами и ценами, часть значений года и
+ * цены пустые.
+ *
+ * <p>Запуск: {@code mvn -Pbenchmark test -Dbenchmark="CatalogSnapshotBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class CatalogSnapshotBenchmark {
+
+  private static final int AUTHORS = 1_000;
+
+  private static final int GENRES = 50;
+
+  private static final int PAGE_SIZE = 20;
+
+  private static final BookFilterDto NO_FILTER = new BookFilterDto(null, null, null, null, null);
+
+  private static final List<BigDecimal> PRICE_BOUNDS =
+      List.of(new BigDecimal("500"), new BigDecimal("1000"), new BigDecimal("2000"));
+
+  @Param({"100000", "1000000"})
+  private int books;
+
+  private CatalogSnapshot snapshot;
+
+  private BookFilterDto authorAndPriceFilter;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    List<BookView> catalog = new ArrayList<>(books);
+    for (long bookId = 1; bookId <= books; bookId++) {
+      catalog.add(book(bookId, random));
+    }
+    snapshot = CatalogSnapshot.of(catalog);
+    authorAndPriceFilter = new BookFilterDto(null, 1L + random.nextInt(AUTHORS), null,
+        new BigDecimal("100"), new BigDecimal("1500"));
+  }
+
+  @Benchmark
+  public CatalogResult firstPageByPrice() {
+    return snapshot.find(NO_FILTER, SortBy.PRICE, SortDirection.ASC, 0, PAGE_SIZE, true);
+  }
+
+  @Benchmark
+  public CatalogResult firstPageByTitleDescending() {
+    return snapshot.find(NO_FILTER, SortBy.TITLE, SortDirection.DESC, 0, PAGE_SIZE, true);
+  }
+
+  @Benchmark
+  public CatalogResult middlePageByPublicationYear() {
+    return snapshot.find(NO_FILTER, SortBy.PUBLICATION_YEAR, SortDirection.ASC, books / 2,
+        PAGE_SIZE, false);
+  }
+
+  @Benchmark
+  public CatalogResult filteredPageByTitle() {
+    return snapshot.find(authorAndPriceFilter, SortBy.TITLE, SortDirection.ASC, 0, PAGE_SIZE,
+        true);
+  }
+
+  @Benchmark
+  public List<BookFacetRow> facets() {
+    return snapshot.facets(NO_FILTER, PRICE_BOUNDS);
+  }
+
+  @Benchmark
+  public CatalogSnapshot applyChanges(Changes changes) {
+    return snapshot.apply(changes.bookIds, changes.books);
+  }
+
+  private static BookView book(long bookId, Random random) {
+    long authorId = 1L + random.nextInt(AUTHORS);
+    long genreId = 1L + random.nextInt(GENRES);
+    Integer publicationYear = random.nextInt(10) == 0 ? null : 1800 + random.nextInt(225);
+    BigDecimal price = random.nextInt(10) == 0 ? null :
+        BigDecimal.valueOf(10_000 + random.nextInt(300_000), 2);
+    return new BookView(bookId, 0L, "Книга " + random.nextInt(1_000_000), authorId,
+        "Автор " + authorId, genreId, "Жанр " + genreId, publicationYear, price, null, null,
+        null, null, false);
+  }
+
+  /**
+   * Пакет изменений существующих книг каталога.
+   */
+  @State(Scope.Benchmark)
+  public static class Changes {
+
+    @Param({"1", "100"})
+    private int size;
+
+    private List<Long> bookIds;
+
+    private List<BookView> books;
+
+    @Setup
+    public void setUp(CatalogSnapshotBenchmark benchmark) {
+      Random random = new Random(7);
+      bookIds = LongStream.generate(() -> 1L + random.nextInt(benchmark.books))
+          .distinct()
+          .limit(size)
+          .boxed()
+          .toList();
+      books = bookIds.stream()
+          .map(bookId -> book(bookId, random))
+          .toList();
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.example.webstoreservice.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.example.webstoreservice.model.BookFacetRow;
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class CatalogSnapshotTest {
+
+  private static final BookFilterDto NO_FILTER = new BookFilterDto(null, null, null, null, null);
+
+  private static final List<BookView> BOOKS = List.of(
+      book(1L, "Война и мир", 1L, 1L, 1869, "500.00"),
+      book(2L, "Анна Каренина", 1L, 2L, 1877, null),
+      book(3L, "Мастер и Маргарита", 2L, 1L, null, "350.50"),
+      book(4L, "Белая гвардия", 2L, 2L, 1925, "350.50"),
+      book(5L, "Бесы", 3L, 1L, 1871, "420.00"));
+
+  private final CatalogSnapshot snapshot = CatalogSnapshot.of(BOOKS);
+
+  @Test
+  void findSortsByPriceWithNullsLastAscendingAndFirstDescending() {
+    assertThat(ids(snapshot.find(NO_FILTER, SortBy.PRICE, SortDirection.ASC, 0, 10, true)))
+        .containsExactly(3L, 4L, 5L, 1L, 2L);
+    assertThat(ids(snapshot.find(NO_FILTER, SortBy.PRICE, SortDirection.DESC, 0, 10, true)))
+        .containsExactly(2L, 1L, 5L, 4L, 3L);
+  }
+
+  @Test
+  void findSortsByTitleAndPublicationYear() {
+    assertThat(ids(snapshot.find(NO_FILTER, SortBy.TITLE, SortDirection.ASC, 0, 10, true)))
+        .containsExactly(2L, 4L, 5L, 1L, 3L);
+    assertThat(ids(snapshot.find(NO_FILTER, SortBy.PUBLICATION_YEAR, SortDirection.ASC, 0, 10,
+        true)))
+        .containsExactly(1L, 5L, 2L, 4L, 3L);
+  }
+
+  @Test
+  void findAppliesFiltersOffsetAndTotal() {
+    BookFilterDto filter = new BookFilterDto(null, null, 1L, new BigDecimal("350.50"), null);
+
+    CatalogResult result = snapshot.find(filter, SortBy.TITLE, SortDirection.ASC, 1, 1, true);
+
+    assertThat(ids(result)).containsExactly(1L);
+    assertThat(result.total()).isEqualTo(3);
+  }
+
+  @Test
+  void findRejectsTitleFilter() {
+    BookFilterDto filter = new BookFilterDto("мир", null, null, null, null);
+
+    assertThatThrownBy(() -> snapshot.find(filter, SortBy.TITLE, SortDirection.ASC, 0, 10, true))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void findReturnsNothingForUnknownAuthor() {
+    BookFilterDto filter = new BookFilterDto(null, 42L, null, null, null);
+
+    CatalogResult result = snapshot.find(filter, SortBy.TITLE, SortDirection.ASC, 0, 10, true);
+
+    assertThat(result.books()).isEmpty();
+    assertThat(result.total()).isZero();
+  }
+
+  @Test
+  void facetsCountBooksByGenreAuthorAndPriceBucket() {
+    BookFilterDto filter = new BookFilterDto(null, null, 1L, null, null);
+
+    List<BookFacetRow> rows = snapshot.facets(filter,
+        List.of(new BigDecimal("400"), new BigDecimal("500")));
+
+    assertThat(rows)
+        .extracting(BookFacetRow::authorId, BookFacetRow::priceBucket, BookFacetRow::count)
+        .containsExactlyInAnyOrder(
+            tuple(1L, 2, 1L),
+            tuple(2L, 0, 1L),
+            tuple(3L, 1, 1L));
+  }
+
+  @ParameterizedTest
+  @EnumSource(value = SortBy.class, names = "RELEVANCE", mode = EnumSource.Mode.EXCLUDE)
+  void batchUpdatesMatchRebuiltSnapshot(SortBy sortBy) {
+    Random random = new Random(sortBy.ordinal());
+    List<BookView> books = new ArrayList<>(BOOKS);
+    CatalogSnapshot incremental = snapshot;
+
+    for (int i = 0; i < 200; i++) {
+      Set<Long> bookIds = new HashSet<>();
+      List<BookView> changed = new ArrayList<>();
+      for (int j = random.nextInt(5); j >= 0; j--) {
+        long bookId = 1 + random.nextInt(20);
+        if (!bookIds.add(bookId)) {
+          continue;
+        }
+        books.removeIf(book -> book.bookId() == bookId);
+        if (random.nextInt(3) != 0) {
+          BookView book = book(bookId, "Книга " + random.nextInt(5),
+              (long) random.nextInt(4), (long) random.nextInt(4),
+              random.nextInt(4) == 0 ? null : 1900 + random.nextInt(5),
+              random.nextInt(4) == 0 ? null : random.nextInt(5) + ".99");
+          books.add(book);
+          changed.add(book);
+        }
+      }
+      incremental = incremental.apply(bookIds, changed);
+
+      for (SortDirection direction : SortDirection.values()) {
+        assertThat(ids(incremental.find(NO_FILTER, sortBy, direction, 0, 100, true)))
+            .containsExactlyElementsOf(
+                ids(CatalogSnapshot.of(books).find(NO_FILTER, sortBy, direction, 0, 100, true)));
+      }
+    }
+  }
+
+  private static List<Long> ids(CatalogResult result) {
+    return result.books().stream().map(BookView::bookId).toList();
+  }
+
+  private static BookView book(Long bookId, String title, Long authorId, Long genreId,
+      Integer publicationYear, String price) {
+    return new BookView(bookId, 0L, title, authorId, null, genreId, null, publicationYear,
+        price == null ? null : new BigDecimal(price), null, null, null, null, false);
+  }
+}
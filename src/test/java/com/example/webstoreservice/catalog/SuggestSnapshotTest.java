@@ -0,0 +1,96 @@
+package com.example.webstoreservice.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.dto.SuggestionDto;
+import com.example.webstoreservice.model.enums.SuggestionType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class SuggestSnapshotTest {
+
+  private static final int TOP_K = 5;
+
+  private static final List<BookView> BOOKS = List.of(
+      book(1L, "Мастер и Маргарита", 1L, "Михаил Булгаков"),
+      book(2L, "Белая гвардия", 1L, "Михаил Булгаков"),
+      book(3L, "Мёртвые души", 2L, "Николай Гоголь"),
+      book(4L, "Маленький принц", 3L, "Антуан де Сент-Экзюпери"));
+
+  private static final Map<Long, Long> POPULARITY = Map.of(1L, 5L, 3L, 7L);
+
+  private final SuggestSnapshot snapshot = SuggestSnapshot.of(BOOKS, POPULARITY, TOP_K);
+
+  @Test
+  void suggestRanksPrefixMatchesByPopularity() {
+    assertThat(snapshot.suggest("М", TOP_K))
+        .extracting(SuggestionDto::type, SuggestionDto::id)
+        .containsExactly(
+            tuple(SuggestionType.BOOK, 3L),
+            tuple(SuggestionType.AUTHOR, 1L),
+            tuple(SuggestionType.BOOK, 1L),
+            tuple(SuggestionType.BOOK, 4L));
+  }
+
+  @Test
+  void suggestMatchesStartOfAnyWordIgnoringCaseAndYo() {
+    assertThat(snapshot.suggest("маргар", TOP_K))
+        .extracting(SuggestionDto::id)
+        .containsExactly(1L);
+    assertThat(snapshot.suggest("МЕРТВ", TOP_K))
+        .extracting(SuggestionDto::text)
+        .containsExactly("Мёртвые души");
+    assertThat(snapshot.suggest("экзюп", TOP_K))
+        .extracting(SuggestionDto::type, SuggestionDto::id)
+        .containsExactly(tuple(SuggestionType.AUTHOR, 3L));
+    assertThat(snapshot.suggest("ргарита", TOP_K)).isEmpty();
+  }
+
+  @Test
+  void incrementalUpdatesMatchRebuiltSnapshot() {
+    Random random = new Random(42);
+    List<String> words = List.of("мастер", "мир", "маргарита", "белая", "бесы", "мёртвые");
+    List<String> queries = List.of("мастер", "мир", "маргарита", "белая", "бесы", "мёртвые",
+        "автор");
+    List<BookView> books = new ArrayList<>();
+    SuggestSnapshot incremental = SuggestSnapshot.of(books, POPULARITY, TOP_K);
+
+    for (int i = 0; i < 100; i++) {
+      long bookId = 1 + random.nextInt(10);
+      books.removeIf(book -> book.bookId() == bookId);
+      if (random.nextInt(3) == 0) {
+        incremental = incremental.without(bookId);
+      } else {
+        long authorId = 1 + random.nextInt(3);
+        BookView book = book(bookId,
+            words.get(random.nextInt(words.size())) + " " + words.get(random.nextInt(words.size())),
+            authorId, "Автор " + authorId);
+        books.add(book);
+        incremental = incremental.with(book);
+      }
+
+      SuggestSnapshot rebuilt = SuggestSnapshot.of(books, POPULARITY, TOP_K);
+      for (String query : queries) {
+        for (int length = 1; length <= query.length(); length++) {
+          String prefix = query.substring(0, length);
+          assertThat(incremental.suggest(prefix, TOP_K))
+              .containsExactlyElementsOf(rebuilt.suggest(prefix, TOP_K));
+        }
+      }
+      for (long authorId = 1; authorId <= 3; authorId++) {
+        assertThat(incremental.suggest("Автор " + authorId, TOP_K))
+            .containsExactlyElementsOf(rebuilt.suggest("Автор " + authorId, TOP_K));
+      }
+    }
+  }
+
+  private static BookView book(Long bookId, String title, Long authorId, String authorName) {
+    return new BookView(bookId, 0L, title, authorId, authorName, 1L, null, null, null, null,
+        null, null, null, false);
+  }
+}
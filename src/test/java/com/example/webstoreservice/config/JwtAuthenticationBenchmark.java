@@ -0,0 +1,182 @@
+package com.example.webstoreservice.config;
+
+import com.example.commoncode.model.enums.Role;
+import com.example.webstoreservice.cache.TokenRevocationList;
+import com.example.webstoreservice.cache.UserDtoCache;
+import com.example.webstoreservice.feign.CoalescingUserClient;
+import com.example.webstoreservice.feign.UserClient;
+import com.example.webstoreservice.model.dto.UserDto;
+import com.example.webstoreservice.model.enums.AuthenticationMode;
+import com.example.webstoreservice.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Пропускная способность {@link JwtAuthenticationFilter} в режимах
+ * {@link AuthenticationMode#REMOTE} и {@link AuthenticationMode#STATELESS}. Сервис регистрации и
+ * аутентификации заменен заглушкой с фиксированной задержкой ответа, а нулевое время жизни кэша
+ * пользователей моделирует обращение к сервису на каждый запрос.
+ *
+ * <p>Запуск: {@code mvn -Pbenchmark test -Dbenchmark=JwtAuthenticationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class JwtAuthenticationBenchmark {
+
+  private static final String SECRET = "AWqtLP+GFvnUBbpn1vbTpgmz8fwk6G14nQEVgJIBIVg=";
+
+  private static final int USERS = 1_000;
+
+  @Param({"REMOTE", "STATELESS"})
+  private AuthenticationMode mode;
+
+  @Param({"PT5M", "PT0S"})
+  private String userCacheTtl;
+
+  @Param({"5"})
+  private long authServiceLatencyMillis;
+
+  private JwtAuthenticationFilter filter;
+
+  private String[] authHeaders;
+
+  @Setup
+  public void setUp() {
+    filter = filter(mode, Duration.parse(userCacheTtl), authServiceLatencyMillis, 50);
+    authHeaders = authHeaders(USERS);
+  }
+
+  @Benchmark
+  public Authentication authenticate(RequestCounter counter) throws Exception {
+    return authenticate(filter, authHeaders[counter.next(USERS)]);
+  }
+
+  /**
+   * Создание фильтра аутентификации с заглушкой сервиса регистрации и аутентификации.
+   *
+   * @param mode                     Режим аутентификации.
+   * @param userCacheTtl             Время жизни записи кэша пользователей.
+   * @param authServiceLatencyMillis Задержка ответа сервиса в миллисекундах.
+   * @param maxConcurrentCalls       Максимальное число одновременных запросов к сервису.
+   * @return Объект {@link JwtAuthenticationFilter}.
+   */
+  static JwtAuthenticationFilter filter(AuthenticationMode mode, Duration userCacheTtl,
+      long authServiceLatencyMillis, int maxConcurrentCalls) {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    UserDtoCache userDtoCache = new UserDtoCache(USERS, userCacheTtl, Duration.ofHours(1),
+        meterRegistry);
+    JwtAuthenticationFilter filter = new JwtAuthenticationFilter(
+        new JwtServiceImpl(SECRET, "userUuid", "role", USERS, Duration.ofMinutes(1),
+            meterRegistry),
+        new CoalescingUserClient(new StubUserClient(authServiceLatencyMillis), meterRegistry,
+            maxConcurrentCalls),
+        userDtoCache,
+        new TokenRevocationList(Duration.ofHours(24), userDtoCache));
+    ReflectionTestUtils.setField(filter, "authenticationMode", mode);
+    return filter;
+  }
+
+  /**
+   * Создание заголовков авторизации с токенами разных пользователей.
+   *
+   * @param users Число пользователей.
+   * @return Массив значений заголовка {@code Authorization}.
+   */
+  static String[] authHeaders(int users) {
+    String[] authHeaders = new String[users];
+    Date now = new Date();
+    for (int i = 0; i < users; i++) {
+      authHeaders[i] = "Bearer " + Jwts.builder()
+          .setSubject("user")
+          .claim("userUuid", UUID.randomUUID().toString())
+          .claim("role", "USER")
+          .setIssuedAt(now)
+          .setExpiration(new Date(now.getTime() + TimeUnit.HOURS.toMillis(1)))
+          .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+          .compact();
+    }
+    return authHeaders;
+  }
+
+  /**
+   * Выполнение запроса с заголовком авторизации через фильтр аутентификации.
+   *
+   * @param filter     Фильтр аутентификации.
+   * @param authHeader Значение заголовка {@code Authorization}.
+   * @return Результат аутентификации или null.
+   */
+  static Authentication authenticate(JwtAuthenticationFilter filter, String authHeader)
+      throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("Authorization", authHeader);
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    SecurityContextHolder.clearContext();
+    return authentication;
+  }
+
+  /**
+   * Номер следующего пользователя для потока бенчмарка.
+   */
+  @State(Scope.Thread)
+  public static class RequestCounter {
+
+    private int next = (int) Thread.currentThread().getId();
+
+    int next(int bound) {
+      next = (next + 1) % bound;
+      return next;
+    }
+  }
+
+  private record StubUserClient(long latencyMillis) implements UserClient {
+
+    @Override
+    public UserDto getUserDtoByUuid(UUID uuid) {
+      try {
+        Thread.sleep(latencyMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return UserDto.builder()
+          .userUuid(uuid)
+          .username("user")
+          .role(Role.USER)
+          .build();
+    }
+
+    @Override
+    public UserDto getUserDtoByUsername(String username) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
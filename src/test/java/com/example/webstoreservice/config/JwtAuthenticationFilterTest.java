@@ -0,0 +1,164 @@
+package com.example.webstoreservice.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.webstoreservice.cache.TokenRevocationList;
+import com.example.webstoreservice.cache.UserDtoCache;
+import com.example.webstoreservice.feign.CoalescingUserClient;
+import com.example.webstoreservice.model.ParsedToken;
+import com.example.webstoreservice.model.UserPrincipal;
+import com.example.webstoreservice.model.dto.UserDto;
+import com.example.webstoreservice.model.enums.AuthenticationMode;
+import com.example.webstoreservice.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class JwtAuthenticationFilterTest {
+
+  private static final String JWT = "header.payload.signature";
+
+  private static final UUID USER_UUID = UUID.randomUUID();
+
+  private final JwtService jwtService = mock(JwtService.class);
+
+  private final CoalescingUserClient userClient = mock(CoalescingUserClient.class);
+
+  private final UserDtoCache userDtoCache = new UserDtoCache(100, Duration.ofMinutes(1),
+      Duration.ofHours(1), new SimpleMeterRegistry());
+
+  private final TokenRevocationList tokenRevocationList =
+      new TokenRevocationList(Duration.ofHours(1), userDtoCache);
+
+  private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService,
+      userClient, userDtoCache, tokenRevocationList);
+
+  @AfterEach
+  void clearSecurityContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void statelessModeAuthenticatesFromClaimsWithoutUserLookup() throws Exception {
+    useMode(AuthenticationMode.STATELESS);
+    token("ADMIN", new Date(System.currentTimeMillis() - 1_000));
+
+    MockFilterChain filterChain = doFilter();
+
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    assertThat(authentication).isNotNull();
+    UserDto userDto = ((UserPrincipal) authentication.getPrincipal()).getUserDto();
+    assertThat(userDto.userUuid()).isEqualTo(USER_UUID);
+    assertThat(userDto.username()).isEqualTo("testUser");
+    assertThat(authentication.getAuthorities()).extracting(Object::toString)
+        .containsExactly("ADMIN");
+    assertThat(filterChain.getRequest()).isNotNull();
+    verifyNoInteractions(userClient);
+  }
+
+  @Test
+  void statelessModeLeavesRequestUnauthenticatedForUnknownRole() throws Exception {
+    useMode(AuthenticationMode.STATELESS);
+    token("SUPERVISOR", new Date(System.currentTimeMillis() - 1_000));
+
+    MockFilterChain filterChain = doFilter();
+
+    assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    assertThat(filterChain.getRequest()).isNotNull();
+  }
+
+  @Test
+  void statelessModeLeavesRequestUnauthenticatedWithoutRole() throws Exception {
+    useMode(AuthenticationMode.STATELESS);
+    token(null, new Date(System.currentTimeMillis() - 1_000));
+
+    doFilter();
+
+    assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+  }
+
+  @Test
+  void revokedTokenIsNotAuthenticated() throws Exception {
+    useMode(AuthenticationMode.REMOTE);
+    token("USER", new Date(System.currentTimeMillis() - 1_000));
+    tokenRevocationList.revoke(USER_UUID);
+
+    MockFilterChain filterChain = doFilter();
+
+    assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    assertThat(filterChain.getRequest()).isNotNull();
+    verifyNoInteractions(userClient);
+  }
+
+  @Test
+  void tokenIssuedAfterRevocationIsAuthenticated() throws Exception {
+    useMode(AuthenticationMode.STATELESS);
+    tokenRevocationList.revoke(USER_UUID);
+    token("USER", new Date(System.currentTimeMillis() + 1_000));
+
+    doFilter();
+
+    assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+  }
+
+  @Test
+  void tokenIssuedInSameSecondAsRevocationIsAuthenticated() throws Exception {
+    useMode(AuthenticationMode.STATELESS);
+    tokenRevocationList.revoke(USER_UUID);
+    token("USER", Date.from(Instant.now().truncatedTo(ChronoUnit.SECONDS)));
+
+    doFilter();
+
+    assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+  }
+
+  @Test
+  void tokenIssuedInSecondBeforeRevocationIsNotAuthenticated() throws Exception {
+    useMode(AuthenticationMode.STATELESS);
+    Date issuedAt = Date.from(Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(1));
+    tokenRevocationList.revoke(USER_UUID);
+    token("USER", issuedAt);
+
+    doFilter();
+
+    assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+  }
+
+  private void useMode(AuthenticationMode mode) {
+    ReflectionTestUtils.setField(filter, "authenticationMode", mode);
+  }
+
+  private void token(String role, Date issuedAt) {
+    when(jwtService.parseToken(JWT)).thenReturn(ParsedToken.builder()
+        .username("testUser")
+        .uuid(USER_UUID.toString())
+        .role(role)
+        .issuedAt(issuedAt)
+        .expiration(new Date(System.currentTimeMillis() + 60_000))
+        .build());
+    when(jwtService.isTokenValid(any(), any())).thenReturn(true);
+  }
+
+  private MockFilterChain doFilter() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("Authorization", "Bearer " + JWT);
+    MockFilterChain filterChain = new MockFilterChain();
+    filter.doFilter(request, new MockHttpServletResponse(), filterChain);
+    return filterChain;
+  }
+}
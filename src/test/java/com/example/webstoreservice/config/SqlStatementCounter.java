@@ -0,0 +1,44 @@
+package com.example.webstoreservice.config;
+
+import jakarta.servlet.ServletRequest;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Счетчик SQL-запросов, выполненных Hibernate в рамках одного HTTP-запроса. Значение хранится в
+ * атрибуте запроса и позволяет проверять, что число обращений к базе данных не зависит от объема
+ * возвращаемых данных. Подключается только в профиле test настройкой
+ * {@code hibernate.session_factory.statement_inspector}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+  private static final String COUNT_ATTRIBUTE = SqlStatementCounter.class.getName() + ".COUNT";
+
+  @Override
+  public String inspect(String sql) {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes != null) {
+      AtomicInteger count = (AtomicInteger) requestAttributes.getAttribute(COUNT_ATTRIBUTE,
+          RequestAttributes.SCOPE_REQUEST);
+      if (count == null) {
+        count = new AtomicInteger();
+        requestAttributes.setAttribute(COUNT_ATTRIBUTE, count, RequestAttributes.SCOPE_REQUEST);
+      }
+      count.incrementAndGet();
+    }
+    return sql;
+  }
+
+  /**
+   * Получение количества SQL-запросов, выполненных при обработке HTTP-запроса.
+   *
+   * @param request HTTP-запрос.
+   * @return Количество SQL-запросов.
+   */
+  public static int getCount(ServletRequest request) {
+    AtomicInteger count = (AtomicInteger) request.getAttribute(COUNT_ATTRIBUTE);
+    return count != null ? count.get() : 0;
+  }
+}
@@ -0,0 +1,87 @@
+package com.example.webstoreservice.config;
+
+import com.example.webstoreservice.model.enums.AuthenticationMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Пропускная способность обработки запросов при медленном сервисе регистрации и аутентификации в
+ * пуле платформенных потоков размера пула Tomcat по умолчанию и в виртуальных потоках, как при
+ * {@code server.tomcat.virtual-threads.enabled}. Каждый запрос проходит
+ * {@link JwtAuthenticationFilter} в режиме {@link AuthenticationMode#REMOTE} без кэша
+ * пользователей, поэтому обращается к заглушке сервиса с задержкой ответа.
+ *
+ * <p>Вариант {@code VIRTUAL} требует Java 21 или новее. Запуск:
+ * {@code mvn -Pbenchmark test -Dbenchmark=VirtualThreadLoadBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+  private static final int CONCURRENT_REQUESTS = 1_000;
+
+  private static final int TOMCAT_MAX_THREADS = 200;
+
+  @Param({"PLATFORM", "VIRTUAL"})
+  private String threads;
+
+  @Param({"200"})
+  private long authServiceLatencyMillis;
+
+  private ExecutorService executor;
+
+  private JwtAuthenticationFilter filter;
+
+  private String[] authHeaders;
+
+  @Setup
+  public void setUp() {
+    executor = "VIRTUAL".equals(threads)
+        ? VirtualThreadConfig.newVirtualThreadPerTaskExecutor()
+        : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    filter = JwtAuthenticationBenchmark.filter(AuthenticationMode.REMOTE, Duration.ZERO,
+        authServiceLatencyMillis, CONCURRENT_REQUESTS);
+    authHeaders = JwtAuthenticationBenchmark.authHeaders(CONCURRENT_REQUESTS);
+  }
+
+  @TearDown
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENT_REQUESTS)
+  public void requests(Blackhole blackhole) throws Exception {
+    List<Future<?>> responses = new ArrayList<>(CONCURRENT_REQUESTS);
+    for (String authHeader : authHeaders) {
+      responses.add(executor.submit(
+          () -> JwtAuthenticationBenchmark.authenticate(filter, authHeader)));
+    }
+    for (Future<?> response : responses) {
+      blackhole.consume(response.get());
+    }
+  }
+}
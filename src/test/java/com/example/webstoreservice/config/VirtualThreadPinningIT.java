@@ -0,0 +1,59 @@
+package com.example.webstoreservice.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.example.webstoreservice.IntegrationTestBase;
+import com.example.webstoreservice.repository.BookRepository;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+@RequiredArgsConstructor
+class VirtualThreadPinningIT extends IntegrationTestBase {
+
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+  private static final int CONCURRENT_REQUESTS = 100;
+
+  private final BookRepository bookRepository;
+
+  @Test
+  void jdbcAccessThroughExhaustedPoolDoesNotPinVirtualThreads() throws Exception {
+    assumeTrue(Runtime.version().feature() >= 21, "Виртуальные потоки требуют Java 21");
+    Path dump = Files.createTempFile("virtual-thread-pinning", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+      recording.start();
+      ExecutorService executor = VirtualThreadConfig.newVirtualThreadPerTaskExecutor();
+      List<Future<Long>> results = IntStream.range(0, CONCURRENT_REQUESTS)
+          .mapToObj(i -> executor.submit(
+              () -> bookRepository.findAll(PageRequest.of(0, 20)).getTotalElements()))
+          .toList();
+      for (Future<Long> result : results) {
+        result.get(30, TimeUnit.SECONDS);
+      }
+      executor.shutdown();
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<RecordedEvent> pinnedEvents = RecordingFile.readAllEvents(dump).stream()
+        .filter(event -> PINNED_EVENT.equals(event.getEventType().getName()))
+        .toList();
+    Files.delete(dump);
+
+    assertThat(pinnedEvents).isEmpty();
+  }
+}
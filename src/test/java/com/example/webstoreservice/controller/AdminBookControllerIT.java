@@ -1,5 +1,6 @@
 package com.example.webstoreservice.controller;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -15,7 +16,9 @@ import com.example.webstoreservice.model.dto.GenreDto;
 import com.example.webstoreservice.model.entity.Author;
 import com.example.webstoreservice.model.entity.Book;
 import com.example.webstoreservice.model.entity.Genre;
+import com.example.webstoreservice.config.SqlStatementCounter;
 import com.example.webstoreservice.repository.AuthorRepository;
+import com.example.webstoreservice.repository.BookRepository;
 import com.example.webstoreservice.repository.GenreRepository;
 import com.example.webstoreservice.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -43,6 +46,8 @@ class AdminBookControllerIT extends IntegrationTestBase {
 
   private final GenreRepository genreRepository;
 
+  private final BookRepository bookRepository;
+
   @Test
   void createBook() throws Exception {
 
@@ -115,4 +120,33 @@ class AdminBookControllerIT extends IntegrationTestBase {
     assertThat(savedBook.getCoverPath()).isEqualTo(returnedBook.coverPath());
     assertThat(savedBook.getDeleted()).isEqualTo(returnedBook.deleted());
   }
-}
\ No newline at end of file
+
+  @Test
+  void exportRunsSameNumberOfStatementsRegardlessOfAuthorsAndGenres() throws Exception {
+    saveBookWithOwnAuthorAndGenre("ISBN-export-statements-0");
+    int firstExportStatements = exportStatements();
+
+    saveBookWithOwnAuthorAndGenre("ISBN-export-statements-1");
+    saveBookWithOwnAuthorAndGenre("ISBN-export-statements-2");
+    int secondExportStatements = exportStatements();
+
+    assertThat(firstExportStatements).isEqualTo(1);
+    assertThat(secondExportStatements).isEqualTo(firstExportStatements);
+  }
+
+  private int exportStatements() throws Exception {
+    return SqlStatementCounter.getCount(mockMvc.perform(get("/admin/books/to-excel"))
+        .andExpect(status().isOk())
+        .andReturn().getRequest());
+  }
+
+  private void saveBookWithOwnAuthorAndGenre(String isbn) {
+    bookRepository.save(Book.builder()
+        .title("title")
+        .author(authorRepository.save(Author.builder().authorName(authorName).build()))
+        .genre(genreRepository.save(Genre.builder().genreName(genreName).build()))
+        .ISBN(isbn)
+        .deleted(false)
+        .build());
+  }
+}
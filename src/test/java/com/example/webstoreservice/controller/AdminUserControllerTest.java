@@ -0,0 +1,48 @@
+package com.example.webstoreservice.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.webstoreservice.cache.TokenRevocationList;
+import com.example.webstoreservice.cache.UserDtoCache;
+import com.example.webstoreservice.model.dto.UserDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class AdminUserControllerTest {
+
+  private static final UUID USER_UUID = UUID.randomUUID();
+
+  private final UserDtoCache userDtoCache = new UserDtoCache(100, Duration.ofMinutes(1),
+      Duration.ofHours(1), new SimpleMeterRegistry());
+
+  private final MockMvc mockMvc = MockMvcBuilders
+      .standaloneSetup(new AdminUserController(userDtoCache, mock(TokenRevocationList.class)))
+      .build();
+
+  @Test
+  void deleteUserCacheEvictsCachedUser() throws Exception {
+    AtomicInteger loads = new AtomicInteger();
+    Supplier<UserDto> loader = () -> {
+      loads.incrementAndGet();
+      return UserDto.builder().userUuid(USER_UUID).build();
+    };
+    Date expiration = new Date(System.currentTimeMillis() + 60_000);
+    userDtoCache.get(USER_UUID, expiration, loader);
+
+    mockMvc.perform(delete("/admin/users/{userUuid}/cache", USER_UUID))
+        .andExpect(status().isOk());
+    userDtoCache.get(USER_UUID, expiration, loader);
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+}
@@ -2,26 +2,61 @@ package com.example.webstoreservice.controller;
 
 import static com.example.webstoreservice.model.dto.AuthorDto.Fields.authorName;
 import static com.example.webstoreservice.model.dto.GenreDto.Fields.genreName;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.example.webstoreservice.IntegrationTestBase;
+import com.example.webstoreservice.config.SqlStatementCounter;
 import com.example.webstoreservice.model.entity.Author;
 import com.example.webstoreservice.model.entity.Book;
 import com.example.webstoreservice.model.entity.Genre;
 import com.example.webstoreservice.repository.AuthorRepository;
 import com.example.webstoreservice.repository.BookRepository;
 import com.example.webstoreservice.repository.GenreRepository;
+import com.sun.management.ThreadMXBean;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.filter.OncePerRequestFilter;
 
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
 @RequiredArgsConstructor
 class BookControllerIT extends IntegrationTestBase {
@@ -34,8 +69,17 @@ class BookControllerIT extends IntegrationTestBase {
 
   private final GenreRepository genreRepository;
 
+  private final EntityManagerFactory entityManagerFactory;
+
+  private final RequestAllocationFilter requestAllocationFilter;
+
   private static final Long NON_EXISTENT_BOOK_ID = 999L;
 
+  private static final int COVER_SIZE = 4 * 1024 * 1024;
+
+  @LocalServerPort
+  private int port;
+
   @Test
   void successfulGetBookById() throws Exception {
     Book book = bookRepository.save(
@@ -85,4 +129,258 @@ class BookControllerIT extends IntegrationTestBase {
         .andExpect(status().isNotFound())
         .andExpect(jsonPath("$.message", containsString("Книга не найдена")));
   }
-}
\ No newline at end of file
+
+  @Test
+  void getDeletedBookById() throws Exception {
+    Book book = bookRepository.save(
+        Book.builder()
+            .title("title")
+            .author(authorRepository.save(Author.builder().authorName(authorName).build()))
+            .genre(genreRepository.save(Genre.builder().genreName(genreName).build()))
+            .ISBN("ISBN-deleted")
+            .deleted(true)
+            .build());
+
+    mockMvc.perform(get("/books/" + book.getId()))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.message", containsString("Книга не найдена")));
+  }
+
+  @Test
+  void getBookByIdAnswersMatchingIfNoneMatchWithNotModified() throws Exception {
+    Book book = bookRepository.save(
+        Book.builder()
+            .title("title")
+            .author(authorRepository.save(Author.builder().authorName(authorName).build()))
+            .genre(genreRepository.save(Genre.builder().genreName(genreName).build()))
+            .ISBN("ISBN-etag")
+            .deleted(false)
+            .build());
+    String eTag = "\"" + book.getVersion() + "\"";
+
+    mockMvc.perform(get("/books/" + book.getId()))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=60"));
+
+    mockMvc.perform(get("/books/" + book.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+        .andExpect(content().string(""));
+
+    mockMvc.perform(get("/books/" + book.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + (book.getVersion() + 1) + "\""))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.title", is(book.getTitle())));
+  }
+
+  @Test
+  void bookListingHasNoETagWithoutCrossNodeInvalidation() throws Exception {
+    mockMvc.perform(get("/books").param("paging", "SLICE"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+  }
+
+  @Test
+  void getBooksByIdsKeepsRequestedOrderAndReportsMissingIds() throws Exception {
+    Genre genre = genreRepository.save(Genre.builder().genreName(genreName).build());
+    Author author = authorRepository.save(Author.builder().authorName(authorName).build());
+    Book[] books = IntStream.range(0, 3)
+        .mapToObj(i -> bookRepository.save(
+            Book.builder()
+                .title("title" + i)
+                .author(author)
+                .genre(genre)
+                .ISBN("ISBN-batch-" + i)
+                .deleted(false)
+                .build()))
+        .toArray(Book[]::new);
+
+    int statements = SqlStatementCounter.getCount(
+        mockMvc.perform(get("/books/batch")
+                .param("ids", books[2].getId().toString(), NON_EXISTENT_BOOK_ID.toString(),
+                    books[0].getId().toString(), books[2].getId().toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.books", hasSize(2)))
+            .andExpect(jsonPath("$.books[0].title", is(books[2].getTitle())))
+            .andExpect(jsonPath("$.books[1].title", is(books[0].getTitle())))
+            .andExpect(jsonPath("$.books[1].author.authorName", is(authorName)))
+            .andExpect(jsonPath("$.books[1].genre.genreName", is(genreName)))
+            .andExpect(jsonPath("$.missingIds", hasSize(1)))
+            .andExpect(jsonPath("$.missingIds[0]", is(NON_EXISTENT_BOOK_ID.intValue())))
+            .andReturn().getRequest());
+
+    assertThat(statements).isEqualTo(1);
+  }
+
+  @Test
+  void getBookCoverStreamsFileWithDetectedTypeAndRangeSupport(@TempDir Path coverDir)
+      throws Exception {
+    Book book = saveBookWithCover(coverDir, "ISBN-cover-range");
+
+    mockMvc.perform(get("/books/" + book.getId() + "/image"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.IMAGE_PNG))
+        .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, COVER_SIZE))
+        .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"));
+
+    mockMvc.perform(get("/books/" + book.getId() + "/image")
+            .header(HttpHeaders.RANGE, "bytes=0-9"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/" + COVER_SIZE))
+        .andExpect(content().bytes(
+            Arrays.copyOf(Files.readAllBytes(Path.of(book.getCoverPath())), 10)));
+  }
+
+  @Test
+  void getBookCoverAnswersMatchingIfNoneMatchWithoutReadingCover(@TempDir Path coverDir)
+      throws Exception {
+    Book book = saveBookWithCover(coverDir, "ISBN-cover-etag");
+    String eTag = "\"" + book.getVersion() + "-original\"";
+
+    mockMvc.perform(get("/books/" + book.getId() + "/image"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    Files.delete(Path.of(book.getCoverPath()));
+
+    mockMvc.perform(get("/books/" + book.getId() + "/image")
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag));
+  }
+
+  @Test
+  void servingBookCoverAllocatesFarLessThanCoverSize(@TempDir Path coverDir) throws Exception {
+    Book book = saveBookWithCover(coverDir, "ISBN-cover-allocation");
+    HttpClient httpClient = HttpClient.newHttpClient();
+    HttpRequest request = HttpRequest.newBuilder(
+        URI.create("http://localhost:" + port + "/books/" + book.getId() + "/image")).build();
+    for (int i = 0; i < 5; i++) {
+      assertThat(httpClient.send(request, BodyHandlers.discarding()).statusCode())
+          .isEqualTo(200);
+    }
+
+    requestAllocationFilter.allocations.clear();
+    HttpResponse<Void> response = httpClient.send(request, BodyHandlers.discarding());
+    Long allocated = requestAllocationFilter.allocations.poll(5, TimeUnit.SECONDS);
+
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.headers().firstValueAsLong(HttpHeaders.CONTENT_LENGTH))
+        .hasValue(COVER_SIZE);
+    assertThat(allocated).isNotNull().isNotNegative().isLessThan(COVER_SIZE / 4L);
+  }
+
+  @Test
+  void bookListingRunsSameNumberOfStatementsRegardlessOfPageSize() throws Exception {
+    Genre genre = genreRepository.save(Genre.builder().genreName(genreName).build());
+    IntStream.range(0, 3).forEach(i -> bookRepository.save(
+        Book.builder()
+            .title("title" + i)
+            .author(authorRepository.save(Author.builder().authorName(authorName + i).build()))
+            .genre(genre)
+            .ISBN("ISBN-statements-" + i)
+            .deleted(false)
+            .build()));
+
+    int singleBookStatements = SqlStatementCounter.getCount(
+        mockMvc.perform(get("/books")
+                .param("genre", genre.getId().toString())
+                .param("paging", "SLICE")
+                .param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(1)))
+            .andReturn().getRequest());
+
+    int threeBooksStatements = SqlStatementCounter.getCount(
+        mockMvc.perform(get("/books")
+                .param("genre", genre.getId().toString())
+                .param("paging", "SLICE")
+                .param("size", "3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content", hasSize(3)))
+            .andReturn().getRequest());
+
+    assertThat(singleBookStatements).isEqualTo(1);
+    assertThat(threeBooksStatements).isEqualTo(singleBookStatements);
+  }
+
+  @Test
+  void bookDetailRunsFixedNumberOfStatements() throws Exception {
+    Book book = bookRepository.save(
+        Book.builder()
+            .title("title")
+            .author(authorRepository.save(Author.builder().authorName(authorName).build()))
+            .genre(genreRepository.save(Genre.builder().genreName(genreName).build()))
+            .ISBN("ISBN-detail-statements")
+            .deleted(false)
+            .build());
+    entityManagerFactory.getCache().evictAll();
+
+    int coldStatements = bookDetailStatements(book);
+    int warmStatements = bookDetailStatements(book);
+
+    assertThat(coldStatements).isEqualTo(2);
+    assertThat(warmStatements).isEqualTo(1);
+  }
+
+  private int bookDetailStatements(Book book) throws Exception {
+    return SqlStatementCounter.getCount(
+        mockMvc.perform(get("/books/" + book.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.author.authorName", is(authorName)))
+            .andExpect(jsonPath("$.genre.genreName", is(genreName)))
+            .andReturn().getRequest());
+  }
+
+  private Book saveBookWithCover(Path coverDir, String isbn) throws Exception {
+    byte[] cover = new byte[COVER_SIZE];
+    new Random(42).nextBytes(cover);
+    Path coverPath = Files.write(coverDir.resolve("cover.png"), cover);
+    return bookRepository.save(
+        Book.builder()
+            .title("title")
+            .author(authorRepository.save(Author.builder().authorName(authorName).build()))
+            .genre(genreRepository.save(Genre.builder().genreName(genreName).build()))
+            .ISBN(isbn)
+            .coverPath(coverPath.toString())
+            .deleted(false)
+            .build());
+  }
+
+  /**
+   * Фильтр, измеряющий объем памяти, выделенной потоком обработки запроса обложки, без потоков
+   * коннектора и других запросов.
+   */
+  static class RequestAllocationFilter extends OncePerRequestFilter {
+
+    private final BlockingQueue<Long> allocations = new LinkedBlockingQueue<>();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+      return !request.getRequestURI().endsWith("/image");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+        FilterChain filterChain) throws ServletException, IOException {
+      ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+      long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+      try {
+        filterChain.doFilter(request, response);
+      } finally {
+        allocations.add(threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore);
+      }
+    }
+  }
+
+  @TestConfiguration
+  static class RequestAllocationConfig {
+
+    @Bean
+    RequestAllocationFilter requestAllocationFilter() {
+      return new RequestAllocationFilter();
+    }
+  }
+}
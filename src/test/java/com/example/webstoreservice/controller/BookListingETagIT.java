@@ -0,0 +1,66 @@
+package com.example.webstoreservice.controller;
+
+import static com.example.webstoreservice.model.dto.AuthorDto.Fields.authorName;
+import static com.example.webstoreservice.model.dto.GenreDto.Fields.genreName;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.webstoreservice.IntegrationTestBase;
+import com.example.webstoreservice.model.entity.Author;
+import com.example.webstoreservice.model.entity.Book;
+import com.example.webstoreservice.model.entity.Genre;
+import com.example.webstoreservice.repository.AuthorRepository;
+import com.example.webstoreservice.repository.BookRepository;
+import com.example.webstoreservice.repository.GenreRepository;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+@AutoConfigureMockMvc
+@RequiredArgsConstructor
+@TestPropertySource(properties = "book.http-cache.books-etag=true")
+class BookListingETagIT extends IntegrationTestBase {
+
+  private final MockMvc mockMvc;
+
+  private final BookRepository bookRepository;
+
+  private final AuthorRepository authorRepository;
+
+  private final GenreRepository genreRepository;
+
+  @Test
+  void bookListingAnswersMatchingIfNoneMatchWithNotModified() throws Exception {
+    Genre genre = genreRepository.save(Genre.builder().genreName(genreName).build());
+    bookRepository.save(
+        Book.builder()
+            .title("title")
+            .author(authorRepository.save(Author.builder().authorName(authorName).build()))
+            .genre(genre)
+            .ISBN("ISBN-listing-etag")
+            .deleted(false)
+            .build());
+
+    String eTag = mockMvc.perform(get("/books")
+            .param("genre", genre.getId().toString())
+            .param("paging", "SLICE"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/books")
+            .param("genre", genre.getId().toString())
+            .param("paging", "SLICE")
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isNotModified());
+
+    mockMvc.perform(get("/books")
+            .param("genre", genre.getId().toString())
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andExpect(status().isOk());
+  }
+}
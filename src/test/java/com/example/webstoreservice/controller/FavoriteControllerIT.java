@@ -0,0 +1,102 @@
+package com.example.webstoreservice.controller;
+
+import static com.example.webstoreservice.model.dto.AuthorDto.Fields.authorName;
+import static com.example.webstoreservice.model.dto.GenreDto.Fields.genreName;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.commoncode.model.enums.Role;
+import com.example.webstoreservice.IntegrationTestBase;
+import com.example.webstoreservice.config.SqlStatementCounter;
+import com.example.webstoreservice.model.UserPrincipal;
+import com.example.webstoreservice.model.dto.UserDto;
+import com.example.webstoreservice.model.entity.Author;
+import com.example.webstoreservice.model.entity.Book;
+import com.example.webstoreservice.model.entity.Favorite;
+import com.example.webstoreservice.model.entity.FavoriteId;
+import com.example.webstoreservice.model.entity.Genre;
+import com.example.webstoreservice.repository.AuthorRepository;
+import com.example.webstoreservice.repository.BookRepository;
+import com.example.webstoreservice.repository.FavoriteRepository;
+import com.example.webstoreservice.repository.GenreRepository;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+@AutoConfigureMockMvc
+@RequiredArgsConstructor
+class FavoriteControllerIT extends IntegrationTestBase {
+
+  private final MockMvc mockMvc;
+
+  private final BookRepository bookRepository;
+
+  private final AuthorRepository authorRepository;
+
+  private final GenreRepository genreRepository;
+
+  private final FavoriteRepository favoriteRepository;
+
+  private final UserDto userDto = UserDto.builder()
+      .userUuid(UUID.randomUUID())
+      .username("testUser")
+      .role(Role.USER)
+      .build();
+
+  @Test
+  void favoritesRunSameNumberOfStatementsRegardlessOfFavoriteCount() throws Exception {
+    addFavorite("ISBN-favorite-statements-0");
+    int singleFavoriteStatements = favoritesStatements(1);
+
+    addFavorite("ISBN-favorite-statements-1");
+    addFavorite("ISBN-favorite-statements-2");
+    int threeFavoritesStatements = favoritesStatements(3);
+
+    assertThat(singleFavoriteStatements).isEqualTo(1);
+    assertThat(threeFavoritesStatements).isEqualTo(singleFavoriteStatements);
+  }
+
+  @Test
+  void favoritesExcludeDeletedBooks() throws Exception {
+    Book kept = addFavorite("ISBN-favorite-kept");
+    Book deleted = addFavorite("ISBN-favorite-deleted");
+    deleted.setDeleted(true);
+    bookRepository.save(deleted);
+
+    mockMvc.perform(get("/favorites").with(user(new UserPrincipal(userDto))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].bookId", is(kept.getId().intValue())));
+  }
+
+  private int favoritesStatements(int favorites) throws Exception {
+    return SqlStatementCounter.getCount(
+        mockMvc.perform(get("/favorites").with(user(new UserPrincipal(userDto))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(favorites)))
+            .andReturn().getRequest());
+  }
+
+  private Book addFavorite(String isbn) {
+    Book book = bookRepository.save(Book.builder()
+        .title("title")
+        .author(authorRepository.save(Author.builder().authorName(authorName).build()))
+        .genre(genreRepository.save(Genre.builder().genreName(genreName).build()))
+        .ISBN(isbn)
+        .deleted(false)
+        .build());
+    favoriteRepository.save(Favorite.builder()
+        .id(new FavoriteId(userDto.userUuid(), book.getId()))
+        .userUuid(userDto.userUuid())
+        .book(book)
+        .build());
+    return book;
+  }
+}
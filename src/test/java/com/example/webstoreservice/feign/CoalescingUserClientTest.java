@@ -0,0 +1,118 @@
+package com.example.webstoreservice.feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.webstoreservice.model.dto.UserDto;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+
+class CoalescingUserClientTest {
+
+  private static final int CONCURRENT_REQUESTS = 10;
+
+  private static final UUID USER_UUID = UUID.randomUUID();
+
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+  private final CountDownLatch releaseResponse = new CountDownLatch(1);
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private HttpServer authService;
+
+  private CoalescingUserClient coalescingUserClient;
+
+  @BeforeEach
+  void startAuthService() throws Exception {
+    authService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    authService.createContext("/users/uuid/", exchange -> {
+      upstreamCalls.incrementAndGet();
+      try {
+        releaseResponse.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] body = """
+          {"userUuid":"%s","username":"testUser","role":"USER"}
+          """.formatted(USER_UUID).getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+      exchange.close();
+    });
+    authService.setExecutor(Executors.newCachedThreadPool());
+    authService.start();
+
+    UserClient userClient = Feign.builder()
+        .contract(new SpringMvcContract())
+        .decoder(new SpringDecoder(HttpMessageConverters::new))
+        .target(UserClient.class, "http://localhost:" + authService.getAddress().getPort());
+
+    coalescingUserClient = new CoalescingUserClient(userClient, meterRegistry,
+        CONCURRENT_REQUESTS);
+  }
+
+  @Test
+  void concurrentLookupsOfSameUserMakeSingleUpstreamCall() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+
+    List<Future<UserDto>> results = IntStream.range(0, CONCURRENT_REQUESTS)
+        .mapToObj(i -> executor.submit(() -> coalescingUserClient.getUserDtoByUuid(USER_UUID)))
+        .toList();
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (coalescedCalls() < CONCURRENT_REQUESTS - 1 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    releaseResponse.countDown();
+    assertThat(coalescedCalls())
+        .as("callers coalesced before the upstream response")
+        .isEqualTo(CONCURRENT_REQUESTS - 1);
+
+    for (Future<UserDto> result : results) {
+      assertThat(result.get(10, TimeUnit.SECONDS).userUuid()).isEqualTo(USER_UUID);
+    }
+    executor.shutdown();
+
+    assertThat(upstreamCalls.get()).isEqualTo(1);
+    assertThat(coalescedCalls()).isEqualTo(CONCURRENT_REQUESTS - 1);
+  }
+
+  @Test
+  void sequentialLookupsAreNotCoalesced() {
+    releaseResponse.countDown();
+
+    coalescingUserClient.getUserDtoByUuid(USER_UUID);
+    coalescingUserClient.getUserDtoByUuid(USER_UUID);
+
+    assertThat(upstreamCalls.get()).isEqualTo(2);
+    assertThat(coalescedCalls()).isZero();
+  }
+
+  @AfterEach
+  void stopAuthService() {
+    authService.stop(0);
+  }
+
+  private double coalescedCalls() {
+    return meterRegistry.counter("user.client.coalesced.calls").count();
+  }
+}
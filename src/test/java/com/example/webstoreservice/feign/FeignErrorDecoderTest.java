@@ -0,0 +1,101 @@
+package com.example.webstoreservice.feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class FeignErrorDecoderTest {
+
+  private static final Request REQUEST = Request.create(Request.HttpMethod.GET,
+      "http://localhost/users/uuid/1", Map.of(), null, StandardCharsets.UTF_8, null);
+
+  private final FeignErrorDecoder decoder = new FeignErrorDecoder();
+
+  @Test
+  void serverErrorIsDecodedAsServiceUnavailableWithUpstreamMessage() {
+    Exception exception = decoder.decode("UserClient#getUserDtoByUuid(UUID)",
+        response(502, "{\"message\":\"Сервис перезапускается\"}"));
+
+    assertThat(exception).isInstanceOf(ServiceUnavailableException.class);
+    ResponseStatusException statusException = (ResponseStatusException) exception;
+    assertThat(statusException.getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY);
+    assertThat(statusException.getReason()).isEqualTo("Сервис перезапускается");
+  }
+
+  @Test
+  void serverErrorWithoutReadableBodyUsesReasonPhrase() {
+    Exception exception = decoder.decode("UserClient#getUserDtoByUuid(UUID)",
+        response(500, "not json"));
+
+    assertThat(exception).isInstanceOf(ServiceUnavailableException.class);
+    assertThat(((ResponseStatusException) exception).getReason())
+        .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase());
+  }
+
+  @Test
+  void clientErrorIsNotTreatedAsUnavailability() {
+    Exception exception = decoder.decode("UserClient#getUserDtoByUuid(UUID)",
+        response(404, "{\"message\":\"Пользователь не найден\"}"));
+
+    assertThat(exception).isExactlyInstanceOf(ResponseStatusException.class);
+    assertThat(((ResponseStatusException) exception).getStatusCode())
+        .isEqualTo(HttpStatus.NOT_FOUND);
+  }
+
+  @Test
+  void timeoutIsDecodedAsGatewayTimeout() {
+    RuntimeException exception = FeignErrorDecoder.decodeFailure(new RetryableException(-1,
+        "Read timed out", Request.HttpMethod.GET, null, REQUEST));
+
+    assertThat(exception).isInstanceOf(ServiceUnavailableException.class);
+    assertThat(((ResponseStatusException) exception).getStatusCode())
+        .isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+  }
+
+  @Test
+  void openCircuitAndFullBulkheadAreDecodedAsServiceUnavailable() {
+    RuntimeException openCircuit = FeignErrorDecoder.decodeFailure(
+        CallNotPermittedException.createCallNotPermittedException(
+            CircuitBreaker.ofDefaults("user-client")));
+    RuntimeException fullBulkhead = FeignErrorDecoder.decodeFailure(
+        BulkheadFullException.createBulkheadFullException(Bulkhead.ofDefaults("user-client")));
+
+    assertThat(openCircuit).isInstanceOf(ServiceUnavailableException.class);
+    assertThat(((ResponseStatusException) openCircuit).getStatusCode())
+        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(fullBulkhead).isInstanceOf(ServiceUnavailableException.class);
+    assertThat(((ResponseStatusException) fullBulkhead).getStatusCode())
+        .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @Test
+  void otherFailuresKeepRuntimeExceptionsAndWrapCheckedOnes() {
+    IllegalStateException runtimeFailure = new IllegalStateException("boom");
+
+    assertThat(FeignErrorDecoder.decodeFailure(runtimeFailure)).isSameAs(runtimeFailure);
+    RuntimeException checkedFailure = FeignErrorDecoder.decodeFailure(new IOException("reset"));
+    assertThat(checkedFailure).isInstanceOf(ServiceUnavailableException.class)
+        .hasCauseInstanceOf(IOException.class);
+  }
+
+  private static Response response(int status, String body) {
+    return Response.builder()
+        .status(status)
+        .request(REQUEST)
+        .headers(Map.of())
+        .body(body, StandardCharsets.UTF_8)
+        .build();
+  }
+}
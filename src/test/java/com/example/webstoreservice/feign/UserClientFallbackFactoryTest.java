@@ -0,0 +1,96 @@
+package com.example.webstoreservice.feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.webstoreservice.cache.UserDtoCache;
+import com.example.webstoreservice.model.dto.UserDto;
+import feign.Request;
+import feign.RetryableException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class UserClientFallbackFactoryTest {
+
+  private static final UUID USER_UUID = UUID.randomUUID();
+
+  private static final Request REQUEST = Request.create(Request.HttpMethod.GET,
+      "http://localhost/users/uuid/" + USER_UUID, Map.of(), null, StandardCharsets.UTF_8, null);
+
+  private final AtomicBoolean available = new AtomicBoolean(true);
+
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+  private final CircuitBreaker circuitBreaker = CircuitBreaker.of("user-client",
+      CircuitBreakerConfig.custom()
+          .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+          .slidingWindowSize(4)
+          .minimumNumberOfCalls(4)
+          .failureRateThreshold(50)
+          .waitDurationInOpenState(Duration.ofMinutes(1))
+          .build());
+
+  private final UserClientFallbackFactory fallbackFactory = new UserClientFallbackFactory();
+
+  private final UserDtoCache userDtoCache = new UserDtoCache(100, Duration.ZERO,
+      Duration.ofHours(1), new SimpleMeterRegistry());
+
+  @Test
+  void openCircuitFallsBackToStaleUser() {
+    UserDto loaded = getUser();
+    available.set(false);
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(getUser()).isEqualTo(loaded);
+    }
+    assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    int callsWhenOpened = upstreamCalls.get();
+
+    assertThat(getUser()).isEqualTo(loaded);
+    assertThat(upstreamCalls.get()).isEqualTo(callsWhenOpened);
+  }
+
+  @Test
+  void openCircuitWithoutStaleUserIsServiceUnavailable() {
+    available.set(false);
+    for (int i = 0; i < 4; i++) {
+      assertThatThrownBy(this::getUser).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    assertThatThrownBy(this::getUser)
+        .isInstanceOf(ServiceUnavailableException.class)
+        .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+            .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    assertThat(upstreamCalls.get()).isEqualTo(4);
+  }
+
+  private UserDto getUser() {
+    return userDtoCache.get(USER_UUID, new Date(System.currentTimeMillis() + 60_000),
+        () -> {
+          try {
+            return circuitBreaker.executeSupplier(this::callUpstream);
+          } catch (RuntimeException e) {
+            return fallbackFactory.create(e).getUserDtoByUuid(USER_UUID);
+          }
+        });
+  }
+
+  private UserDto callUpstream() {
+    upstreamCalls.incrementAndGet();
+    if (!available.get()) {
+      throw new RetryableException(-1, "Read timed out", Request.HttpMethod.GET, null, REQUEST);
+    }
+    return UserDto.builder().userUuid(USER_UUID).username("testUser").build();
+  }
+}
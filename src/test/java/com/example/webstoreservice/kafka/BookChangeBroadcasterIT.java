@@ -0,0 +1,125 @@
+package com.example.webstoreservice.kafka;
+
+import static com.example.webstoreservice.model.entity.Author.Fields.authorName;
+import static com.example.webstoreservice.model.entity.Genre.Fields.genreName;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.webstoreservice.IntegrationTestBase;
+import com.example.webstoreservice.event.BookChangeMessage;
+import com.example.webstoreservice.model.entity.Author;
+import com.example.webstoreservice.model.entity.Book;
+import com.example.webstoreservice.model.entity.Genre;
+import com.example.webstoreservice.model.enums.BookChangeType;
+import com.example.webstoreservice.repository.AuthorRepository;
+import com.example.webstoreservice.repository.BookRepository;
+import com.example.webstoreservice.repository.GenreRepository;
+import com.example.webstoreservice.service.impl.BookServiceImpl;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@RequiredArgsConstructor
+@EmbeddedKafka(topics = BookChangeBroadcasterIT.TOPIC)
+@TestPropertySource(properties = {
+    "book.change.kafka.enabled=true",
+    "book.change.kafka.topic=" + BookChangeBroadcasterIT.TOPIC,
+    "spring.kafka.producer.bootstrap-servers=${spring.embedded.kafka.brokers}",
+    "spring.kafka.consumer.bootstrap-servers=${spring.embedded.kafka.brokers}"})
+class BookChangeBroadcasterIT extends IntegrationTestBase {
+
+  static final String TOPIC = "book-change-topic";
+
+  private final BookChangeBroadcaster bookChangeBroadcaster;
+
+  private final BookServiceImpl bookService;
+
+  private final BookRepository bookRepository;
+
+  private final AuthorRepository authorRepository;
+
+  private final GenreRepository genreRepository;
+
+  private final EntityManagerFactory entityManagerFactory;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final EmbeddedKafkaBroker embeddedKafkaBroker;
+
+  @Test
+  void localChangeIsPublishedAfterCommit() {
+    Book book = saveBook("ISBN-broadcast-local");
+    Map<String, Object> consumerProps =
+        KafkaTestUtils.consumerProps("book-change-test", "false", embeddedKafkaBroker);
+
+    try (Consumer<String, BookChangeMessage> consumer = new DefaultKafkaConsumerFactory<>(
+        consumerProps, new StringDeserializer(),
+        new JsonDeserializer<>(BookChangeMessage.class, false)).createConsumer()) {
+      embeddedKafkaBroker.consumeFromAnEmbeddedTopic(consumer, TOPIC);
+
+      bookService.deleteBookById(book.getId());
+
+      ConsumerRecord<String, BookChangeMessage> record =
+          KafkaTestUtils.getSingleRecord(consumer, TOPIC);
+      assertThat(record.key()).isEqualTo(book.getId().toString());
+      assertThat(record.value().bookId()).isEqualTo(book.getId());
+      assertThat(record.value().version()).isEqualTo(book.getVersion() + 1);
+      assertThat(record.value().changeType()).isEqualTo(BookChangeType.DELETED);
+    } finally {
+      deleteBook(book);
+    }
+  }
+
+  @Test
+  void remoteChangeEvictsBookAndSkipsStaleVersions() {
+    Book book = saveBook("ISBN-broadcast-remote");
+    Cache cache = entityManagerFactory.getCache();
+
+    try {
+      bookRepository.findById(book.getId());
+      assertThat(cache.contains(Book.class, book.getId())).isTrue();
+
+      bookChangeBroadcaster.onRemoteChange(
+          new BookChangeMessage("other-node", book.getId(), 5L, BookChangeType.UPDATED));
+      assertThat(cache.contains(Book.class, book.getId())).isFalse();
+
+      bookRepository.findById(book.getId());
+      bookChangeBroadcaster.onRemoteChange(
+          new BookChangeMessage("other-node", book.getId(), 4L, BookChangeType.UPDATED));
+      bookChangeBroadcaster.onRemoteChange(
+          new BookChangeMessage("other-node", book.getId(), 5L, BookChangeType.UPDATED));
+      assertThat(cache.contains(Book.class, book.getId())).isTrue();
+    } finally {
+      deleteBook(book);
+    }
+  }
+
+  private Book saveBook(String isbn) {
+    return transactionTemplate.execute(status -> bookRepository.save(Book.builder()
+        .title("title")
+        .author(authorRepository.save(Author.builder().authorName(authorName).build()))
+        .genre(genreRepository.save(Genre.builder().genreName(genreName).build()))
+        .ISBN(isbn)
+        .deleted(false)
+        .build()));
+  }
+
+  private void deleteBook(Book book) {
+    transactionTemplate.executeWithoutResult(status -> {
+      bookRepository.deleteById(book.getId());
+      authorRepository.deleteById(book.getAuthor().getId());
+      genreRepository.deleteById(book.getGenre().getId());
+    });
+  }
+}
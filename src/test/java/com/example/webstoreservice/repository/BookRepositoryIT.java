@@ -9,14 +9,38 @@ import static com.example.webstoreservice.model.entity.Book.Fields.genre;
 import static com.example.webstoreservice.model.entity.Book.Fields.title;
 import static com.example.webstoreservice.model.entity.Genre.Fields.genreName;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 import com.example.webstoreservice.IntegrationTestBase;
+import com.example.webstoreservice.model.BookCursor;
+import com.example.webstoreservice.model.BookFacetRow;
+import com.example.webstoreservice.model.BookSpecifications;
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.dto.BookFilterDto;
 import com.example.webstoreservice.model.entity.Author;
 import com.example.webstoreservice.model.entity.Book;
 import com.example.webstoreservice.model.entity.Genre;
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @RequiredArgsConstructor
 @Transactional
@@ -28,6 +52,12 @@ public class BookRepositoryIT extends IntegrationTestBase {
 
   private final GenreRepository genreRepository;
 
+  private final EntityManagerFactory entityManagerFactory;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final EntityManager entityManager;
+
   @Test
   void SaveBook() {
 
@@ -61,4 +91,201 @@ public class BookRepositoryIT extends IntegrationTestBase {
         .hasFieldOrPropertyWithValue(deleted, false)
         .isEqualTo(book);
   }
-}
\ No newline at end of file
+
+  @ParameterizedTest
+  @EnumSource(SortDirection.class)
+  void findViewsWithCursorWalksAllBooksInOrder(SortDirection sortDirection) {
+    Author savedAuthor = authorRepository.save(Author.builder().authorName(authorName).build());
+    Genre savedGenre = genreRepository.save(Genre.builder().genreName(genreName).build());
+    List<BigDecimal> prices = Arrays.asList(
+        new BigDecimal("100.00"), null, new BigDecimal("100.00"), new BigDecimal("50.00"), null);
+    for (int i = 0; i < prices.size(); i++) {
+      bookRepository.save(Book.builder()
+          .title("title" + i)
+          .author(savedAuthor)
+          .genre(savedGenre)
+          .price(prices.get(i))
+          .ISBN("ISBN-keyset-" + sortDirection + i)
+          .deleted(false)
+          .build());
+    }
+    BookFilterDto filter = BookFilterDto.builder().authorId(savedAuthor.getId()).build();
+
+    List<BookView> expected = bookRepository.findViews(BookSpecifications.filter(filter)
+        .and(BookSpecifications.orderByKeyset(SortBy.PRICE, sortDirection)));
+
+    List<BookView> walked = new ArrayList<>();
+    BookCursor cursor = null;
+    List<BookView> page;
+    do {
+      page = bookRepository.findViewsAfter(BookSpecifications.filter(filter), SortBy.PRICE,
+          sortDirection, cursor, 2);
+      walked.addAll(page);
+      if (!page.isEmpty()) {
+        cursor = BookCursor.decode(
+            BookCursor.of(page.get(page.size() - 1), SortBy.PRICE, sortDirection).encode(),
+            SortBy.PRICE, sortDirection);
+      }
+    } while (!page.isEmpty());
+
+    assertThat(walked)
+        .hasSize(prices.size())
+        .containsExactlyElementsOf(expected);
+  }
+
+  @ParameterizedTest
+  @EnumSource(SortDirection.class)
+  void keysetSeekStartsIndexRangeAtCursor(SortDirection sortDirection) {
+    String comparison = sortDirection == SortDirection.ASC ? ">" : "<";
+    String seekSql = generatedSql(repository -> repository.findViewsAfter(
+        BookSpecifications.filter(BookFilterDto.builder().build()), SortBy.PRICE, sortDirection,
+        new BookCursor(SortBy.PRICE, sortDirection, new BigDecimal("100.00"), 5L), 3)).get(0);
+    entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+    entityManager.createNativeQuery("SET LOCAL enable_bitmapscan = off").executeUpdate();
+
+    List<?> plan = entityManager.createNativeQuery("EXPLAIN (GENERIC_PLAN) " + seekSql)
+        .getResultList();
+
+    assertThat(plan)
+        .map(String::valueOf)
+        .anySatisfy(line -> assertThat(line).contains("idx_books_price_book_id"))
+        .anySatisfy(line -> assertThat(line).contains("Index Cond")
+            .contains("price " + comparison + "= $"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"маргариту", "МАСТЕР", "стер и мар"})
+  void titleMatchesFindsBooksByWordFormAndSubstring(String query) {
+    Book book = bookRepository.save(Book.builder()
+        .title("Мастер и Маргарита")
+        .author(authorRepository.save(Author.builder().authorName(authorName).build()))
+        .genre(genreRepository.save(Genre.builder().genreName(genreName).build()))
+        .ISBN("ISBN-search")
+        .deleted(false)
+        .build());
+
+    List<BookView> found = bookRepository.findViews(BookSpecifications.filter(
+            BookFilterDto.builder().title(query).authorId(book.getAuthor().getId()).build())
+        .and(BookSpecifications.orderByRelevance(query)));
+
+    assertThat(found)
+        .extracting(BookView::bookId)
+        .containsExactly(book.getId());
+  }
+
+  @Test
+  void relevanceSortPutsBestMatchFirst() {
+    Author savedAuthor = authorRepository.save(Author.builder().authorName(authorName).build());
+    Genre savedGenre = genreRepository.save(Genre.builder().genreName(genreName).build());
+    List<Book> books = bookRepository.saveAll(List.of("Мастер и Маргарита", "Маргарита").stream()
+        .map(bookTitle -> Book.builder()
+            .title(bookTitle)
+            .author(savedAuthor)
+            .genre(savedGenre)
+            .ISBN("ISBN-relevance-" + bookTitle.length())
+            .deleted(false)
+            .build())
+        .toList());
+
+    List<BookView> found = bookRepository.findViews(BookSpecifications.filter(
+            BookFilterDto.builder().title("маргарита").authorId(savedAuthor.getId()).build())
+        .and(BookSpecifications.orderByRelevance("маргарита")));
+
+    assertThat(found)
+        .extracting(BookView::bookId)
+        .containsExactly(books.get(1).getId(), books.get(0).getId());
+  }
+
+  @Test
+  void countFacetsGroupsBooksByGenreAuthorAndPriceBucket() {
+    Author savedAuthor = authorRepository.save(Author.builder().authorName(authorName).build());
+    Genre firstGenre = genreRepository.save(Genre.builder().genreName(genreName).build());
+    Genre secondGenre = genreRepository.save(Genre.builder().genreName(genreName).build());
+    List<BigDecimal> prices = Arrays.asList(
+        new BigDecimal("100.00"), new BigDecimal("500.00"), new BigDecimal("700.00"), null);
+    for (int i = 0; i < prices.size(); i++) {
+      bookRepository.save(Book.builder()
+          .title("title" + i)
+          .author(savedAuthor)
+          .genre(i == 0 ? secondGenre : firstGenre)
+          .price(prices.get(i))
+          .ISBN("ISBN-facets" + i)
+          .deleted(false)
+          .build());
+    }
+
+    List<BookFacetRow> rows = bookRepository.countFacets(BookSpecifications.filter(
+            BookFilterDto.builder().authorId(savedAuthor.getId()).build()),
+        List.of(new BigDecimal("300"), new BigDecimal("500")));
+
+    assertThat(rows)
+        .extracting(BookFacetRow::genreId, BookFacetRow::priceBucket, BookFacetRow::count)
+        .containsExactlyInAnyOrder(
+            tuple(secondGenre.getId(), 0, 1L),
+            tuple(firstGenre.getId(), 2, 2L),
+            tuple(firstGenre.getId(), null, 1L));
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void repeatedFindByIdIsServedFromSecondLevelCache() {
+    Book book = transactionTemplate.execute(status -> bookRepository.save(Book.builder()
+        .title("title")
+        .author(authorRepository.save(Author.builder().authorName(authorName).build()))
+        .genre(genreRepository.save(Genre.builder().genreName(genreName).build()))
+        .ISBN("ISBN-second-level-cache")
+        .deleted(false)
+        .build()));
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    entityManagerFactory.getCache().evictAll();
+    statistics.clear();
+
+    try {
+      for (int i = 0; i < 3; i++) {
+        transactionTemplate.executeWithoutResult(status -> {
+          Book found = bookRepository.findById(book.getId()).orElseThrow();
+          assertThat(found.getAuthor().getAuthorName()).isEqualTo(authorName);
+          assertThat(found.getGenre().getGenreName()).isEqualTo(genreName);
+        });
+      }
+
+      assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+      assertThat(statistics.getDomainDataRegionStatistics(Book.CACHE_REGION).getHitCount())
+          .isEqualTo(2);
+    } finally {
+      transactionTemplate.executeWithoutResult(status -> {
+        bookRepository.deleteById(book.getId());
+        authorRepository.deleteById(book.getAuthor().getId());
+        genreRepository.deleteById(book.getGenre().getId());
+      });
+    }
+  }
+
+  private List<String> generatedSql(Consumer<BookRepositoryCustom> call) {
+    List<String> statements = new ArrayList<>();
+    try (Session session = entityManagerFactory.unwrap(SessionFactory.class).withOptions()
+        .statementInspector(sql -> {
+          statements.add(sql);
+          return sql;
+        })
+        .openSession()) {
+      BookRepositoryCustomImpl repository = new BookRepositoryCustomImpl();
+      ReflectionTestUtils.setField(repository, "entityManager", session);
+      call.accept(repository);
+    }
+    return statements.stream()
+        .map(sql -> {
+          StringBuilder numbered = new StringBuilder();
+          int parameter = 0;
+          for (char c : sql.toCharArray()) {
+            if (c == '?') {
+              numbered.append('$').append(++parameter);
+            } else {
+              numbered.append(c);
+            }
+          }
+          return numbered.toString();
+        })
+        .toList();
+  }
+}
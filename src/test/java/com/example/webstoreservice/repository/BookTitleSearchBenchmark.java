@@ -0,0 +1,94 @@
+package com.example.webstoreservice.repository;
+
+import com.example.webstoreservice.BenchmarkContext;
+import com.example.webstoreservice.model.BookSpecifications;
+import com.example.webstoreservice.model.BookView;
+import com.example.webstoreservice.model.entity.Book;
+import com.example.webstoreservice.model.entity.Book_;
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Сравнение поиска книг по названию на сгенерированном каталоге: прежнее условие
+ * {@code title LIKE '%запрос%'}, условие полнотекстового и триграммного поиска
+ * {@link BookSpecifications#titleMatches} с сортировкой по названию и оно же с сортировкой по
+ * релевантности. Первая страница из 20 книг запрашивается через {@link BookRepository}, поэтому
+ * измеряются SQL-запросы, которые формирует приложение.
+ *
+ * <p>Требует Docker. Запуск:
+ * {@code mvn -Pbenchmark test -Dbenchmark=BookTitleSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookTitleSearchBenchmark {
+
+  private static final int PAGE_SIZE = 20;
+
+  @Param({"1000000"})
+  private int books;
+
+  @Param({"маргарита", "мастер и маргарита", "123456"})
+  private String query;
+
+  private BenchmarkContext context;
+
+  private BookRepository bookRepository;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new BenchmarkContext("catalog.suggest.enabled=false");
+    context.generateBooks(books);
+    bookRepository = context.getBean(BookRepository.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<BookView> likeContains() {
+    return bookRepository.findViews(titleContains(query)
+        .and(BookSpecifications.notDeleted())
+        .and(BookSpecifications.orderBy(SortBy.TITLE, SortDirection.ASC)), 0, PAGE_SIZE);
+  }
+
+  @Benchmark
+  public List<BookView> titleMatches() {
+    return bookRepository.findViews(BookSpecifications.titleMatches(query)
+        .and(BookSpecifications.notDeleted())
+        .and(BookSpecifications.orderBy(SortBy.TITLE, SortDirection.ASC)), 0, PAGE_SIZE);
+  }
+
+  @Benchmark
+  public List<BookView> titleMatchesByRelevance() {
+    return bookRepository.findViews(BookSpecifications.titleMatches(query)
+        .and(BookSpecifications.notDeleted())
+        .and(BookSpecifications.orderByRelevance(query)), 0, PAGE_SIZE);
+  }
+
+  private static Specification<Book> titleContains(String title) {
+    return (root, query, criteriaBuilder) ->
+        criteriaBuilder.like(root.get(Book_.title), "%" + title + "%");
+  }
+}
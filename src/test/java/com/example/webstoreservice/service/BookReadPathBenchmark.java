@@ -0,0 +1,128 @@
+package com.example.webstoreservice.service;
+
+import com.example.webstoreservice.BenchmarkContext;
+import com.example.webstoreservice.model.BookSpecifications;
+import com.example.webstoreservice.model.dto.BookDto;
+import com.example.webstoreservice.model.dto.BookFilterDto;
+import com.example.webstoreservice.model.dto.SliceDto;
+import com.example.webstoreservice.model.enums.SortBy;
+import com.example.webstoreservice.model.enums.SortDirection;
+import com.example.webstoreservice.model.mapper.BookMapper;
+import com.example.webstoreservice.repository.BookRepository;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Сравнение чтения каталога через управляемые сущности {@code Book} с преобразованием
+ * {@link BookMapper#bookToBookDto} и через проекцию {@code BookView}: карточка книги и страница
+ * списка из 20 книг. Кэш второго уровня отключен, поэтому оба варианта читают базу данных.
+ * Распределение памяти на операцию выводится профилировщиком {@code gc}.
+ *
+ * <p>Требует Docker. Запуск:
+ * {@code mvn -Pbenchmark test -Dbenchmark="BookReadPathBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BookReadPathBenchmark {
+
+  private static final int PAGE_SIZE = 20;
+
+  private static final int PAGES = 50;
+
+  @Param({"100000"})
+  private int books;
+
+  private BenchmarkContext context;
+
+  private BookService bookService;
+
+  private BookRepository bookRepository;
+
+  private BookMapper bookMapper;
+
+  private TransactionTemplate readOnlyTransaction;
+
+  private long firstBookId;
+
+  private long lastBookId;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new BenchmarkContext("catalog.suggest.enabled=false",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+    context.generateBooks(books);
+    bookService = context.getBean(BookService.class);
+    bookRepository = context.getBean(BookRepository.class);
+    bookMapper = context.getBean(BookMapper.class);
+    readOnlyTransaction = new TransactionTemplate(
+        context.getBean(PlatformTransactionManager.class));
+    readOnlyTransaction.setReadOnly(true);
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    firstBookId = jdbcTemplate.queryForObject("SELECT min(book_id) FROM books", Long.class);
+    lastBookId = jdbcTemplate.queryForObject("SELECT max(book_id) FROM books", Long.class);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public BookDto detailFromEntity() {
+    long bookId = randomBookId();
+    return readOnlyTransaction.execute(status -> bookRepository.findById(bookId)
+        .map(bookMapper::bookToBookDto)
+        .orElseThrow());
+  }
+
+  @Benchmark
+  public BookDto detailFromView() {
+    return bookService.getBookDtoById(randomBookId());
+  }
+
+  @Benchmark
+  public List<BookDto> listingFromEntities() {
+    PageRequest page = randomPage();
+    return readOnlyTransaction.execute(status -> bookRepository.findAll(
+            BookSpecifications.filter(BookFilterDto.builder().build())
+                .and(BookSpecifications.orderBy(SortBy.TITLE, SortDirection.ASC)), page)
+        .map(bookMapper::bookToBookDto)
+        .getContent());
+  }
+
+  @Benchmark
+  public SliceDto<BookDto> listingFromViews() {
+    return bookService.getBooksSlice(BookFilterDto.builder().build(), SortBy.TITLE,
+        SortDirection.ASC, randomPage());
+  }
+
+  private long randomBookId() {
+    return ThreadLocalRandom.current().nextLong(firstBookId, lastBookId + 1);
+  }
+
+  private static PageRequest randomPage() {
+    return PageRequest.of(ThreadLocalRandom.current().nextInt(PAGES), PAGE_SIZE);
+  }
+}
@@ -2,22 +2,34 @@ package com.example.webstoreservice.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import com.example.webstoreservice.cache.BookCoverCache;
+import com.example.webstoreservice.model.BookCover;
 import com.example.webstoreservice.model.entity.Book;
 import com.example.webstoreservice.model.mapper.BookMapper;
 import com.example.webstoreservice.repository.BookRepository;
 import com.example.webstoreservice.service.impl.BookServiceImpl;
+import com.example.webstoreservice.storage.CoverStorage;
+import com.example.webstoreservice.storage.CoverVariantPipeline;
 
 import jakarta.persistence.EntityNotFoundException;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
 
 @ExtendWith(MockitoExtension.class)
 class BookServiceTest {
@@ -30,6 +42,15 @@ class BookServiceTest {
   @Mock
   private BookMapper bookMapper;
 
+  @Mock
+  private BookCoverCache bookCoverCache;
+
+  @Mock
+  private CoverStorage coverStorage;
+
+  @Mock
+  private CoverVariantPipeline coverVariantPipeline;
+
   @InjectMocks
   private BookServiceImpl bookService;
 
@@ -57,6 +78,27 @@ class BookServiceTest {
     assertThat(result.getId()).isEqualTo(BOOK_ID);
   }
 
+  @Test
+  void getBookCoverCachesOriginalUnderOwnKeyWhileVariantIsNotBuilt() {
+    Book book = Book.builder().version(3L).coverPath("ab/cover.png").build();
+    book.setId(BOOK_ID);
+    Resource original = new ByteArrayResource(new byte[]{1, 2, 3});
+
+    doReturn(Optional.of(book)).when(bookRepository).findById(BOOK_ID);
+    doReturn(true).when(coverVariantPipeline).supports("thumb");
+    doReturn(false).when(coverVariantPipeline).exists("ab/cover.png", "thumb");
+    doReturn(Optional.of(original)).when(coverStorage).find("ab/cover.png");
+    doAnswer(invocation -> invocation.<Supplier<Resource>>getArgument(3).get())
+        .when(bookCoverCache).get(eq(BOOK_ID), eq(3L), isNull(), any());
+
+    BookCover cover = bookService.getBookCover(BOOK_ID, "thumb");
+    assertThat(cover.eTag()).isEqualTo("3-original");
+    verifyNoInteractions(bookCoverCache, coverStorage);
+
+    assertThat(bookService.getBookCoverContent(cover)).isSameAs(original);
+    verify(bookCoverCache).get(eq(BOOK_ID), eq(3L), isNull(), any());
+  }
+
   @AfterEach
   void verifyInteractions() {
     verify(bookRepository).findById(BOOK_ID);
@@ -27,6 +27,8 @@ import com.example.webstoreservice.repository.GenreRepository;
 import com.example.webstoreservice.repository.OrderRepository;
 import com.example.webstoreservice.service.impl.OrderServiceImpl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -34,11 +36,16 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @RequiredArgsConstructor
 @Transactional
@@ -55,6 +62,12 @@ class OrderServiceIT extends IntegrationTestBase {
 
   private final GenreRepository genreRepository;
 
+  private final EntityManagerFactory entityManagerFactory;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final ObjectMapper objectMapper;
+
   @MockBean
   private final UserService userService;
 
@@ -229,6 +242,37 @@ class OrderServiceIT extends IntegrationTestBase {
     assertThat(orderDto.books()).containsExactlyInAnyOrderElementsOf(testCart.getBooks());
   }
 
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void addToCartWithCachedBookLoadsAssociationsThroughEntityGraph() throws Exception {
+    Book book = transactionTemplate.execute(status -> createTestBooks("ISBN-cached").get(0));
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    transactionTemplate.executeWithoutResult(
+        status -> bookRepository.findById(book.getId()).orElseThrow());
+    statistics.clear();
+
+    doReturn(testUserDto()).when(userService).getAuthenticatedUser();
+
+    OrderDto orderDto = orderService.addToCart(book.getId());
+    try {
+      assertThat(statistics.getDomainDataRegionStatistics(Book.CACHE_REGION).getHitCount())
+          .isZero();
+      assertThat(orderDto.books()).singleElement().satisfies(cartBook -> {
+        assertThat(Hibernate.isInitialized(cartBook.getAuthor())).isTrue();
+        assertThat(Hibernate.isInitialized(cartBook.getGenre())).isTrue();
+      });
+      assertThat(objectMapper.writeValueAsString(orderDto))
+          .contains(authorName, genreName);
+    } finally {
+      transactionTemplate.executeWithoutResult(status -> {
+        orderRepository.deleteById(orderDto.orderId());
+        bookRepository.deleteById(book.getId());
+        authorRepository.deleteById(book.getAuthor().getId());
+        genreRepository.deleteById(book.getGenre().getId());
+      });
+    }
+  }
+
   @Test
   void removeFromCartIfCartHasOneBook() {
     UserDto userDto = testUserDto();
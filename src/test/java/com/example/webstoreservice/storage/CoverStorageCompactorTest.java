@@ -0,0 +1,53 @@
+package com.example.webstoreservice.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.webstoreservice.repository.BookRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class CoverStorageCompactorTest {
+
+  private static final String REFERENCED = "ab/" + "a".repeat(64) + ".png";
+
+  private static final String UNREFERENCED = "cd/" + "c".repeat(64) + "-thumb.png";
+
+  private static final Duration GRACE_PERIOD = Duration.ofMinutes(10);
+
+  private final CoverStorage coverStorage = mock(CoverStorage.class);
+
+  private final CoverVariantPipeline coverVariantPipeline = mock(CoverVariantPipeline.class);
+
+  private final BookRepository bookRepository = mock(BookRepository.class);
+
+  private final CoverStorageCompactor compactor = new CoverStorageCompactor(coverStorage,
+      coverVariantPipeline, bookRepository);
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void compactKeepsUnreferencedCoversStoredWithinGracePeriod() throws Exception {
+    ReflectionTestUtils.setField(compactor, "gracePeriod", GRACE_PERIOD);
+    when(bookRepository.findCoverPaths()).thenReturn(List.of(REFERENCED));
+    when(coverVariantPipeline.owners(List.of(REFERENCED))).thenReturn(REFERENCED::equals);
+    ArgumentCaptor<Predicate<String>> live = ArgumentCaptor.forClass(Predicate.class);
+    ArgumentCaptor<Instant> before = ArgumentCaptor.forClass(Instant.class);
+
+    Instant startedAt = Instant.now();
+    compactor.compact();
+
+    verify(coverStorage).compact(live.capture(), before.capture());
+    assertThat(before.getValue())
+        .isBetween(startedAt.minus(GRACE_PERIOD), Instant.now().minus(GRACE_PERIOD));
+    assertThat(live.getValue())
+        .accepts(REFERENCED, "legacy/cover.png")
+        .rejects(UNREFERENCED);
+  }
+}
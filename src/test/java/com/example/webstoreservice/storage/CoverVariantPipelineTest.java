@@ -0,0 +1,111 @@
+package com.example.webstoreservice.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.webstoreservice.cache.BookCoverCache;
+import com.example.webstoreservice.event.BookChangedEvent;
+import com.example.webstoreservice.model.entity.Book;
+import com.example.webstoreservice.model.enums.BookChangeType;
+import com.example.webstoreservice.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+class CoverVariantPipelineTest {
+
+  private final BookRepository bookRepository = mock(BookRepository.class);
+
+  private final BookCoverCache bookCoverCache = mock(BookCoverCache.class);
+
+  @TempDir
+  private Path root;
+
+  private DirectoryCoverStorage coverStorage;
+
+  private CoverVariantPipeline pipeline;
+
+  @BeforeEach
+  void setUp() {
+    coverStorage = new DirectoryCoverStorage(root.toString(), DataSize.ofMegabytes(1));
+    pipeline = new CoverVariantPipeline(coverStorage, bookRepository, bookCoverCache,
+        List.of("thumb:120", " medium : 360"), 1, 10, 500 * 500, new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  void tearDown() {
+    pipeline.shutdown();
+  }
+
+  @Test
+  void coverChangeBuildsVariantsNarrowerThanOriginal() throws Exception {
+    String coverPath = storeImage(400, 200);
+    when(bookRepository.findById(1L))
+        .thenReturn(Optional.of(Book.builder().coverPath(coverPath).build()));
+
+    assertThat(pipeline.find(coverPath, "thumb")).isEmpty();
+    pipeline.onBookChanged(new BookChangedEvent(1L, 1L, BookChangeType.COVER_CHANGED, false));
+    verify(bookCoverCache, timeout(5000)).evict(1L);
+
+    BufferedImage thumb = read(pipeline.find(coverPath, "thumb").orElseThrow());
+    assertThat(thumb.getWidth()).isEqualTo(120);
+    assertThat(thumb.getHeight()).isEqualTo(60);
+    BufferedImage medium = read(pipeline.find(coverPath, "medium").orElseThrow());
+    assertThat(medium.getWidth()).isEqualTo(360);
+    assertThat(pipeline.owners(List.of(coverPath)))
+        .accepts(coverPath, coverPath.replace(".png", "-thumb.png"))
+        .rejects(coverPath.substring(0, 3) + "0".repeat(64) + "-thumb.png");
+    assertThat(pipeline.supports("thumb")).isTrue();
+    assertThat(pipeline.supports("large")).isFalse();
+  }
+
+  @Test
+  void regenerateAllMarksVariantsNotNarrowerThanOriginal() throws Exception {
+    String coverPath = storeImage(200, 300);
+    when(bookRepository.findCoverPaths()).thenReturn(List.of(coverPath));
+
+    pipeline.regenerateAll();
+    verify(bookCoverCache, timeout(5000)).evictAll();
+
+    assertThat(pipeline.find(coverPath, "thumb")).isPresent();
+    assertThat(pipeline.find(coverPath, "medium")).isEmpty();
+    assertThat(pipeline.exists(coverPath, "medium")).isFalse();
+    assertThat(coverStorage.exists(coverPath.replace(".png", "-medium.png"))).isTrue();
+  }
+
+  @Test
+  void regenerateAllSkipsCoversOverPixelBudget() throws Exception {
+    String coverPath = storeImage(600, 500);
+    when(bookRepository.findCoverPaths()).thenReturn(List.of(coverPath));
+
+    pipeline.regenerateAll();
+    verify(bookCoverCache, timeout(5000)).evictAll();
+
+    assertThat(pipeline.exists(coverPath, "thumb")).isFalse();
+    assertThat(pipeline.exists(coverPath, "medium")).isFalse();
+  }
+
+  private static BufferedImage read(Resource resource) throws Exception {
+    return ImageIO.read(new ByteArrayInputStream(resource.getContentAsByteArray()));
+  }
+
+  private String storeImage(int width, int height) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+    return coverStorage.store(new ByteArrayInputStream(out.toByteArray()), "png");
+  }
+}
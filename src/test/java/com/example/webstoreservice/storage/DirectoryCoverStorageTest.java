@@ -0,0 +1,80 @@
+package com.example.webstoreservice.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class DirectoryCoverStorageTest {
+
+  private static final byte[] COVER = "cover".getBytes();
+
+  @TempDir
+  private Path root;
+
+  private DirectoryCoverStorage coverStorage;
+
+  @BeforeEach
+  void setUp() {
+    coverStorage = new DirectoryCoverStorage(root.toString(), DataSize.ofBytes(16));
+  }
+
+  @Test
+  void identicalCoversAreStoredOnceUnderTheirHash() throws Exception {
+    String first = coverStorage.store(new ByteArrayInputStream(COVER), "PNG");
+    String second = coverStorage.store(new ByteArrayInputStream(COVER), "png");
+
+    String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(COVER));
+    assertThat(first).isEqualTo(second).isEqualTo(hash.substring(0, 2) + "/" + hash + ".png");
+    assertThat(Files.readAllBytes(root.resolve(first))).isEqualTo(COVER);
+    assertThat(regularFiles()).containsExactly(root.resolve(first));
+  }
+
+  @Test
+  void unsafeExtensionIsDropped() throws Exception {
+    assertThat(coverStorage.store(new ByteArrayInputStream(COVER), "../png"))
+        .matches("[0-9a-f]{2}/[0-9a-f]{64}");
+  }
+
+  @Test
+  void coverLargerThanLimitIsRejectedWithoutLeavingFiles() throws Exception {
+    assertThatThrownBy(() -> coverStorage.store(new ByteArrayInputStream(new byte[17]), "png"))
+        .isInstanceOf(IllegalArgumentException.class);
+
+    assertThat(regularFiles()).isEmpty();
+  }
+
+  @Test
+  void compactDeletesOnlyUnusedCoversStoredBeforeStart() throws Exception {
+    String used = coverStorage.store(new ByteArrayInputStream(COVER), "png");
+    String unused = coverStorage.store(new ByteArrayInputStream("old".getBytes()), "png");
+    Instant startedAt = Instant.now().plusSeconds(1);
+    String fresh = coverStorage.store(new ByteArrayInputStream("new".getBytes()), "png");
+    Files.setLastModifiedTime(root.resolve(fresh), FileTime.from(startedAt.plusSeconds(1)));
+
+    coverStorage.compact(used::equals, startedAt);
+
+    assertThat(coverStorage.exists(used)).isTrue();
+    assertThat(coverStorage.exists(unused)).isFalse();
+    assertThat(coverStorage.exists(fresh)).isTrue();
+    assertThat(coverStorage.find(used).orElseThrow().getContentAsByteArray()).isEqualTo(COVER);
+  }
+
+  private List<Path> regularFiles() throws Exception {
+    try (Stream<Path> files = Files.walk(root)) {
+      return files.filter(Files::isRegularFile).toList();
+    }
+  }
+}
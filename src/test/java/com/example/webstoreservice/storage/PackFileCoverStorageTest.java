@@ -0,0 +1,197 @@
+package com.example.webstoreservice.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+class PackFileCoverStorageTest {
+
+  private static final byte[] COVER = "cover".getBytes();
+
+  @TempDir
+  private Path root;
+
+  private PackFileCoverStorage coverStorage;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    coverStorage = open();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    coverStorage.close();
+  }
+
+  @Test
+  void storedCoverIsServedFromPack() throws Exception {
+    String first = coverStorage.store(new ByteArrayInputStream(COVER), "png");
+    String second = coverStorage.store(new ByteArrayInputStream(COVER), "png");
+
+    Resource cover = coverStorage.find(first).orElseThrow();
+    assertThat(second).isEqualTo(first).endsWith(".png");
+    assertThat(cover).isInstanceOf(ByteBufferResource.class);
+    assertThat(cover.getContentAsByteArray()).isEqualTo(COVER);
+    assertThat(cover.getFilename()).isEqualTo(first.substring(3));
+    assertThat(packs()).hasSize(1);
+    assertThat(coverStorage.find("00/missing.png")).isEmpty();
+  }
+
+  @Test
+  void indexIsRebuiltOnOpenAndTornTailIsDropped() throws Exception {
+    String cover = coverStorage.store(new ByteArrayInputStream(COVER), "png");
+    coverStorage.put("legacy.png", new ByteArrayInputStream("old".getBytes()));
+    coverStorage.put("legacy.png", new ByteArrayInputStream("new".getBytes()));
+    coverStorage.close();
+    try (FileChannel channel = FileChannel.open(packs().get(0), StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(new byte[] {0x43, 0x4F}));
+    }
+    long size = Files.size(packs().get(0));
+
+    coverStorage = open();
+
+    assertThat(coverStorage.find(cover).orElseThrow().getContentAsByteArray()).isEqualTo(COVER);
+    assertThat(coverStorage.find("legacy.png").orElseThrow().getContentAsByteArray())
+        .isEqualTo("new".getBytes());
+    assertThat(Files.size(packs().get(0))).isEqualTo(size - 2);
+  }
+
+  @Test
+  void secondStorageOnSamePackDirectoryFailsUntilFirstIsClosed() throws Exception {
+    String cover = coverStorage.store(new ByteArrayInputStream(COVER), "png");
+
+    assertThatThrownBy(this::open)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("уже используется");
+
+    coverStorage.close();
+    coverStorage = open();
+    assertThat(coverStorage.find(cover)).isPresent();
+  }
+
+  @Test
+  void storageFailsWhenBookChangesAreSharedBetweenNodes() {
+    assertThatThrownBy(() -> open(true))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("book.change.kafka.enabled");
+  }
+
+  @Test
+  void writesRollOverToNewPackWhenSegmentIsFull() throws Exception {
+    List<String> covers = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      covers.add(coverStorage.store(new ByteArrayInputStream(new byte[40 + i]), "png"));
+    }
+
+    assertThat(packs()).hasSizeGreaterThan(1);
+    for (int i = 0; i < covers.size(); i++) {
+      assertThat(coverStorage.find(covers.get(i)).orElseThrow().contentLength())
+          .isEqualTo(40 + i);
+    }
+    assertThat(coverStorage.size()).isEqualTo(packs().stream().mapToLong(this::sizeOf).sum());
+  }
+
+  @Test
+  void compactRewritesLiveCoversAndDropsReplacedAndUnused() throws Exception {
+    String used = coverStorage.store(new ByteArrayInputStream(COVER), "png");
+    String unused = coverStorage.store(new ByteArrayInputStream(new byte[64]), "png");
+    coverStorage.put("legacy.png", new ByteArrayInputStream(new byte[64]));
+    coverStorage.put("legacy.png", new ByteArrayInputStream("new".getBytes()));
+    Resource mapped = coverStorage.find(used).orElseThrow();
+    long size = coverStorage.size();
+
+    coverStorage.compact(coverPath -> !coverPath.equals(unused), Instant.now().plusSeconds(1));
+
+    assertThat(coverStorage.size()).isLessThan(size);
+    assertThat(coverStorage.exists(unused)).isFalse();
+    assertThat(coverStorage.find(used).orElseThrow().getContentAsByteArray()).isEqualTo(COVER);
+    assertThat(coverStorage.find("legacy.png").orElseThrow().getContentAsByteArray())
+        .isEqualTo("new".getBytes());
+    assertThat(mapped.getContentAsByteArray()).isEqualTo(COVER);
+
+    coverStorage.close();
+    coverStorage = open();
+    assertThat(coverStorage.exists(unused)).isFalse();
+    assertThat(coverStorage.find(used)).isPresent();
+  }
+
+  @Test
+  void compactKeepsCoversUploadedAgainAfterStart() throws Exception {
+    String cover = coverStorage.store(new ByteArrayInputStream(COVER), "png");
+    String unused = coverStorage.store(new ByteArrayInputStream("old".getBytes()), "png");
+    Thread.sleep(5);
+    Instant startedAt = Instant.now();
+    Thread.sleep(5);
+    coverStorage.store(new ByteArrayInputStream(COVER), "png");
+
+    coverStorage.compact(coverPath -> false, startedAt);
+
+    assertThat(coverStorage.find(cover)).isPresent();
+    assertThat(coverStorage.exists(unused)).isFalse();
+  }
+
+  @Test
+  void migrationMovesDirectoryFilesIntoPacks() throws Exception {
+    Path uploads = root.resolve("uploads");
+    Files.createDirectories(uploads.resolve("ab"));
+    Files.write(uploads.resolve("ab/cover.png"), COVER);
+    Files.write(uploads.resolve("book_1.jpg"), "legacy".getBytes());
+    Files.write(uploads.resolve("book_2.jpg"), "legacy".getBytes());
+    Files.write(uploads.resolve("upload-1.tmp"), "partial".getBytes());
+    coverStorage.put("book_2.jpg", new ByteArrayInputStream("other".getBytes()));
+    CoverPackMigration migration = new CoverPackMigration(coverStorage, uploads.toString(),
+        root.resolve("packs").toString());
+
+    assertThat(migration.migrate().files()).isEqualTo(2);
+
+    assertThat(coverStorage.find("ab/cover.png").orElseThrow().getContentAsByteArray())
+        .isEqualTo(COVER);
+    assertThat(coverStorage.exists("book_1.jpg")).isTrue();
+    assertThat(Files.exists(uploads.resolve("ab/cover.png"))).isFalse();
+    assertThat(Files.exists(uploads.resolve("book_2.jpg"))).isTrue();
+    assertThat(Files.exists(uploads.resolve("upload-1.tmp"))).isTrue();
+  }
+
+  private PackFileCoverStorage open() throws Exception {
+    return open(false);
+  }
+
+  private PackFileCoverStorage open(boolean multiNode) throws Exception {
+    return new PackFileCoverStorage(root.resolve("packs").toString(), DataSize.ofBytes(256),
+        0.3, true, DataSize.ofKilobytes(1), multiNode, new SimpleMeterRegistry());
+  }
+
+  private List<Path> packs() throws Exception {
+    try (Stream<Path> files = Files.list(root.resolve("packs"))) {
+      return files.filter(file -> file.getFileName().toString().endsWith(".dat"))
+          .sorted()
+          .toList();
+    }
+  }
+
+  private long sizeOf(Path file) {
+    try {
+      return Files.size(file);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}